@@ -0,0 +1,23 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line (a regex of the
+ * benchmarks to run, -p name=value, -f, -wi, -i, ...), always with the GC
+ * profiler, which reports the bytes allocated per operation
+ * (gc.alloc.rate.norm) next to the time.
+ */
+public class BenchMain {
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		new Runner(new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+}
@@ -0,0 +1,83 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import graph.CompiledGraph;
+import gui.Adapter;
+import gui.Graph;
+
+/**
+ * A board to run the graph benchmarks on, shared by all benchmark threads,
+ * with a fixed list of random query pairs.
+ *
+ * board is either the name of a map in info/Maps (without ".txt"), or
+ * "random-N" for a board of N nodes made by Graph.randomBoard(SEED, N).
+ * Run from a5-release, or set the system property bench.maps to the maps
+ * directory.  Other boards can be given on the command line, e.g.
+ * -p board=random-200000.
+ */
+@State(Scope.Benchmark)
+public class Boards {
+	/** Seed of the generated boards and of the query pairs. */
+	static final long SEED = 2110;
+
+	/** Number of query pairs; a power of two. */
+	static final int QUERIES = 1024;
+
+	@Param({"TestBoard1", "Seed16", "seed128", "random-1000", "random-20000"})
+	public String board;
+
+	/** The board, and its views for a5. */
+	public Graph                                  graph;
+	public Adapter                                adapter;
+	public CompiledGraph<Adapter.Node,Adapter.Edge> compiled;
+
+	/** Query i goes from starts[i] to ends[i]. */
+	public Adapter.Node[] starts;
+	public Adapter.Node[] ends;
+
+	@Setup(Level.Trial)
+	public void load() throws IOException {
+		graph    = load(board);
+		adapter  = graph.adapter();
+		compiled = CompiledGraph.compile(adapter);
+
+		List<Adapter.Node> nodes = new ArrayList<Adapter.Node>(adapter.nodes());
+		Random r = new Random(SEED);
+		starts = new Adapter.Node[QUERIES];
+		ends   = new Adapter.Node[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			starts[i] = nodes.get(r.nextInt(nodes.size()));
+			ends[i]   = nodes.get(r.nextInt(nodes.size()));
+		}
+	}
+
+	/** Return the board named name (see the class comment). */
+	static Graph load(String name) throws IOException {
+		if (name.startsWith("random-"))
+			return Graph.randomBoard(SEED, Integer.parseInt(name.substring("random-".length())));
+		String maps = System.getProperty("bench.maps", "info/Maps");
+		return Graph.readJsonGraph(new File(maps, name + ".txt"));
+	}
+
+	/** The next query of one benchmark thread, cycling through the pairs. */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+
+		/** Return the index of the next query. */
+		int next() {
+			return next++ & (QUERIES - 1);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import a5.GraphAlgorithms;
+import a5.SearchWorkspace;
+import a5.Traversal;
+import gui.Adapter;
+
+/**
+ * The routing core: one shortest-path query or one traversal per call, on
+ * the Node maps of the Adapter and on its CompiledGraph snapshot.
+ * Each call takes the next of Boards.QUERIES fixed random pairs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GraphAlgorithmsBenchmark {
+	/** A search workspace per benchmark thread, reused across calls. */
+	@State(Scope.Thread)
+	public static class Workspace {
+		final SearchWorkspace ws = new SearchWorkspace();
+	}
+
+	/** A Traversal of the compiled board per benchmark thread, reused across calls. */
+	@State(Scope.Thread)
+	public static class Traversals {
+		private Traversal<Adapter.Node, Adapter.Edge> traversal;
+
+		Traversal<Adapter.Node, Adapter.Edge> of(Boards b) {
+			if (traversal == null || traversal.graph() != b.compiled)
+				traversal = new Traversal<>(b.compiled);
+			return traversal;
+		}
+	}
+
+	@Benchmark
+	public List<Adapter.Node> shortestPath(Boards b, Boards.Cursor c) {
+		int i = c.next();
+		return GraphAlgorithms.shortestPath(b.starts[i], b.ends[i]);
+	}
+
+	@Benchmark
+	public List<Adapter.Node> compiledShortestPath(Boards b, Boards.Cursor c, Workspace w) {
+		int i = c.next();
+		return GraphAlgorithms.shortestPath(b.compiled, b.starts[i], b.ends[i], w.ws);
+	}
+
+	@Benchmark
+	public List<Adapter.Node> dfs(Boards b, Boards.Cursor c) {
+		return GraphAlgorithms.dfs(b.starts[c.next()]);
+	}
+
+	@Benchmark
+	public List<Adapter.Node> compiledDfs(Boards b, Boards.Cursor c) {
+		return GraphAlgorithms.dfs(b.compiled, b.starts[c.next()]);
+	}
+
+	@Benchmark
+	public List<Adapter.Node> bfs(Boards b, Boards.Cursor c) {
+		return GraphAlgorithms.bfs(b.starts[c.next()]);
+	}
+
+	/** A breadth-first traversal that stops at the end of the query, on a
+	 * Traversal reused across calls. */
+	@Benchmark
+	public boolean compiledBfsUntilEnd(Boards b, Boards.Cursor c, Traversals t) {
+		int i = c.next();
+		return t.of(b).nodes(b.starts[i], Traversal.Order.BREADTH_FIRST).anyMatch(n -> n == b.ends[i]);
+	}
+}
@@ -0,0 +1,175 @@
+package bench;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import a4.DialQueue;
+import a4.Heap;
+import a4.IntDaryHeap;
+import a4.RadixHeap;
+
+/**
+ * The priority queues of the searches, with the access pattern of Dijkstra's
+ * algorithm: size elements are added with random priorities, and then
+ * polled until the heap is empty, with or without lowering the priority of
+ * every element first.  Each call fills and empties one new heap, so the
+ * time is for size operations of each kind; subtract addPoll from
+ * addDecreasePoll to get the cost of size changePriority calls.
+ *
+ * Heap is the original generic heap, which no search uses any more; it is
+ * kept as the baseline the others are measured against.  IntDaryHeap is the
+ * queue of shortestPath(start, end) and the other searches of the Node maps.
+ * The searches on a CompiledGraph use the monotone queues of a
+ * SearchWorkspace: a DialQueue for small integer weights, else a RadixHeap.
+ * These take integer priorities in 0..MAX_WEIGHT, as Dijkstra's algorithm
+ * would give them after polling the source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeapBenchmark {
+	/** Largest integer priority given to the monotone queues. */
+	private static final int MAX_WEIGHT = 1000;
+
+	@Param({"1000", "100000"})
+	public int size;
+
+	// element i is added with priority priorities[i], then lowered to lowered[i]
+	private Integer[] elements;
+	private double[]  priorities;
+	private double[]  lowered;
+
+	// the integer priorities of the monotone queues, added and lowered as above
+	private int[] weights;
+	private int[] loweredWeights;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random r = new Random(Boards.SEED);
+		elements   = new Integer[size];
+		priorities = new double[size];
+		lowered    = new double[size];
+		weights        = new int[size];
+		loweredWeights = new int[size];
+		for (int i = 0; i < size; i++) {
+			elements[i]   = i;
+			priorities[i] = r.nextDouble();
+			lowered[i]    = priorities[i] * r.nextDouble();
+			weights[i]        = r.nextInt(MAX_WEIGHT + 1);
+			loweredWeights[i] = r.nextInt(weights[i] + 1);
+		}
+	}
+
+	@Benchmark
+	public int addPoll() {
+		Heap<Integer, Double> heap = new Heap<Integer, Double>(Comparator.reverseOrder());
+		for (int i = 0; i < size; i++)
+			heap.add(elements[i], priorities[i]);
+		int last = 0;
+		while (heap.size() > 0)
+			last = heap.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int addDecreasePoll() {
+		Heap<Integer, Double> heap = new Heap<Integer, Double>(Comparator.reverseOrder());
+		for (int i = 0; i < size; i++)
+			heap.add(elements[i], priorities[i]);
+		for (int i = 0; i < size; i++)
+			heap.changePriority(elements[i], lowered[i]);
+		int last = 0;
+		while (heap.size() > 0)
+			last = heap.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int intDaryAddPoll() {
+		IntDaryHeap heap = new IntDaryHeap(4, size);
+		for (int i = 0; i < size; i++)
+			heap.add(i, priorities[i]);
+		int last = 0;
+		while (heap.size() > 0)
+			last = heap.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int intDaryAddDecreasePoll() {
+		IntDaryHeap heap = new IntDaryHeap(4, size);
+		for (int i = 0; i < size; i++)
+			heap.add(i, priorities[i]);
+		for (int i = 0; i < size; i++)
+			heap.changePriority(i, lowered[i]);
+		int last = 0;
+		while (heap.size() > 0)
+			last = heap.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int dialAddPoll() {
+		DialQueue queue = new DialQueue(MAX_WEIGHT, size);
+		for (int i = 0; i < size; i++)
+			queue.add(i, weights[i]);
+		int last = 0;
+		while (queue.size() > 0)
+			last = queue.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int dialAddDecreasePoll() {
+		DialQueue queue = new DialQueue(MAX_WEIGHT, size);
+		for (int i = 0; i < size; i++)
+			queue.add(i, weights[i]);
+		for (int i = 0; i < size; i++)
+			queue.changePriority(i, loweredWeights[i]);
+		int last = 0;
+		while (queue.size() > 0)
+			last = queue.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int radixAddPoll() {
+		RadixHeap queue = new RadixHeap(size);
+		for (int i = 0; i < size; i++)
+			queue.add(i, weights[i]);
+		int last = 0;
+		while (queue.size() > 0)
+			last = queue.poll();
+		return last;
+	}
+
+	@Benchmark
+	public int radixAddDecreasePoll() {
+		RadixHeap queue = new RadixHeap(size);
+		for (int i = 0; i < size; i++)
+			queue.add(i, weights[i]);
+		for (int i = 0; i < size; i++)
+			queue.changePriority(i, loweredWeights[i]);
+		int last = 0;
+		while (queue.size() > 0)
+			last = queue.poll();
+		return last;
+	}
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import a5.DeltaStepping;
+import a5.GraphAlgorithms;
+import a5.ShortestPathTree;
+import gui.Adapter;
+
+/**
+ * One-to-all distances from one source per call: a single-threaded Dijkstra
+ * shortestPathTree, and DeltaStepping on a pool of threads workers.  Run with
+ * large boards, e.g. -p board=random-1000000 -p threads=1,8,32.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OneToAllBenchmark {
+	/** The pool and the delta-stepping search of a trial. */
+	@State(Scope.Benchmark)
+	public static class Parallel {
+		/** Number of worker threads. */
+		@Param({"1", "4"})
+		public int threads;
+
+		/** Bucket width; 0 for DeltaStepping.defaultDelta. */
+		@Param({"0"})
+		public int delta;
+
+		ForkJoinPool pool;
+		DeltaStepping<Adapter.Node,Adapter.Edge> search;
+
+		@Setup(Level.Trial)
+		public void setUp(Boards b) {
+			pool   = new ForkJoinPool(threads);
+			search = delta == 0 ? DeltaStepping.of(b.compiled) : DeltaStepping.of(b.compiled, delta);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public ShortestPathTree<Adapter.Node,Adapter.Edge> dijkstra(Boards b, Boards.Cursor c,
+		GraphAlgorithmsBenchmark.Workspace w) {
+		return GraphAlgorithms.shortestPathTree(b.compiled, b.starts[c.next()], w.ws);
+	}
+
+	@Benchmark
+	public int[] deltaStepping(Boards b, Boards.Cursor c, Parallel p) {
+		return p.search.distances(b.starts[c.next()], p.pool);
+	}
+}
@@ -0,0 +1,205 @@
+package a4;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Dial's bucket queue: a monotone priority queue of int elements with small
+ * non-negative integer priorities, for Dijkstra's algorithm on graphs whose
+ * edge weights are integers in 0..maxSpan.
+ *
+ * There is one bucket per priority in a window last..last+maxSpan, where last
+ * is the priority of the element last polled or peeked (0 for a new or
+ * cleared queue).  The buckets are
+ * circular: priority k goes in bucket k % (maxSpan + 1), and since the window
+ * is only maxSpan + 1 wide, every element of a bucket has the same priority.
+ * Each bucket is a doubly-linked list threaded through arrays indexed by
+ * element, so add and changePriority run in O(1) time, and poll and peek in
+ * O(1) amortized time as the window slides forward.
+ *
+ * The queue is monotone: the priority given to add or changePriority must be
+ * an integer in last..last+maxSpan.  Dijkstra's algorithm on weights in
+ * 0..maxSpan keeps to this, since it only assigns distances of the form
+ * (distance of the node last polled) + (weight of an edge).
+ *
+ * The arrays grow when an element at or beyond the current capacity is added.
+ */
+public class DialQueue implements IntPriorityQueue {
+	// the priorities in this are in last .. last+span-1, and
+	// head[k % span] is the first element with priority k (-1 if none)
+	private final int span;
+	private final int[] head;
+	private long last;
+	private int size;
+
+	// next[e] and prev[e] are the neighbors of e in its bucket (-1 at the ends);
+	// key[e] is the priority of e; in[e] is true iff e is in this
+	private int[] next;
+	private int[] prev;
+	private long[] key;
+	private boolean[] in;
+
+	/**
+	 * Constructs an empty queue for priorities that are at most maxSpan larger
+	 * than the last one polled, with room for the elements 0..capacity-1.
+	 * @throws IllegalArgumentException if maxSpan < 0 or capacity < 0
+	 */
+	public DialQueue(int maxSpan, int capacity) {
+		if (maxSpan < 0 || maxSpan == Integer.MAX_VALUE)
+			throw new IllegalArgumentException("bad maxSpan: " + maxSpan);
+		if (capacity < 0)
+			throw new IllegalArgumentException("negative capacity: " + capacity);
+		span = maxSpan + 1;
+		head = new int[span];
+		Arrays.fill(head, -1);
+		next = new int[capacity];
+		prev = new int[capacity];
+		key  = new long[capacity];
+		in   = new boolean[capacity];
+	}
+
+	/** Return the largest amount by which a priority may exceed the last one polled. */
+	public int maxSpan() {
+		return span - 1;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(int e) {
+		return e >= 0 && e < in.length && in[e];
+	}
+
+	/**
+	 * Remove and return an element with the smallest priority.
+	 * Runs in O(1) amortized time.
+	 * @throws NoSuchElementException if this is empty
+	 */
+	@Override
+	public int poll() throws NoSuchElementException {
+		int e = peek();
+		unlink(e);
+		in[e] = false;
+		size--;
+		return e;
+	}
+
+	/**
+	 * Return an element with the smallest priority.  Runs in O(1) amortized time.
+	 * @throws NoSuchElementException if this is empty
+	 */
+	@Override
+	public int peek() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		while (head[(int) (last % span)] == -1)
+			last++;
+		return head[(int) (last % span)];
+	}
+
+	/**
+	 * Add e with priority p.  Runs in O(1) time, plus the cost of growing the
+	 * arrays if e does not fit.
+	 * @throws IllegalArgumentException if e is negative or already in this,
+	 * or p is not an integer in the window (see the class comment)
+	 */
+	@Override
+	public void add(int e, double p) throws IllegalArgumentException {
+		if (e < 0)
+			throw new IllegalArgumentException("negative element: " + e);
+		if (e >= in.length)
+			grow(e + 1);
+		if (in[e])
+			throw new IllegalArgumentException("duplicate element: " + e);
+		link(e, check(p));
+		in[e] = true;
+		size++;
+	}
+
+	/**
+	 * Change the priority of e to p, in either direction.  Runs in O(1) time.
+	 * @throws NoSuchElementException if this does not contain e
+	 * @throws IllegalArgumentException if p is not an integer in the window
+	 */
+	@Override
+	public void changePriority(int e, double p) throws NoSuchElementException {
+		if (!contains(e))
+			throw new NoSuchElementException();
+		long k = check(p);
+		unlink(e);
+		link(e, k);
+	}
+
+	@Override
+	public double getPriority(int e) throws NoSuchElementException {
+		if (!contains(e))
+			throw new NoSuchElementException();
+		return key[e];
+	}
+
+	/** Remove every element from this.  Runs in O(size() + maxSpan()) time. */
+	@Override
+	public void clear() {
+		for (int b = 0; b < span && size > 0; b++) {
+			for (int e = head[b]; e != -1; e = next[e]) {
+				in[e] = false;
+				size--;
+			}
+			head[b] = -1;
+		}
+		size = 0;
+		last = 0;
+	}
+
+	/** Return p as a key, if it is an integer in the window last..last+maxSpan. */
+	private long check(double p) {
+		long k = (long) p;
+		if (k != p || k < last || k - last >= span)
+			throw new IllegalArgumentException("priority " + p + " is not an integer in "
+				+ last + ".." + (last + span - 1));
+		return k;
+	}
+
+	/** Put e, which is in no bucket, at the front of the bucket of priority k. */
+	private void link(int e, long k) {
+		int b = (int) (k % span);
+		key[e]  = k;
+		prev[e] = -1;
+		next[e] = head[b];
+		if (head[b] != -1)
+			prev[head[b]] = e;
+		head[b] = e;
+	}
+
+	/** Take e out of its bucket (it stays in this). */
+	private void unlink(int e) {
+		if (prev[e] != -1)
+			next[prev[e]] = next[e];
+		else
+			head[(int) (key[e] % span)] = next[e];
+		if (next[e] != -1)
+			prev[next[e]] = prev[e];
+	}
+
+	/** Make room for the elements 0..capacity-1. */
+	private void grow(int capacity) {
+		int n = Math.max(capacity, 2 * in.length);
+		next = Arrays.copyOf(next, n);
+		prev = Arrays.copyOf(prev, n);
+		key  = Arrays.copyOf(key, n);
+		in   = Arrays.copyOf(in, n);
+	}
+
+	/** @return a string listing the elements and priorities, by priority. */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (long k = last; k < last + span; k++)
+			for (int e = head[(int) (k % span)]; e != -1; e = next[e])
+				out.append(e).append(": ").append(key[e]).append('\n');
+		return out.toString();
+	}
+}
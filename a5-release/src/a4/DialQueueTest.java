@@ -0,0 +1,87 @@
+package a4;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DialQueueTest {
+
+	@Test
+	void testAddPoll() {
+		DialQueue q = new DialQueue(10, 4);
+		assertThrows(NoSuchElementException.class, () -> q.peek());
+		assertThrows(NoSuchElementException.class, () -> q.poll());
+		q.add(3, 5.0);
+		q.add(1, 2.0);
+		q.add(7, 9.0); // beyond the initial capacity
+		q.add(0, 4.0);
+		assertThrows(IllegalArgumentException.class, () -> q.add(1, 3.0));
+		assertThrows(IllegalArgumentException.class, () -> q.add(-1, 3.0));
+		assertEquals(4, q.size());
+		assertEquals(1, q.peek());
+		assertEquals(1, q.poll());
+		assertFalse(q.contains(1));
+		assertEquals(0, q.poll());
+		assertEquals(3, q.poll());
+		assertEquals(7, q.poll());
+		assertEquals(0, q.size());
+	}
+
+	@Test
+	void testWindow() {
+		DialQueue q = new DialQueue(10, 4);
+		q.add(0, 0.0);
+		q.add(1, 10.0);
+		assertThrows(IllegalArgumentException.class, () -> q.add(2, 11.0));
+		assertThrows(IllegalArgumentException.class, () -> q.add(2, -1.0));
+		assertThrows(IllegalArgumentException.class, () -> q.add(2, 0.5));
+		assertThrows(IllegalArgumentException.class, () -> q.changePriority(1, Double.POSITIVE_INFINITY));
+		assertEquals(0, q.poll());
+		q.add(2, 0.0);
+		q.changePriority(1, 1.0);
+		assertEquals(1.0, q.getPriority(1));
+		assertEquals(2, q.poll());
+		assertEquals(1, q.poll());
+		q.add(3, 11.0); // the window slid to 1..11
+		assertThrows(IllegalArgumentException.class, () -> q.add(4, 0.0));
+		assertEquals(3, q.peek()); // and now to 11..21
+		assertThrows(IllegalArgumentException.class, () -> q.add(4, 10.0));
+		q.add(4, 21.0);
+		q.clear();
+		assertEquals(0, q.size());
+		assertFalse(q.contains(3));
+		q.add(3, 0.0);
+		assertEquals(3, q.poll());
+	}
+
+	@Test
+	void testDijkstraLikeAgainstSort() {
+		Random r = new Random(2110);
+		for (int c : new int[] { 0, 1, 60, 1000 }) {
+			DialQueue q = new DialQueue(c, 0);
+			double[] p = new double[2000];
+			int next = 0;
+			double last = 0;
+			q.add(next++, 0);
+			while (q.size() > 0) {
+				int e = q.poll();
+				assertTrue(p[e] >= last);
+				last = p[e];
+				// reach a few new elements and lower a few others, as a search does
+				for (int k = 0; k < 3 && next < p.length; k++) {
+					p[next] = last + r.nextInt(c + 1);
+					q.add(next++, p[next - 1]);
+				}
+				int f = r.nextInt(next);
+				if (q.contains(f) && p[f] > last) {
+					p[f] = last + r.nextInt((int) (p[f] - last) + 1);
+					q.changePriority(f, p[f]);
+				}
+			}
+			assertEquals(p.length, next);
+		}
+	}
+}
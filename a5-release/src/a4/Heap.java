@@ -74,9 +74,10 @@ public class Heap<E, P> implements PriorityQueue<E, P> {
 		if (size() == 0)
 			throw new NoSuchElementException();
 		E toBeReturned = arr.get(0);
-		if (size() > 1) {
-			arr.set(0, arr.remove(size() - 1));
-			map.remove(toBeReturned);
+		map.remove(toBeReturned);
+		E last = arr.remove(size() - 1);
+		if (size() > 0) {
+			arr.set(0, last);
 			elmAt(0).setIndex(0);
 			heapifyDown(0);
 		}
@@ -139,9 +140,9 @@ public class Heap<E, P> implements PriorityQueue<E, P> {
 		if (left(i) == -1)
 			return true;
 		if (right(i) == -1)
-			return comp.compare(elmAt(i).priority(), elmAt(left(i)).priority()) > 0;
-		return (comp.compare(elmAt(i).priority(), elmAt(right(i)).priority()) > 0 
-			 && comp.compare(elmAt(i).priority(),  elmAt(left(i)).priority()) > 0 
+			return comp.compare(elmAt(i).priority(), elmAt(left(i)).priority()) >= 0;
+		return (comp.compare(elmAt(i).priority(), elmAt(right(i)).priority()) >= 0 
+			 && comp.compare(elmAt(i).priority(),  elmAt(left(i)).priority()) >= 0 
 			 && checkHeap(left(i)) && checkHeap(right(i)));
 	}
 	
@@ -235,23 +236,16 @@ public class Heap<E, P> implements PriorityQueue<E, P> {
 	 */
 	private void heapifyDown(int i) {
 		// base case: index i is a leaf of the heap
-		if (left(i) != -1 && right(i) != -1) {
-			// will swap with left child if left child is largest of the three
-			if (comp.compare(elmAt(i).priority(), elmAt(left(i)).priority()) < 0 
-			 && comp.compare(elmAt(left(i)).priority(), elmAt(right(i)).priority()) > 0) {
-				swap(i, left(i));
-				heapifyDown(left(i));
-			}
-			// will swap with right child if right child is largest of the three
-			else if (comp.compare(elmAt(i).priority(), elmAt(right(i)).priority()) < 0 
-				  && comp.compare(elmAt(right(i)).priority(), elmAt(left(i)).priority()) > 0) {
-				swap(i, right(i));
-				heapifyDown(right(i));
-			}
-		} else if (left(i) != -1 && right(i) == -1) {
-			if (comp.compare(elmAt(i).priority(), elmAt(left(i)).priority()) < 0) {
-				swap(i, left(i));
-			}
+		if (left(i) == -1)
+			return;
+		// the larger of the two children; the left one if they are equal
+		int child = left(i);
+		if (right(i) != -1
+		 && comp.compare(elmAt(right(i)).priority(), elmAt(left(i)).priority()) > 0)
+			child = right(i);
+		if (comp.compare(elmAt(i).priority(), elmAt(child).priority()) < 0) {
+			swap(i, child);
+			heapifyDown(child);
 		}
 	}
 	
@@ -0,0 +1,221 @@
+package a4;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An indexed d-ary min-heap of int elements with double priorities.
+ *
+ * Elements are used directly as array indices: pos[e] is where e sits in the
+ * heap (or -1), and prio[e] is its priority.  So contains, getPriority and the
+ * lookups in changePriority are array reads rather than hash lookups, and the
+ * sift loops are iterative.  A larger arity makes the heap shallower, which
+ * helps the decrease-key heavy workload of Dijkstra's algorithm; 4 is usually
+ * a good choice.
+ *
+ * The arrays grow when an element at or beyond the current capacity is added.
+ */
+public class IntDaryHeap implements IntPriorityQueue {
+	// number of children of each node
+	private final int arity;
+
+	// heap[0..size-1] holds the elements in heap order
+	private int[] heap;
+	private int size;
+
+	// pos[e] is the index of e in heap, or -1 if e is not in this
+	private int[] pos;
+
+	// prio[e] is the priority of e; only meaningful while e is in this
+	private double[] prio;
+
+	/**
+	 * Constructs an empty heap whose nodes have arity children, with room for
+	 * the elements 0..capacity-1.
+	 * @throws IllegalArgumentException if arity < 2 or capacity < 0
+	 */
+	public IntDaryHeap(int arity, int capacity) {
+		if (arity < 2)
+			throw new IllegalArgumentException("arity must be at least 2: " + arity);
+		if (capacity < 0)
+			throw new IllegalArgumentException("negative capacity: " + capacity);
+		this.arity = arity;
+		heap = new int[capacity];
+		pos  = new int[capacity];
+		prio = new double[capacity];
+		Arrays.fill(pos, -1);
+	}
+
+	/** Constructs an empty binary heap with room for the elements 0..capacity-1. */
+	public IntDaryHeap(int capacity) {
+		this(2, capacity);
+	}
+
+	/** Return the arity of this heap. */
+	public int arity() {
+		return arity;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(int e) {
+		return e >= 0 && e < pos.length && pos[e] != -1;
+	}
+
+	/**
+	 * Remove and return the element with the smallest priority.
+	 * Runs in O(d log_d n) time.
+	 * @throws NoSuchElementException if this is empty
+	 */
+	@Override
+	public int poll() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int top = heap[0];
+		pos[top] = -1;
+		size--;
+		if (size > 0) {
+			int last = heap[size];
+			heap[0] = last;
+			pos[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	@Override
+	public int peek() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return heap[0];
+	}
+
+	/**
+	 * Add e with priority p.  Runs in O(log_d n) time, plus the cost of growing
+	 * the arrays if e does not fit.
+	 * @throws IllegalArgumentException if e is negative or already in this
+	 */
+	@Override
+	public void add(int e, double p) throws IllegalArgumentException {
+		if (e < 0)
+			throw new IllegalArgumentException("negative element: " + e);
+		if (e >= pos.length)
+			grow(e + 1);
+		if (pos[e] != -1)
+			throw new IllegalArgumentException("duplicate element: " + e);
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, Math.max(4, 2 * heap.length));
+		prio[e] = p;
+		heap[size] = e;
+		pos[e] = size;
+		size++;
+		siftUp(size - 1);
+	}
+
+	/**
+	 * Change the priority of e to p, in either direction.
+	 * Runs in O(log_d n) time for a decrease and O(d log_d n) for an increase.
+	 * @throws NoSuchElementException if this does not contain e.
+	 */
+	@Override
+	public void changePriority(int e, double p) throws NoSuchElementException {
+		if (!contains(e))
+			throw new NoSuchElementException();
+		double old = prio[e];
+		prio[e] = p;
+		if (p < old)
+			siftUp(pos[e]);
+		else if (p > old)
+			siftDown(pos[e]);
+	}
+
+	@Override
+	public double getPriority(int e) throws NoSuchElementException {
+		if (!contains(e))
+			throw new NoSuchElementException();
+		return prio[e];
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			pos[heap[i]] = -1;
+		size = 0;
+	}
+
+	/** Return true iff no element has a smaller priority than its parent. */
+	public boolean checkHeap() {
+		for (int i = 1; i < size; i++)
+			if (prio[heap[i]] < prio[heap[(i - 1) / arity]])
+				return false;
+		return true;
+	}
+
+	/** Move the element at index i up until its parent is no larger. */
+	private void siftUp(int i) {
+		int    e = heap[i];
+		double p = prio[e];
+		while (i > 0) {
+			int parent = (i - 1) / arity;
+			int pe     = heap[parent];
+			if (prio[pe] <= p)
+				break;
+			heap[i] = pe;
+			pos[pe] = i;
+			i = parent;
+		}
+		heap[i] = e;
+		pos[e]  = i;
+	}
+
+	/** Move the element at index i down until no child is smaller. */
+	private void siftDown(int i) {
+		int    e = heap[i];
+		double p = prio[e];
+		while (true) {
+			int first = i * arity + 1;
+			if (first >= size)
+				break;
+			// find the smallest child
+			int    best  = first;
+			double bestP = prio[heap[first]];
+			int    last  = Math.min(first + arity, size);
+			for (int c = first + 1; c < last; c++) {
+				double cp = prio[heap[c]];
+				if (cp < bestP) {
+					best  = c;
+					bestP = cp;
+				}
+			}
+			if (bestP >= p)
+				break;
+			heap[i] = heap[best];
+			pos[heap[i]] = i;
+			i = best;
+		}
+		heap[i] = e;
+		pos[e]  = i;
+	}
+
+	/** Make room for the elements 0..capacity-1. */
+	private void grow(int capacity) {
+		int n = Math.max(capacity, 2 * pos.length);
+		int old = pos.length;
+		pos  = Arrays.copyOf(pos, n);
+		prio = Arrays.copyOf(prio, n);
+		Arrays.fill(pos, old, n, -1);
+	}
+
+	/** @return a string listing the elements and priorities in heap order. */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < size; i++)
+			out.append(heap[i]).append(": ").append(prio[heap[i]]).append('\n');
+		return out.toString();
+	}
+}
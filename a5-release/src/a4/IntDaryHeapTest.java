@@ -0,0 +1,79 @@
+package a4;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntDaryHeapTest {
+
+	@Test
+	void testAddPoll() {
+		for (int d : new int[] { 2, 4, 8 }) {
+			IntDaryHeap h = new IntDaryHeap(d, 4);
+			assertThrows(NoSuchElementException.class, () -> h.peek());
+			assertThrows(NoSuchElementException.class, () -> h.poll());
+			h.add(3, 5.0);
+			h.add(1, 2.0);
+			h.add(7, 9.0); // beyond the initial capacity
+			h.add(0, 4.0);
+			assertThrows(IllegalArgumentException.class, () -> h.add(1, 1.0));
+			assertThrows(IllegalArgumentException.class, () -> h.add(-1, 1.0));
+			assertEquals(4, h.size());
+			assertTrue(h.checkHeap());
+			assertEquals(1, h.peek());
+			assertEquals(1, h.poll());
+			assertFalse(h.contains(1));
+			assertEquals(0, h.poll());
+			assertEquals(3, h.poll());
+			assertEquals(7, h.poll());
+			assertEquals(0, h.size());
+		}
+	}
+
+	@Test
+	void testChangePriority() {
+		IntDaryHeap h = new IntDaryHeap(4, 10);
+		assertThrows(NoSuchElementException.class, () -> h.changePriority(2, 1.0));
+		for (int i = 0; i < 10; i++)
+			h.add(i, 10 + i);
+		h.changePriority(9, 0.0);
+		assertEquals(9, h.peek());
+		assertEquals(0.0, h.getPriority(9));
+		h.changePriority(9, 100.0);
+		assertEquals(0, h.peek());
+		assertTrue(h.checkHeap());
+		h.clear();
+		assertEquals(0, h.size());
+		assertFalse(h.contains(0));
+		h.add(0, 1.0);
+		assertEquals(0, h.poll());
+	}
+
+	@Test
+	void testRandomAgainstSort() {
+		Random r = new Random(2110);
+		for (int d : new int[] { 2, 4, 8 }) {
+			IntDaryHeap h = new IntDaryHeap(d, 0);
+			double[] p = new double[500];
+			for (int i = 0; i < p.length; i++) {
+				p[i] = r.nextInt(1000);
+				h.add(i, p[i]);
+			}
+			for (int k = 0; k < 200; k++) {
+				int e = r.nextInt(p.length);
+				p[e] = r.nextInt(1000);
+				h.changePriority(e, p[e]);
+			}
+			assertTrue(h.checkHeap());
+			double last = Double.NEGATIVE_INFINITY;
+			while (h.size() > 0) {
+				int e = h.poll();
+				assertTrue(p[e] >= last);
+				last = p[e];
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package a4;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of int elements with double priorities; the primitive
+ * counterpart of PriorityQueue.  Elements are typically dense ids (such as
+ * the node ids of a graph.CompiledGraph), so implementations can keep their
+ * bookkeeping in arrays instead of a HashMap, and nothing is boxed.
+ *
+ * Unlike PriorityQueue there is no comparator: poll() and peek() return the
+ * element with the SMALLEST priority, which is what shortest-path searches want.
+ *
+ * As with PriorityQueue, only one copy of a given element can be stored.
+ * Elements must be non-negative.
+ */
+public interface IntPriorityQueue {
+
+	/** Return the number of elements in this.  Runs in O(1) time. */
+	public int size();
+
+	/** Return true iff e is in this.  Runs in O(1) time. */
+	public boolean contains(int e);
+
+	/**
+	 * Remove and return the element of this with the smallest priority.
+	 *
+	 * @throws NoSuchElementException if this is empty
+	 */
+	public int poll() throws NoSuchElementException;
+
+	/**
+	 * Return the element of this with the smallest priority.
+	 * Runs in O(1) time.
+	 *
+	 * @throws NoSuchElementException if this is empty.
+	 */
+	public int peek() throws NoSuchElementException;
+
+	/**
+	 * Add the element e with priority p to this.
+	 *
+	 * @throws IllegalArgumentException if e is negative or already in this
+	 */
+	public void add(int e, double p) throws IllegalArgumentException;
+
+	/**
+	 * Change the priority associated with e to p.
+	 *
+	 * @throws NoSuchElementException if this does not contain e.
+	 */
+	public void changePriority(int e, double p) throws NoSuchElementException;
+
+	/**
+	 * Return the priority associated with e.
+	 *
+	 * @throws NoSuchElementException if this does not contain e.
+	 */
+	public double getPriority(int e) throws NoSuchElementException;
+
+	/** Remove every element from this.  Runs in O(size()) time. */
+	public void clear();
+}
@@ -0,0 +1,218 @@
+package a4;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A radix heap: a monotone priority queue of int elements with non-negative
+ * integer priorities of any size, for Dijkstra's algorithm on graphs whose
+ * edge weights are non-negative integers too large for a DialQueue.
+ *
+ * Let last be the priority of the element last polled or peeked (0 for a new
+ * or cleared heap).  Bucket 0 holds the elements with priority last, and bucket i > 0 those whose
+ * priority first differs from last in bit i-1, so the buckets cover
+ * exponentially larger ranges.  poll takes an element from bucket 0; when it
+ * is empty, the first non-empty bucket is emptied into the lower buckets
+ * around its smallest priority, which becomes last.  An element only ever
+ * moves to lower buckets, so poll takes O(log C) amortized time for
+ * priorities that differ by at most C, and add and changePriority O(1) time.
+ *
+ * The queue is monotone: the priority given to add or changePriority must be
+ * an integer of at least last (and below 2^53, where doubles stay exact).
+ * Dijkstra's algorithm on non-negative weights keeps to this.
+ *
+ * The arrays grow when an element at or beyond the current capacity is added.
+ */
+public class RadixHeap implements IntPriorityQueue {
+	/** Number of buckets: one for last, and one per bit of a non-negative long. */
+	private static final int BUCKETS = 64;
+
+	// head[i] is the first element of bucket i (-1 if it is empty), and bit i
+	// of nonEmpty is set iff head[i] != -1
+	private final int[] head = new int[BUCKETS];
+	private long nonEmpty;
+	private long last;
+	private int size;
+
+	// next[e] and prev[e] are the neighbors of e in its bucket (-1 at the ends);
+	// key[e] is the priority of e; bucket[e] is its bucket, -1 if e is not in this
+	private int[] next;
+	private int[] prev;
+	private long[] key;
+	private byte[] bucket;
+
+	/**
+	 * Constructs an empty radix heap with room for the elements 0..capacity-1.
+	 * @throws IllegalArgumentException if capacity < 0
+	 */
+	public RadixHeap(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("negative capacity: " + capacity);
+		Arrays.fill(head, -1);
+		next   = new int[capacity];
+		prev   = new int[capacity];
+		key    = new long[capacity];
+		bucket = new byte[capacity];
+		Arrays.fill(bucket, (byte) -1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(int e) {
+		return e >= 0 && e < bucket.length && bucket[e] != -1;
+	}
+
+	/**
+	 * Remove and return an element with the smallest priority.
+	 * Runs in O(log C) amortized time (see the class comment).
+	 * @throws NoSuchElementException if this is empty
+	 */
+	@Override
+	public int poll() throws NoSuchElementException {
+		int e = peek();
+		unlink(e);
+		bucket[e] = -1;
+		size--;
+		return e;
+	}
+
+	/**
+	 * Return an element with the smallest priority.
+	 * Runs in O(log C) amortized time (see the class comment).
+	 * @throws NoSuchElementException if this is empty
+	 */
+	@Override
+	public int peek() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		if (head[0] == -1) {
+			// empty the first non-empty bucket around its smallest priority
+			int i = Long.numberOfTrailingZeros(nonEmpty);
+			long min = Long.MAX_VALUE;
+			for (int e = head[i]; e != -1; e = next[e])
+				min = Math.min(min, key[e]);
+			last = min;
+			int e = head[i];
+			head[i] = -1;
+			nonEmpty &= ~(1L << i);
+			while (e != -1) {
+				int n = next[e];
+				link(e, key[e]);
+				e = n;
+			}
+		}
+		return head[0];
+	}
+
+	/**
+	 * Add e with priority p.  Runs in O(1) time, plus the cost of growing the
+	 * arrays if e does not fit.
+	 * @throws IllegalArgumentException if e is negative or already in this,
+	 * or p is not an integer of at least the last priority polled
+	 */
+	@Override
+	public void add(int e, double p) throws IllegalArgumentException {
+		if (e < 0)
+			throw new IllegalArgumentException("negative element: " + e);
+		if (e >= bucket.length)
+			grow(e + 1);
+		if (bucket[e] != -1)
+			throw new IllegalArgumentException("duplicate element: " + e);
+		link(e, check(p));
+		size++;
+	}
+
+	/**
+	 * Change the priority of e to p, in either direction.  Runs in O(1) time.
+	 * @throws NoSuchElementException if this does not contain e
+	 * @throws IllegalArgumentException if p is not an integer of at least the
+	 * last priority polled
+	 */
+	@Override
+	public void changePriority(int e, double p) throws NoSuchElementException {
+		if (!contains(e))
+			throw new NoSuchElementException();
+		long k = check(p);
+		unlink(e);
+		link(e, k);
+	}
+
+	@Override
+	public double getPriority(int e) throws NoSuchElementException {
+		if (!contains(e))
+			throw new NoSuchElementException();
+		return key[e];
+	}
+
+	@Override
+	public void clear() {
+		while (nonEmpty != 0) {
+			int i = Long.numberOfTrailingZeros(nonEmpty);
+			for (int e = head[i]; e != -1; e = next[e])
+				bucket[e] = -1;
+			head[i] = -1;
+			nonEmpty &= ~(1L << i);
+		}
+		size = 0;
+		last = 0;
+	}
+
+	/** Return p as a key, if it is an integer of at least last. */
+	private long check(double p) {
+		long k = (long) p;
+		if (k != p || k < last)
+			throw new IllegalArgumentException("priority " + p + " is not an integer >= " + last);
+		return k;
+	}
+
+	/** Put e, which is in no bucket, at the front of the bucket for priority k. */
+	private void link(int e, long k) {
+		int i = k == last ? 0 : 64 - Long.numberOfLeadingZeros(k ^ last);
+		key[e]    = k;
+		bucket[e] = (byte) i;
+		prev[e]   = -1;
+		next[e]   = head[i];
+		if (head[i] != -1)
+			prev[head[i]] = e;
+		head[i] = e;
+		nonEmpty |= 1L << i;
+	}
+
+	/** Take e out of its bucket (it stays in this). */
+	private void unlink(int e) {
+		int i = bucket[e];
+		if (prev[e] != -1)
+			next[prev[e]] = next[e];
+		else
+			head[i] = next[e];
+		if (next[e] != -1)
+			prev[next[e]] = prev[e];
+		if (head[i] == -1)
+			nonEmpty &= ~(1L << i);
+	}
+
+	/** Make room for the elements 0..capacity-1. */
+	private void grow(int capacity) {
+		int n = Math.max(capacity, 2 * bucket.length);
+		int old = bucket.length;
+		next   = Arrays.copyOf(next, n);
+		prev   = Arrays.copyOf(prev, n);
+		key    = Arrays.copyOf(key, n);
+		bucket = Arrays.copyOf(bucket, n);
+		Arrays.fill(bucket, old, n, (byte) -1);
+	}
+
+	/** @return a string listing the elements and priorities, by bucket. */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < BUCKETS; i++)
+			for (int e = head[i]; e != -1; e = next[e])
+				out.append(e).append(": ").append(key[e]).append('\n');
+		return out.toString();
+	}
+}
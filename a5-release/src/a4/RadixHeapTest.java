@@ -0,0 +1,84 @@
+package a4;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RadixHeapTest {
+
+	@Test
+	void testAddPoll() {
+		RadixHeap h = new RadixHeap(4);
+		assertThrows(NoSuchElementException.class, () -> h.peek());
+		assertThrows(NoSuchElementException.class, () -> h.poll());
+		h.add(3, 5.0);
+		h.add(1, 2.0);
+		h.add(7, 9.0); // beyond the initial capacity
+		h.add(0, 4.0);
+		assertThrows(IllegalArgumentException.class, () -> h.add(1, 3.0));
+		assertThrows(IllegalArgumentException.class, () -> h.add(-1, 3.0));
+		assertEquals(4, h.size());
+		assertEquals(1, h.peek());
+		assertEquals(1, h.poll());
+		assertFalse(h.contains(1));
+		assertEquals(0, h.poll());
+		assertEquals(3, h.poll());
+		assertEquals(7, h.poll());
+		assertEquals(0, h.size());
+	}
+
+	@Test
+	void testMonotone() {
+		RadixHeap h = new RadixHeap(4);
+		h.add(0, 100.0);
+		h.add(1, 1e15);
+		assertThrows(IllegalArgumentException.class, () -> h.add(2, -1.0));
+		assertThrows(IllegalArgumentException.class, () -> h.add(2, 100.5));
+		assertThrows(IllegalArgumentException.class, () -> h.add(2, Double.NaN));
+		assertEquals(0, h.poll());
+		assertThrows(IllegalArgumentException.class, () -> h.add(2, 99.0));
+		h.add(2, 100.0);
+		h.changePriority(1, 101.0);
+		assertEquals(101.0, h.getPriority(1));
+		assertEquals(2, h.poll());
+		assertEquals(1, h.poll());
+		h.add(3, 111.0);
+		assertThrows(IllegalArgumentException.class, () -> h.add(4, 100.0));
+		h.clear();
+		assertEquals(0, h.size());
+		assertFalse(h.contains(3));
+		h.add(3, 0.0);
+		assertEquals(3, h.poll());
+	}
+
+	@Test
+	void testDijkstraLikeAgainstSort() {
+		Random r = new Random(2110);
+		for (int c : new int[] { 1, 60, 100000, Integer.MAX_VALUE }) {
+			RadixHeap h = new RadixHeap(0);
+			double[] p = new double[2000];
+			int next = 0;
+			double last = 0;
+			h.add(next++, 0);
+			while (h.size() > 0) {
+				int e = h.poll();
+				assertTrue(p[e] >= last);
+				last = p[e];
+				// reach a few new elements and lower a few others, as a search does
+				for (int k = 0; k < 3 && next < p.length; k++) {
+					p[next] = last + r.nextInt(c);
+					h.add(next++, p[next - 1]);
+				}
+				int f = r.nextInt(next);
+				if (h.contains(f) && p[f] > last) {
+					p[f] = last + (long) (r.nextDouble() * (p[f] - last));
+					h.changePriority(f, p[f]);
+				}
+			}
+			assertEquals(p.length, next);
+		}
+	}
+}
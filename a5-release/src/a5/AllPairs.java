@@ -0,0 +1,173 @@
+package a5;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import graph.CompiledGraph;
+import graph.LabeledEdge;
+import graph.Node;
+
+/**
+ * All-pairs shortest-path distance matrices of a CompiledGraph.
+ *
+ * dist[u][v] is the length of a shortest path from the node with id u to the
+ * node with id v, or UNREACHABLE if there is none.  Two ways to compute it:
+ *
+ *  - dijkstra runs one single-source search per node, spread over a
+ *    ForkJoinPool.  Each task keeps one SearchWorkspace for all the sources
+ *    it handles.  O(n (m + n) log n) work; best for sparse graphs.
+ *  - floydWarshall runs the Floyd-Warshall algorithm on the matrix in square
+ *    tiles small enough to stay in cache.  O(n^3) work but a very tight loop;
+ *    best for small or dense graphs.
+ *
+ * write saves a matrix in the format read by a5.testing.PathData.
+ */
+public class AllPairs {
+	/** Distance of a pair with no path between them. */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** Sources handled by one fork-join task without splitting further; they
+	 * share a workspace, so this many searches pay for its allocation. */
+	private static final int SOURCES_PER_TASK = 32;
+
+	/** Side length of the tiles of floydWarshall. */
+	private static final int TILE = 64;
+
+	/** Return the distance matrix of g, computed with the common fork-join pool. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	int[][] dijkstra(CompiledGraph<N,E> g) {
+		return dijkstra(g, ForkJoinPool.commonPool());
+	}
+
+	/** Return the distance matrix of g, one Dijkstra search per row, run in pool. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	int[][] dijkstra(CompiledGraph<N,E> g, ForkJoinPool pool) {
+		int[][] dist = new int[g.size()][];
+		pool.invoke(new Rows<N,E>(g, dist, 0, g.size()));
+		return dist;
+	}
+
+	/** Computes rows first .. last-1 of a distance matrix, splitting in halves.
+	 * A leaf makes its own workspace, which is garbage once it is done. */
+	@SuppressWarnings("serial")
+	private static class Rows<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+		extends RecursiveAction {
+		private final CompiledGraph<N,E> g;
+		private final int[][] dist;
+		private final int first;
+		private final int last;
+
+		Rows(CompiledGraph<N,E> g, int[][] dist, int first, int last) {
+			this.g     = g;
+			this.dist  = dist;
+			this.first = first;
+			this.last  = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > SOURCES_PER_TASK) {
+				int mid = (first + last) >>> 1;
+				invokeAll(new Rows<N,E>(g, dist, first, mid),
+				          new Rows<N,E>(g, dist, mid, last));
+				return;
+			}
+			SearchWorkspace ws = new SearchWorkspace(g.size());
+			for (int s = first; s < last; s++) {
+				ShortestPathTree<N,E> tree = GraphAlgorithms.shortestPathTree(g, g.node(s), ws);
+				int[] row = new int[g.size()];
+				for (int v = 0; v < row.length; v++) {
+					double d = tree.distance(v);
+					row[v] = d == Double.POSITIVE_INFINITY ? UNREACHABLE : (int) d;
+				}
+				dist[s] = row;
+			}
+		}
+	}
+
+	/** Return the distance matrix of g, computed by tiled Floyd-Warshall. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	int[][] floydWarshall(CompiledGraph<N,E> g) {
+		int n = g.size();
+		int[][] dist = new int[n][n];
+		for (int u = 0; u < n; u++) {
+			Arrays.fill(dist[u], UNREACHABLE);
+			dist[u][u] = 0;
+			for (int i = g.start(u); i < g.end(u); i++)
+				dist[u][g.target(i)] = Math.min(dist[u][g.target(i)], g.weight(i));
+		}
+
+		// Round kb makes paths through the nodes of tile kb available: first
+		// inside the diagonal tile, then in the tiles of its row and column
+		// (which only need the diagonal tile), then everywhere else.
+		for (int kb = 0; kb < n; kb += TILE) {
+			int ke = Math.min(kb + TILE, n);
+			relax(dist, kb, ke, kb, ke, kb, ke);
+			for (int jb = 0; jb < n; jb += TILE) {
+				if (jb == kb)
+					continue;
+				int je = Math.min(jb + TILE, n);
+				relax(dist, kb, ke, kb, ke, jb, je);
+				relax(dist, kb, ke, jb, je, kb, ke);
+			}
+			for (int ib = 0; ib < n; ib += TILE) {
+				if (ib == kb)
+					continue;
+				int ie = Math.min(ib + TILE, n);
+				for (int jb = 0; jb < n; jb += TILE) {
+					if (jb == kb)
+						continue;
+					relax(dist, kb, ke, ib, ie, jb, Math.min(jb + TILE, n));
+				}
+			}
+		}
+		return dist;
+	}
+
+	/**
+	 * Shorten dist[i][j] to dist[i][k] + dist[k][j] for k in kb..ke-1 (outer
+	 * loop, in order), i in ib..ie-1 and j in jb..je-1.
+	 */
+	private static void relax(int[][] dist, int kb, int ke, int ib, int ie, int jb, int je) {
+		for (int k = kb; k < ke; k++) {
+			int[] row_k = dist[k];
+			for (int i = ib; i < ie; i++) {
+				int[] row_i = dist[i];
+				int ik = row_i[k];
+				if (ik == UNREACHABLE)
+					continue;
+				for (int j = jb; j < je; j++) {
+					int kj = row_k[j];
+					if (kj != UNREACHABLE && ik + kj < row_i[j])
+						row_i[j] = ik + kj;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write dist, the distance matrix of g, to out in the format read by
+	 * a5.testing.PathData.readFile: the number of nodes, the nodes' names
+	 * (toString()) in double quotes, then one line of distances per node.
+	 * UNREACHABLE is written as -1, which PathData reads as its NO_PATH: a
+	 * reader of the file must not take it for a distance.  out is not closed.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	void write(CompiledGraph<N,E> g, int[][] dist, Writer out) throws IOException {
+		StringBuilder line = new StringBuilder();
+		out.write(g.size() + "\n");
+		for (int u = 0; u < g.size(); u++)
+			line.append('"').append(g.node(u)).append("\" ");
+		out.write(line.append('\n').toString());
+		for (int u = 0; u < g.size(); u++) {
+			line.setLength(0);
+			for (int v = 0; v < g.size(); v++)
+				line.append(dist[u][v] == UNREACHABLE ? -1 : dist[u][v]).append(' ');
+			out.write(line.append('\n').toString());
+		}
+		out.flush();
+	}
+}
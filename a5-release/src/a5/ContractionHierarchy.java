@@ -0,0 +1,578 @@
+package a5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import a4.IntDaryHeap;
+import graph.CompiledGraph;
+import graph.LabeledEdge;
+import graph.Node;
+
+/**
+ * A contraction hierarchy over a CompiledGraph, for fast point-to-point
+ * shortest-path queries on a graph that does not change.
+ *
+ * Preprocessing contracts the nodes one at a time, least important first.
+ * Contracting v removes it from the remaining graph; for every pair of edges
+ * u -> v -> x whose combination is the only shortest u-to-x path (checked by
+ * a bounded "witness" search from u that avoids v), a shortcut edge u -> x is
+ * added that remembers v as its middle node.  Importance is the edge
+ * difference: shortcuts added minus edges removed, plus the number of already
+ * contracted neighbors to spread contraction evenly over the graph.
+ *
+ * The order in which nodes were contracted is their rank.  Every shortest
+ * path has a version that first climbs in rank and then descends, so a query
+ * runs a forward search from start over edges to higher-ranked nodes and a
+ * backward search from end over edges from higher-ranked nodes, and both
+ * searches only explore a small part of the graph.  Shortcuts on the
+ * resulting path are expanded back into original edges.
+ *
+ * The search state of a query is a Workspace, which belongs to its caller:
+ * like a SearchWorkspace, it can be passed to any number of queries, one at a
+ * time, and each query only clears what the previous one touched.  The
+ * hierarchy itself is not changed by queries, so queries with different
+ * workspaces may run concurrently.
+ */
+public class ContractionHierarchy<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	implements ShortestPathIndex<N> {
+
+	/** Most nodes a witness search settles before it gives up and keeps the shortcut. */
+	private static final int WITNESS_LIMIT = 500;
+
+	private final CompiledGraph<N,E> graph;
+
+	// rank[v] is the position of v in the contraction order
+	private final int[] rank;
+
+	// upward edges: the edges from u to higher-ranked nodes are
+	// upStart[u] .. upStart[u+1]-1, edge i goes to upTarget[i]
+	private final int[] upStart;
+	private final int[] upTarget;
+	private final int[] upWeight;
+	// upMiddle[i] is the node a shortcut skips, -1 for an original edge
+	private final int[] upMiddle;
+
+	// downward edges, by their lower end: the edges into v from higher-ranked
+	// nodes are downStart[v] .. downStart[v+1]-1, edge i comes from downSource[i]
+	private final int[] downStart;
+	private final int[] downSource;
+	private final int[] downWeight;
+	private final int[] downMiddle;
+
+	/** Return a contraction hierarchy of g.  g must not change afterwards. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	ContractionHierarchy<N,E> build(CompiledGraph<N,E> g) {
+		return new ContractionHierarchy<N,E>(g, new Builder(g));
+	}
+
+	private ContractionHierarchy(CompiledGraph<N,E> g, Builder b) {
+		graph = g;
+		rank  = b.rank;
+		int n = g.size();
+
+		upStart    = new int[n + 1];
+		downStart  = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			upStart[v + 1]   = upStart[v]   + b.upCount[v];
+			downStart[v + 1] = downStart[v] + b.downCount[v];
+		}
+		upTarget   = new int[upStart[n]];
+		upWeight   = new int[upStart[n]];
+		upMiddle   = new int[upStart[n]];
+		downSource = new int[downStart[n]];
+		downWeight = new int[downStart[n]];
+		downMiddle = new int[downStart[n]];
+		for (int v = 0; v < n; v++) {
+			System.arraycopy(b.up.to,  b.upBegin[v], upTarget, upStart[v], b.upCount[v]);
+			System.arraycopy(b.up.w,   b.upBegin[v], upWeight, upStart[v], b.upCount[v]);
+			System.arraycopy(b.up.mid, b.upBegin[v], upMiddle, upStart[v], b.upCount[v]);
+			System.arraycopy(b.down.to,  b.downBegin[v], downSource, downStart[v], b.downCount[v]);
+			System.arraycopy(b.down.w,   b.downBegin[v], downWeight, downStart[v], b.downCount[v]);
+			System.arraycopy(b.down.mid, b.downBegin[v], downMiddle, downStart[v], b.downCount[v]);
+		}
+	}
+
+	/** Return the graph this hierarchy was built from. */
+	public CompiledGraph<N,E> graph() {
+		return graph;
+	}
+
+	/** Return the position of node u (an id in graph()) in the contraction order. */
+	public int rank(int u) {
+		return rank[u];
+	}
+
+	/** Return the number of shortcut edges added by preprocessing. */
+	public int shortcutCount() {
+		int count = 0;
+		for (int m : upMiddle)
+			if (m != -1)
+				count++;
+		for (int m : downMiddle)
+			if (m != -1)
+				count++;
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Allocates a Workspace for the whole graph; to run many queries, pass one
+	 * to shortestPath(start, end, ws) instead.
+	 */
+	@Override
+	public List<N> shortestPath(N start, N end) {
+		return shortestPath(start, end, new Workspace(graph.size()));
+	}
+
+	/** Return a minimal path from start to end, as shortestPath(start, end)
+	 * does, keeping the search state in ws. */
+	public List<N> shortestPath(N start, N end, Workspace ws) {
+		int s = graph.id(start);
+		int t = graph.id(end);
+		if (s == -1 || t == -1 || !graph.mayReach(s, t))
+			return new ArrayList<N>();
+		if (s == t) {
+			List<N> result = new ArrayList<N>();
+			result.add(start);
+			return result;
+		}
+
+		ws.reset(graph.size());
+		ws.forward.reach(s, 0, -1, -1);
+		ws.backward.reach(t, 0, -1, -1);
+
+		// best is the length of the shortest path found so far, through meet
+		double best = Double.POSITIVE_INFINITY;
+		int    meet = -1;
+		while (true) {
+			boolean f_open = ws.forward.open(best);
+			boolean b_open = ws.backward.open(best);
+			if (!f_open && !b_open)
+				break;
+			boolean is_forward = f_open && (!b_open
+				|| ws.forward.frontier.size() <= ws.backward.frontier.size());
+			Side dir   = is_forward ? ws.forward  : ws.backward;
+			Side other = is_forward ? ws.backward : ws.forward;
+
+			int u = dir.frontier.poll();
+			if (other.reached(u) && dir.dist[u] + other.dist[u] < best) {
+				best = dir.dist[u] + other.dist[u];
+				meet = u;
+			}
+			int     first  = is_forward ? upStart[u]     : downStart[u];
+			int     last   = is_forward ? upStart[u + 1] : downStart[u + 1];
+			int[]   ends   = is_forward ? upTarget       : downSource;
+			int[]   weight = is_forward ? upWeight       : downWeight;
+			for (int i = first; i < last; i++) {
+				int    v = ends[i];
+				double d = dir.dist[u] + weight[i];
+				if (!dir.reached(v))
+					dir.reach(v, d, u, i);
+				else if (d < dir.dist[v] && dir.frontier.contains(v))
+					dir.improve(v, d, u, i);
+			}
+		}
+		if (meet == -1)
+			return new ArrayList<N>();
+
+		// the hierarchy edges of the path, in order from start to end
+		List<int[]> edges = new ArrayList<int[]>();
+		for (int v = meet; ws.forward.parent[v] != -1; v = ws.forward.parent[v]) {
+			int i = ws.forward.edge[v];
+			edges.add(new int[] { ws.forward.parent[v], v, upMiddle[i] });
+		}
+		Collections.reverse(edges);
+		for (int v = meet; ws.backward.parent[v] != -1; v = ws.backward.parent[v]) {
+			int i = ws.backward.edge[v];
+			edges.add(new int[] { v, ws.backward.parent[v], downMiddle[i] });
+		}
+
+		List<N> result = new ArrayList<N>();
+		result.add(start);
+		for (int[] e : edges)
+			unpack(e[0], e[1], e[2], result);
+		return result;
+	}
+
+	/**
+	 * Append to path the nodes after u on the original-edge path that the
+	 * hierarchy edge u -> x with middle node mid stands for.
+	 */
+	private void unpack(int u, int x, int mid, List<N> path) {
+		// stack of edges still to expand, as (from, to, middle) triples;
+		// the top is the next edge along the path
+		int[] stack = new int[48];
+		int   top   = 0;
+		stack[top++] = u;
+		stack[top++] = x;
+		stack[top++] = mid;
+		while (top > 0) {
+			int m    = stack[--top];
+			int to   = stack[--top];
+			int from = stack[--top];
+			if (m == -1) {
+				path.add(graph.node(to));
+				continue;
+			}
+			if (top + 6 > stack.length)
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			// from -> m is a downward edge into m, m -> to an upward edge out of m;
+			// push the second half first so the first half is expanded first
+			stack[top++] = m;
+			stack[top++] = to;
+			stack[top++] = upMiddle[find(upStart, upTarget, m, to)];
+			stack[top++] = from;
+			stack[top++] = m;
+			stack[top++] = downMiddle[find(downStart, downSource, m, from)];
+		}
+	}
+
+	/** Return the index of the edge of node v whose other end is w. */
+	private static int find(int[] start, int[] ends, int v, int w) {
+		for (int i = start[v]; i < start[v + 1]; i++)
+			if (ends[i] == w)
+				return i;
+		throw new IllegalStateException("hierarchy is missing an edge");
+	}
+
+	/** The state of one direction of a query, indexed by node id. */
+	private static class Side {
+		final IntDaryHeap frontier;
+		double[] dist;
+		// parent[v] is the node before v on its search path, -1 for the root;
+		// edge[v] is the index of the hierarchy edge between them
+		int[] parent;
+		int[] edge;
+		// ids whose dist was set since the last reset
+		int[] touched = new int[16];
+		int   touchedSize;
+
+		Side(int n) {
+			frontier = new IntDaryHeap(4, n);
+			dist     = new double[n];
+			parent   = new int[n];
+			edge     = new int[n];
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		}
+
+		/** Return true iff this side may still improve on a path of length best. */
+		boolean open(double best) {
+			return frontier.size() > 0 && frontier.getPriority(frontier.peek()) < best;
+		}
+
+		boolean reached(int v) {
+			return dist[v] != Double.POSITIVE_INFINITY;
+		}
+
+		void reach(int v, double d, int p, int e) {
+			if (touchedSize == touched.length)
+				touched = Arrays.copyOf(touched, 2 * touched.length);
+			touched[touchedSize++] = v;
+			dist[v]   = d;
+			parent[v] = p;
+			edge[v]   = e;
+			frontier.add(v, d);
+		}
+
+		void improve(int v, double d, int p, int e) {
+			dist[v]   = d;
+			parent[v] = p;
+			edge[v]   = e;
+			frontier.changePriority(v, d);
+		}
+
+		/** Forget the last search and make room for n nodes. */
+		void reset(int n) {
+			for (int i = 0; i < touchedSize; i++)
+				dist[touched[i]] = Double.POSITIVE_INFINITY;
+			touchedSize = 0;
+			frontier.clear();
+			if (n > dist.length) {
+				int old = dist.length;
+				int cap = Math.max(n, 2 * old);
+				dist   = Arrays.copyOf(dist, cap);
+				parent = Arrays.copyOf(parent, cap);
+				edge   = Arrays.copyOf(edge, cap);
+				Arrays.fill(dist, old, cap, Double.POSITIVE_INFINITY);
+			}
+		}
+	}
+
+	/**
+	 * The search state of a query: both directions, indexed by node id.  A
+	 * workspace is not thread-safe; give each thread its own.
+	 */
+	public static final class Workspace {
+		private final Side forward;
+		private final Side backward;
+
+		/** Constructor: a workspace for graphs of about capacity nodes (it grows as needed). */
+		public Workspace(int capacity) {
+			capacity = Math.max(capacity, 1);
+			forward  = new Side(capacity);
+			backward = new Side(capacity);
+		}
+
+		/** Constructor: an empty workspace that grows as needed. */
+		public Workspace() {
+			this(16);
+		}
+
+		/** Forget the last query and make room for n nodes. */
+		void reset(int n) {
+			forward.reset(n);
+			backward.reset(n);
+		}
+	}
+
+	/** A growable list of (node, weight, middle) edges. */
+	private static class EdgeList {
+		int[] to  = new int[16];
+		int[] w   = new int[16];
+		int[] mid = new int[16];
+		int   size;
+
+		void add(int t, int weight, int m) {
+			if (size == to.length) {
+				to  = Arrays.copyOf(to,  2 * size);
+				w   = Arrays.copyOf(w,   2 * size);
+				mid = Arrays.copyOf(mid, 2 * size);
+			}
+			to[size]  = t;
+			w[size]   = weight;
+			mid[size] = m;
+			size++;
+		}
+
+		/** Return the index of the edge to t, or -1. */
+		int indexOf(int t) {
+			for (int i = 0; i < size; i++)
+				if (to[i] == t)
+					return i;
+			return -1;
+		}
+
+		/** Remove edge i by moving the last edge into its place. */
+		void remove(int i) {
+			size--;
+			to[i]  = to[size];
+			w[i]   = w[size];
+			mid[i] = mid[size];
+		}
+	}
+
+	/** Computes the contraction order and the hierarchy edges. */
+	private static class Builder {
+		final int n;
+
+		// the remaining graph: out[u] and in[u] hold the edges between u and
+		// the nodes that are not contracted yet, including shortcuts
+		final EdgeList[] out;
+		final EdgeList[] in;
+		final boolean[]  contracted;
+		final int[]      contractedNeighbors;
+
+		final int[] rank;
+
+		// hierarchy edges, recorded when each node is contracted: the upward
+		// edges of v are up[upBegin[v] .. upBegin[v]+upCount[v]-1], same for down
+		final EdgeList up   = new EdgeList();
+		final EdgeList down = new EdgeList();
+		final int[] upBegin;
+		final int[] upCount;
+		final int[] downBegin;
+		final int[] downCount;
+
+		// witness search state
+		final IntDaryHeap witnessHeap;
+		final double[]    witnessDist;
+		final int[]       witnessTouched;
+		int               witnessTouchedSize;
+
+		Builder(CompiledGraph<?,?> g) {
+			n = g.size();
+			out = new EdgeList[n];
+			in  = new EdgeList[n];
+			for (int v = 0; v < n; v++) {
+				out[v] = new EdgeList();
+				in[v]  = new EdgeList();
+			}
+			for (int u = 0; u < n; u++)
+				for (int i = g.start(u); i < g.end(u); i++)
+					if (g.target(i) != u)
+						addEdge(u, g.target(i), g.weight(i), -1);
+
+			contracted          = new boolean[n];
+			contractedNeighbors = new int[n];
+			rank      = new int[n];
+			upBegin   = new int[n];
+			upCount   = new int[n];
+			downBegin = new int[n];
+			downCount = new int[n];
+
+			witnessHeap    = new IntDaryHeap(4, n);
+			witnessDist    = new double[n];
+			witnessTouched = new int[n];
+			Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+
+			contractAll();
+		}
+
+		/** Contract every node, least important first, filling in rank. */
+		void contractAll() {
+			IntDaryHeap order = new IntDaryHeap(4, n);
+			for (int v = 0; v < n; v++)
+				order.add(v, importance(v));
+
+			int next_rank = 0;
+			while (order.size() > 0) {
+				int v = order.poll();
+				// priorities go stale as the graph changes; re-check lazily
+				double p = importance(v);
+				if (order.size() > 0 && p > order.getPriority(order.peek())) {
+					order.add(v, p);
+					continue;
+				}
+
+				upBegin[v]   = up.size;
+				upCount[v]   = out[v].size;
+				downBegin[v] = down.size;
+				downCount[v] = in[v].size;
+				for (int i = 0; i < out[v].size; i++)
+					up.add(out[v].to[i], out[v].w[i], out[v].mid[i]);
+				for (int i = 0; i < in[v].size; i++)
+					down.add(in[v].to[i], in[v].w[i], in[v].mid[i]);
+
+				contract(v, true);
+				contracted[v] = true;
+				rank[v] = next_rank++;
+
+				// detach v from its neighbors and update their importance
+				for (int i = 0; i < out[v].size; i++)
+					detach(out[v].to[i], v);
+				for (int i = 0; i < in[v].size; i++)
+					detach(in[v].to[i], v);
+				for (int i = 0; i < out[v].size; i++)
+					if (order.contains(out[v].to[i]))
+						order.changePriority(out[v].to[i], importance(out[v].to[i]));
+				for (int i = 0; i < in[v].size; i++)
+					if (order.contains(in[v].to[i]))
+						order.changePriority(in[v].to[i], importance(in[v].to[i]));
+			}
+		}
+
+		/** Remove the edges between x and the contracted node v from x's lists,
+		 * and count v as a contracted neighbor of x if there were any. */
+		void detach(int x, int v) {
+			int i = out[x].indexOf(v);
+			if (i != -1)
+				out[x].remove(i);
+			boolean linked = i != -1;
+			i = in[x].indexOf(v);
+			if (i != -1) {
+				in[x].remove(i);
+				linked = true;
+			}
+			// v calls this for each edge it has with x, but counts once
+			if (linked)
+				contractedNeighbors[x]++;
+		}
+
+		/** Return the edge difference of contracting v now. */
+		double importance(int v) {
+			return contract(v, false) - out[v].size - in[v].size + contractedNeighbors[v];
+		}
+
+		/**
+		 * Return the number of shortcuts contracting v needs; add them iff add.
+		 */
+		int contract(int v, boolean add) {
+			int shortcuts = 0;
+			EdgeList ins  = in[v];
+			EdgeList outs = out[v];
+			for (int i = 0; i < ins.size; i++) {
+				int u  = ins.to[i];
+				int w1 = ins.w[i];
+				int max_out = -1;
+				for (int j = 0; j < outs.size; j++)
+					if (outs.to[j] != u)
+						max_out = Math.max(max_out, outs.w[j]);
+				if (max_out == -1)
+					continue;
+
+				witness(u, v, w1 + max_out);
+				for (int j = 0; j < outs.size; j++) {
+					int x = outs.to[j];
+					if (x == u)
+						continue;
+					int via = w1 + outs.w[j];
+					if (witnessDist[x] > via) {
+						shortcuts++;
+						if (add)
+							addEdge(u, x, via, v);
+					}
+				}
+			}
+			return shortcuts;
+		}
+
+		/**
+		 * Fill witnessDist with distances from u in the remaining graph without
+		 * v, exact up to bound (or until WITNESS_LIMIT nodes are settled).
+		 */
+		void witness(int u, int v, double bound) {
+			for (int i = 0; i < witnessTouchedSize; i++)
+				witnessDist[witnessTouched[i]] = Double.POSITIVE_INFINITY;
+			witnessTouchedSize = 0;
+			witnessHeap.clear();
+
+			witnessDist[u] = 0;
+			witnessTouched[witnessTouchedSize++] = u;
+			witnessHeap.add(u, 0);
+			int settled = 0;
+			while (witnessHeap.size() > 0 && settled < WITNESS_LIMIT) {
+				int y = witnessHeap.poll();
+				if (witnessDist[y] > bound)
+					break;
+				settled++;
+				EdgeList e = out[y];
+				for (int i = 0; i < e.size; i++) {
+					int z = e.to[i];
+					if (z == v)
+						continue;
+					double d = witnessDist[y] + e.w[i];
+					if (d < witnessDist[z]) {
+						if (witnessDist[z] == Double.POSITIVE_INFINITY) {
+							witnessTouched[witnessTouchedSize++] = z;
+							witnessHeap.add(z, d);
+						} else if (witnessHeap.contains(z)) {
+							witnessHeap.changePriority(z, d);
+						} else {
+							continue;
+						}
+						witnessDist[z] = d;
+					}
+				}
+			}
+		}
+
+		/** Add the edge u -> x, or shorten the existing one. */
+		void addEdge(int u, int x, int w, int mid) {
+			int i = out[u].indexOf(x);
+			if (i != -1) {
+				if (w < out[u].w[i]) {
+					int j = in[x].indexOf(u);
+					out[u].w[i]   = w;
+					out[u].mid[i] = mid;
+					in[x].w[j]    = w;
+					in[x].mid[j]  = mid;
+				}
+				return;
+			}
+			out[u].add(x, w, mid);
+			in[x].add(u, w, mid);
+		}
+	}
+}
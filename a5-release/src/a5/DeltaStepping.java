@@ -0,0 +1,292 @@
+package a5;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import graph.CompiledGraph;
+import graph.LabeledEdge;
+import graph.Node;
+
+/**
+ * Parallel single-source shortest paths over a CompiledGraph by delta-stepping
+ * (Meyer and Sanders), for one-to-all queries on graphs too big for one core.
+ *
+ * Tentative distances live in an AtomicIntegerArray and only ever go down, by
+ * compare-and-set.  The nodes are kept in buckets of width delta by tentative
+ * distance, and the buckets are emptied in order.  Emptying bucket i relaxes
+ * the light edges (weight <= delta) of its nodes, again and again, since they
+ * can put nodes back into bucket i; then the heavy edges of every node that
+ * was in it, once, since they can only reach later buckets.  The nodes of one
+ * round are relaxed in parallel on a ForkJoinPool.
+ *
+ * A small delta does little more work than Dijkstra's algorithm but has
+ * little to do in parallel in each round; a large one the opposite (with
+ * delta >= the largest weight it is Bellman-Ford).  defaultDelta(g) is the
+ * largest weight over the average out-degree.
+ *
+ * The edges are copied with the light edges of each node first, for the
+ * given delta.  Queries may run concurrently.
+ */
+public class DeltaStepping<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>> {
+	/** Distance of a node that cannot be reached from the source. */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** Nodes relaxed by one fork-join task without splitting further; a round
+	 * with no more nodes than this runs on the calling thread. */
+	private static final int NODES_PER_TASK = 256;
+
+	private final CompiledGraph<N,E> graph;
+	private final int delta;
+
+	// the edges leaving node u are start[u] .. start[u+1]-1: the light ones up
+	// to lightEnd[u]-1, then the heavy ones; edge i goes to target[i] with weight[i]
+	private final int[] start;
+	private final int[] lightEnd;
+	private final int[] target;
+	private final int[] weight;
+
+	/** Return a delta-stepping search over g with delta defaultDelta(g). */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	DeltaStepping<N,E> of(CompiledGraph<N,E> g) {
+		return new DeltaStepping<N,E>(g, defaultDelta(g));
+	}
+
+	/**
+	 * Return a delta-stepping search over g with buckets of width delta.
+	 * @throws IllegalArgumentException if delta < 1 or g has a negative weight
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	DeltaStepping<N,E> of(CompiledGraph<N,E> g, int delta) {
+		return new DeltaStepping<N,E>(g, delta);
+	}
+
+	/** Return the largest edge weight of g over its average out-degree (at least 1). */
+	public static int defaultDelta(CompiledGraph<?,?> g) {
+		if (g.edgeCount() == 0)
+			return 1;
+		return (int) Math.max(1, (long) g.maxWeight() * g.size() / g.edgeCount());
+	}
+
+	private DeltaStepping(CompiledGraph<N,E> g, int delta) {
+		if (delta < 1)
+			throw new IllegalArgumentException("delta must be at least 1: " + delta);
+		if (g.minWeight() < 0)
+			throw new IllegalArgumentException("negative edge weight: " + g.minWeight());
+		graph      = g;
+		this.delta = delta;
+
+		int n = g.size();
+		start    = new int[n + 1];
+		lightEnd = new int[n];
+		target   = new int[g.edgeCount()];
+		weight   = new int[g.edgeCount()];
+		for (int u = 0; u < n; u++) {
+			int light = g.start(u);
+			int heavy = g.end(u);
+			for (int i = g.start(u); i < g.end(u); i++) {
+				int k = g.weight(i) <= delta ? light++ : --heavy;
+				target[k] = g.target(i);
+				weight[k] = g.weight(i);
+			}
+			start[u + 1] = g.end(u);
+			lightEnd[u]  = light;
+		}
+	}
+
+	/** Return the graph this searches. */
+	public CompiledGraph<N,E> graph() {
+		return graph;
+	}
+
+	/** Return the width of the buckets. */
+	public int delta() {
+		return delta;
+	}
+
+	/** Return the distances from source to every node of graph(), computed in
+	 * the common fork-join pool (see distances(source, pool)). */
+	public int[] distances(N source) {
+		return distances(source, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Return the distances from source to every node of graph(), computed in
+	 * pool: element u is the distance to the node with id u, UNREACHABLE if
+	 * there is no path.  If source is not in graph(), every node is UNREACHABLE.
+	 * These are the distances GraphAlgorithms.shortestPath finds.
+	 */
+	public int[] distances(N source, ForkJoinPool pool) {
+		int n = graph.size();
+		AtomicIntegerArray dist = new AtomicIntegerArray(n);
+		for (int u = 0; u < n; u++)
+			dist.set(u, UNREACHABLE);
+		int s = graph.id(source);
+		if (s != -1)
+			new Run(dist, pool).search(s);
+
+		int[] out = new int[n];
+		for (int u = 0; u < n; u++)
+			out[u] = dist.get(u);
+		return out;
+	}
+
+	/** The state of one search. */
+	private final class Run {
+		private final AtomicIntegerArray dist;
+		private final ForkJoinPool pool;
+
+		// The buckets are circular, like the ones of a4.DialQueue: a node with
+		// tentative distance d is in bucket[(d / delta) % bucket.length].  A node
+		// is put in a bucket each time its distance goes down; the entries left
+		// behind in other buckets are skipped when those are emptied.
+		private final IntList[] bucket;
+		private int entries;	// total size of the buckets
+
+		// round[v] is the last round v was relaxed in, and settledIn[v] is
+		// 1 + the last bucket v was in when it was emptied
+		private final int[] round;
+		private final int[] settledIn;
+		private int rounds;
+
+		// the nodes to relax in the current round, and those of the current
+		// bucket whose heavy edges are still to be relaxed
+		private final IntList current = new IntList();
+		private final IntList settled = new IntList();
+
+		// the nodes whose distance a round lowered, one list per task
+		private final ConcurrentLinkedQueue<IntList> lowered = new ConcurrentLinkedQueue<>();
+
+		Run(AtomicIntegerArray dist, ForkJoinPool pool) {
+			this.dist = dist;
+			this.pool = pool;
+			// all the entries that matter are within the largest weight of the
+			// bucket being emptied, so this many buckets never wrap onto it
+			bucket = new IntList[graph.maxWeight() / delta + 2];
+			for (int b = 0; b < bucket.length; b++)
+				bucket[b] = new IntList();
+			round     = new int[graph.size()];
+			settledIn = new int[graph.size()];
+		}
+
+		/** Compute the distances from s. */
+		void search(int s) {
+			dist.set(s, 0);
+			bucket[0].add(s);
+			entries = 1;
+			for (int i = 0; entries > 0; i++) {
+				IntList b = bucket[i % bucket.length];
+				settled.clear();
+				while (b.size > 0) {
+					rounds++;
+					current.clear();
+					for (int k = 0; k < b.size; k++) {
+						int v = b.a[k];
+						if (round[v] != rounds && dist.get(v) / delta == i) {
+							round[v] = rounds;
+							current.add(v);
+							if (settledIn[v] != i + 1) {
+								settledIn[v] = i + 1;
+								settled.add(v);
+							}
+						}
+					}
+					entries -= b.size;
+					b.clear();
+					relax(current, true);
+				}
+				relax(settled, false);
+			}
+		}
+
+		/** Relax the light edges of the nodes in us (or their heavy edges if
+		 * !light) and put the nodes whose distance went down in their buckets. */
+		private void relax(IntList us, boolean light) {
+			if (us.size == 0)
+				return;
+			Relax task = new Relax(us.a, 0, us.size, light);
+			if (us.size <= NODES_PER_TASK)
+				task.compute();
+			else
+				pool.invoke(task);
+
+			IntList vs;
+			while ((vs = lowered.poll()) != null) {
+				for (int k = 0; k < vs.size; k++) {
+					int v = vs.a[k];
+					bucket[(dist.get(v) / delta) % bucket.length].add(v);
+				}
+				entries += vs.size;
+			}
+		}
+
+		/** Relaxes the edges of us[first .. last-1], splitting in halves. */
+		@SuppressWarnings("serial")
+		private final class Relax extends RecursiveAction {
+			private final int[] us;
+			private final int first;
+			private final int last;
+			private final boolean light;
+
+			Relax(int[] us, int first, int last, boolean light) {
+				this.us    = us;
+				this.first = first;
+				this.last  = last;
+				this.light = light;
+			}
+
+			@Override
+			protected void compute() {
+				if (last - first > NODES_PER_TASK) {
+					int mid = (first + last) >>> 1;
+					invokeAll(new Relax(us, first, mid, light), new Relax(us, mid, last, light));
+					return;
+				}
+				IntList out = new IntList();
+				for (int k = first; k < last; k++) {
+					int u  = us[k];
+					int du = dist.get(u);
+					int from = light ? start[u] : lightEnd[u];
+					int to   = light ? lightEnd[u] : start[u + 1];
+					for (int i = from; i < to; i++) {
+						long d = (long) du + weight[i];
+						if (d < UNREACHABLE && lower(target[i], (int) d))
+							out.add(target[i]);
+					}
+				}
+				if (out.size > 0)
+					lowered.add(out);
+			}
+		}
+
+		/** Lower the distance of v to d, unless it is already at most d.
+		 * Return true iff it was lowered. */
+		private boolean lower(int v, int d) {
+			int old = dist.get(v);
+			while (d < old) {
+				if (dist.compareAndSet(v, old, d))
+					return true;
+				old = dist.get(v);
+			}
+			return false;
+		}
+	}
+
+	/** A growable list of ints. */
+	private static final class IntList {
+		int[] a = new int[8];
+		int size;
+
+		void add(int x) {
+			if (size == a.length)
+				a = Arrays.copyOf(a, 2 * size);
+			a[size++] = x;
+		}
+
+		void clear() {
+			size = 0;
+		}
+	}
+}
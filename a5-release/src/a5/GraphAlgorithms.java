@@ -1,47 +1,47 @@
 package a5;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.Stack;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.ToDoubleBiFunction;
 
-import common.NotImplementedError;
+import graph.CompiledGraph;
 import graph.Edge;
 import graph.Node;
 import graph.LabeledEdge;
 
-import a4.Heap;
+import a4.IntDaryHeap;
 
 /** We've provided depth-first search as an example; you need to implement Dijkstra's algorithm.
  */
 public class GraphAlgorithms  {
-	/** Return the Nodes reachable from start in depth-first-search order */
+	/** Number of children per node of the heaps used by the searches below. */
+	private static final int HEAP_ARITY = 4;
+
+	/** Return the Nodes reachable from start in depth-first-search order,
+	 * each once.  Traversal.stream(start, DEPTH_FIRST) finds them lazily. */
 	public static <N extends Node<N,E>, E extends Edge<N,E>>
 	List<N> dfs(N start) {
-		
-		Stack<N> worklist = new Stack<N>();
-		worklist.add(start);
-		
-		Set<N>   visited  = new HashSet<N>();
-		List<N>  result   = new ArrayList<N>();
-		while (!worklist.isEmpty()) {
-			// invariants:
-			//    - everything in visited has a path from start to it
-			//    - everything in worklist has a path from start to it
-			//      that only traverses visited nodes
-			//    - nothing in the worklist is visited
-			N next = worklist.pop();
-			visited.add(next);
-			result.add(next);
-			for (N neighbor : next.outgoing().keySet())
-				if (!visited.contains(neighbor))
-					worklist.add(neighbor);
-		}
+		return toList(Traversal.iterator(start, Traversal.Order.DEPTH_FIRST));
+	}
+
+	/** Return the Nodes reachable from start in breadth-first-search order,
+	 * each once.  Traversal.stream(start, BREADTH_FIRST) finds them lazily. */
+	public static <N extends Node<N,E>, E extends Edge<N,E>>
+	List<N> bfs(N start) {
+		return toList(Traversal.iterator(start, Traversal.Order.BREADTH_FIRST));
+	}
+
+	/** Return the elements of it, in order. */
+	private static <T> List<T> toList(Iterator<T> it) {
+		List<T> result = new ArrayList<T>();
+		while (it.hasNext())
+			result.add(it.next());
 		return result;
 	}
 	
@@ -50,6 +50,13 @@ public class GraphAlgorithms  {
 	 * soon as the shortest path to end is known; it should not continue to search
 	 * the graph after that. 
 	 * 
+	 * Nodes are numbered and put on the heap only when they are first reached,
+	 * so the cost of a query depends on the part of the graph closer to start
+	 * than end is, not on the size of the whole graph.  If end is not reachable,
+	 * an empty List is returned: without a search if the graph's reachability
+	 * index rules end out (see Node.mayReach), else after searching the whole
+	 * component of start.
+	 * 
 	 * @param <N> The type of nodes in the graph
 	 * @param <E> The type of edges in the graph; the weights are given by e.label()
 	 * @param start The node to search from
@@ -57,122 +64,478 @@ public class GraphAlgorithms  {
 	 */
 	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
 	List<N> shortestPath(N start, N end) {
+		return search(start, end, null, null);
+	}
+
+	/** Same as shortestPath(start, end), and record what the search did in stats. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> shortestPath(N start, N end, SearchStats stats) {
+		return search(start, end, null, stats);
+	}
+
+	/**
+	 * Return a minimal path from start to end, or an empty List if there is
+	 * none, using A* search: nodes are taken off the heap in order of their
+	 * distance from start plus heuristic.applyAsDouble(node, end).
+	 * 
+	 * The heuristic must be consistent: never negative, 0 at end, and for
+	 * every edge (u,v), h(u) <= label + h(v).  This makes it a lower bound on
+	 * the distance to end, and a consistent heuristic never has to revisit a
+	 * node.  A heuristic that is always 0 makes this Dijkstra's algorithm.
+	 * 
+	 * @param heuristic estimates the distance from its first argument to its second
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> astar(N start, N end, ToDoubleBiFunction<N,N> heuristic) {
+		return astar(start, end, heuristic, null);
+	}
+
+	/** Same as astar(start, end, heuristic), and record what the search did in
+	 * stats, unless stats is null. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> astar(N start, N end, ToDoubleBiFunction<N,N> heuristic, SearchStats stats) {
+		if (heuristic == null)
+			throw new NullPointerException("heuristic");
+		return search(start, end, heuristic, stats);
+	}
+
+	/**
+	 * The search behind shortestPath and astar: an A* search with the given
+	 * heuristic, or Dijkstra's algorithm if heuristic is null.  What it does is
+	 * recorded in stats, unless stats is null.
+	 */
+	private static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> search(N start, N end, ToDoubleBiFunction<N,N> heuristic, SearchStats stats) {
+		if (stats != null)
+			stats.start();
+		// the reachability index of the graph, if any, rules out most
+		// unreachable ends without a search
+		if (!start.equals(end) && !start.mayReach(end))
+			return finish(stats, new ArrayList<N>());
 		
-		// Set unvisited contains all the unvisited nodes.
-		Set<N> unvisited = new HashSet<N>(dfs(start));
-		
-		// If there is no connection from start to end, return an empty List.
-		if (!unvisited.contains(end)) {
-			return new ArrayList<N>();
-		}
-		
-		// HashMap distances stores the distance 
-		// from Node start to Node N as a Double.
-//		HashMap<N, Double> 	distances 	= new HashMap<N, Double>();
+		// nodes lists the nodes reached so far, in the order they were reached;
+		// a node's index in nodes is its id in the heap and in the arrays below.
+		List<N>             nodes = new ArrayList<N>();
+		HashMap<N, Integer> ids   = new HashMap<N, Integer>();
 		
-		// parents stores the parent of a Node n as a Node.
-		HashMap<N, N> 		parents 	= new HashMap<N, N>();
-		// Initializations of values for distances and parents.
-		Heap<N, Double> neighbor_dist = new Heap<N, Double>(Comparator.reverseOrder());
-		for (N neighbor : unvisited) {
-			neighbor_dist.add(neighbor, Double.POSITIVE_INFINITY);
-			// set all distances to positive infinity
-//			distances.put(neighbor, Double.POSITIVE_INFINITY);	
-			// set the parent of each neighbor to null
-			parents.put(neighbor, null);	
-		}
-		// set the distance of the start node to itself as 0.
-//		distances.put(start, 0.0);
-		neighbor_dist.changePriority(start, 0.0);
+		// dist[i] is the best known distance from start to node i, and
+		// parents[i] is the id of the node before i on that path (-1 for start).
+		double[] dist    = new double[16];
+		int[]    parents = new int[16];
 		
+		// neighbor_dist holds the reached but unvisited nodes, ordered by their
+		// distance (plus heuristic, if any).  A reached node that is not in it
+		// has been visited.
+		IntDaryHeap neighbor_dist = new IntDaryHeap(HEAP_ARITY, 16);
 		
-//		Heap<N, Double> neighbor_dist = getWeightHeap(distances, unvisited);
+		ids.put(start, 0);
+		nodes.add(start);
+		dist[0]    = 0;
+		parents[0] = -1;
+		neighbor_dist.add(0, heuristic == null ? 0.0 : heuristic.applyAsDouble(start, end));
+		if (stats != null)
+			stats.push(1);
+		int end_id = start.equals(end) ? 0 : -1;
 		
-		// While there are still unvisited nodes, 
-		while (!unvisited.isEmpty()) {
-			// neighbor_dist is a Heap that contains the distance 
-			// from curr_node to each neighbor of curr_node.
-//			Heap<N, Double> neighbor_dist = getWeightHeap(distances, unvisited);			
-			
+		while (neighbor_dist.size() > 0) {
 			// node_curr denotes the current node of Dijkstra's algorithm.
-			N node_curr = neighbor_dist.peek();
-			
-			Double dist_curr = neighbor_dist.getPriority(node_curr);
-			neighbor_dist.poll();
-			
-			if (!neighbor_dist.checkHeap(0)) {
-				neighbor_dist.heapifyDown(0);
-				System.out.println(neighbor_dist.toString());
-				
+			int    node_curr = neighbor_dist.poll();
+			double dist_curr = dist[node_curr];
+			if (stats != null) {
+				stats.polls++;
+				stats.settled++;
 			}
 			
+			// The distance to end is now known.
+			if (node_curr == end_id)
+				return finish(stats, idsToList(nodes, parents, end_id));
 			
-			// If the current node's closest neighbor is not connected, break
-			if (dist_curr == Double.POSITIVE_INFINITY) {
-				unvisited.remove(node_curr);
-				break; 	
-			}
-			
-			
-			unvisited.remove(node_curr);
-			
-			for (N neighbor : node_curr.outgoing().keySet()) {
-				if (unvisited.contains(neighbor)) {
-					double new_weight = dist_curr
-										+ getEdgeWeight(node_curr, neighbor);
-					if (new_weight < neighbor_dist.getPriority(neighbor))  {
-						neighbor_dist.changePriority(neighbor, new_weight);
-//						distances.put(neighbor, new_weight);
-						parents.put(neighbor, node_curr);
+			for (Map.Entry<N, ? extends E> edge : nodes.get(node_curr).outgoing().entrySet()) {
+				if (stats != null)
+					stats.relaxed++;
+				double  new_weight = dist_curr + edge.getValue().label();
+				Integer neighbor   = ids.get(edge.getKey());
+				if (neighbor == null) {
+					// first time edge.getKey() is reached
+					neighbor = nodes.size();
+					ids.put(edge.getKey(), neighbor);
+					nodes.add(edge.getKey());
+					if (neighbor == parents.length) {
+						dist    = Arrays.copyOf(dist, 2 * dist.length);
+						parents = Arrays.copyOf(parents, 2 * parents.length);
 					}
+					if (end_id == -1 && edge.getKey().equals(end))
+						end_id = neighbor;
+					dist[neighbor]    = new_weight;
+					parents[neighbor] = node_curr;
+					neighbor_dist.add(neighbor, heuristic == null ? new_weight
+						: new_weight + heuristic.applyAsDouble(edge.getKey(), end));
+					if (stats != null)
+						stats.push(neighbor_dist.size());
+				} else if (neighbor_dist.contains(neighbor) && new_weight < dist[neighbor]) {
+					// the heuristic part of the priority does not change
+					double estimate = neighbor_dist.getPriority(neighbor) - dist[neighbor];
+					dist[neighbor]    = new_weight;
+					parents[neighbor] = node_curr;
+					neighbor_dist.changePriority(neighbor, new_weight + estimate);
+					if (stats != null)
+						stats.decreaseKeys++;
 				}
 			}
+		}
 
-			
+		// end is not reachable from start.
+		return finish(stats, new ArrayList<N>());
+
+	}
+
+	/**
+	 * Return a minimal path from start to end, or an empty List if there is
+	 * none.  Same contract as shortestPath(start, end), but searches forward
+	 * from start over outgoing() and backward from end over incoming() at the
+	 * same time, always expanding the side with the smaller frontier.  It stops
+	 * once the smallest distances on the two heaps add up to at least the best
+	 * start-to-end distance seen so far, which on road-like graphs settles about
+	 * half as many nodes as a one-sided search.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> bidirectionalShortestPath(N start, N end) {
+		// no search if the graph's reachability index rules end out
+		if (!start.equals(end) && !start.mayReach(end))
+			return new ArrayList<N>();
+
+		// nodes and ids number every node reached by either search.
+		List<N>             nodes = new ArrayList<N>();
+		HashMap<N, Integer> ids   = new HashMap<N, Integer>();
+		Direction forward  = new Direction();
+		Direction backward = new Direction();
+
+		ids.put(start, 0);
+		nodes.add(start);
+		forward.reach(0, 0.0, -1);
+		int end_id = 0;
+		if (!start.equals(end)) {
+			end_id = 1;
+			ids.put(end, 1);
+			nodes.add(end);
+		}
+		backward.reach(end_id, 0.0, -1);
+
+		// best is the length of the shortest path found so far, which goes
+		// through node meet; meet is -1 if no path has been found.
+		double best = Double.POSITIVE_INFINITY;
+		int    meet = -1;
+		if (end_id == 0) {
+			best = 0;
+			meet = 0;
+		}
+
+		while (forward.frontier.size() > 0 && backward.frontier.size() > 0
+			&& forward.frontier.getPriority(forward.frontier.peek())
+			 + backward.frontier.getPriority(backward.frontier.peek()) < best) {
+			boolean   is_forward = forward.frontier.size() <= backward.frontier.size();
+			Direction dir   = is_forward ? forward  : backward;
+			Direction other = is_forward ? backward : forward;
+
+			int    node_curr = dir.frontier.poll();
+			double dist_curr = dir.dist[node_curr];
+			N      curr      = nodes.get(node_curr);
+			Map<N, ? extends E> edges = is_forward ? curr.outgoing() : curr.incoming();
+
+			for (Map.Entry<N, ? extends E> edge : edges.entrySet()) {
+				Integer neighbor = ids.get(edge.getKey());
+				if (neighbor == null) {
+					neighbor = nodes.size();
+					ids.put(edge.getKey(), neighbor);
+					nodes.add(edge.getKey());
+				}
+				double new_weight = dist_curr + edge.getValue().label();
+				if (!dir.reached(neighbor))
+					dir.reach(neighbor, new_weight, node_curr);
+				else if (dir.frontier.contains(neighbor) && new_weight < dir.dist[neighbor])
+					dir.improve(neighbor, new_weight, node_curr);
+
+				// a path through neighbor is known once both searches reached it
+				if (other.reached(neighbor)
+					&& dir.dist[neighbor] + other.dist[neighbor] < best) {
+					best = dir.dist[neighbor] + other.dist[neighbor];
+					meet = neighbor;
+				}
+			}
 		}
 
-		return parentsToList(parents, start, end);
+		if (meet == -1)
+			return new ArrayList<N>();
 
+		// forward half: meet back to start, reversed; then meet's successors to end
+		List<N> out_list = idsToList(nodes, forward.parent, meet);
+		for (int u = backward.parent[meet]; u != -1; u = backward.parent[u])
+			out_list.add(nodes.get(u));
+		return out_list;
 	}
-	
-	
-	/** Returns the edge weight of the edge between node_from and node_to */
+
+	/** The state of one side of bidirectionalShortestPath, indexed by node id. */
+	private static class Direction {
+		// nodes reached but not yet settled on this side, by distance
+		final IntDaryHeap frontier = new IntDaryHeap(HEAP_ARITY, 16);
+		// dist[i] is the best known distance of node i from this side's root,
+		// +infinity if this side has not reached it
+		double[] dist   = new double[0];
+		// parent[i] is the node before i on that path, -1 for the root
+		int[]    parent = new int[0];
+
+		/** Return true iff this side has reached node u. */
+		boolean reached(int u) {
+			return u < dist.length && dist[u] != Double.POSITIVE_INFINITY;
+		}
+
+		/** Record the first path to node u: length d, previous node p. */
+		void reach(int u, double d, int p) {
+			if (u >= dist.length) {
+				int n   = Math.max(u + 1, 2 * dist.length);
+				int old = dist.length;
+				dist   = Arrays.copyOf(dist, n);
+				parent = Arrays.copyOf(parent, n);
+				Arrays.fill(dist, old, n, Double.POSITIVE_INFINITY);
+			}
+			dist[u]   = d;
+			parent[u] = p;
+			frontier.add(u, d);
+		}
+
+		/** Record a shorter path to the unsettled node u: length d, previous node p. */
+		void improve(int u, double d, int p) {
+			dist[u]   = d;
+			parent[u] = p;
+			frontier.changePriority(u, d);
+		}
+	}
+
+	/** Return the Nodes of g reachable from start in depth-first-search order.
+	 * Same as dfs(start), but walks the arrays of g instead of the Node maps.
+	 * A Traversal of g does the same lazily, and reuses its arrays. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> dfs(CompiledGraph<N,E> g, N start) {
+		return traverse(g, start, Traversal.Order.DEPTH_FIRST);
+	}
+
+	/** Return the Nodes of g reachable from start in breadth-first-search order.
+	 * Same as bfs(start), but walks the arrays of g instead of the Node maps. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> bfs(CompiledGraph<N,E> g, N start) {
+		return traverse(g, start, Traversal.Order.BREADTH_FIRST);
+	}
+
+	/** Return the Nodes of g reachable from start in the given order; none if
+	 * start is not in g. */
 	private static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
-	double getEdgeWeight(N node_from, N node_to) {
-		return node_from.outgoing().get(node_to).label();
+	List<N> traverse(CompiledGraph<N,E> g, N start, Traversal.Order order) {
+		List<N> result = new ArrayList<N>();
+		int s = g.id(start);
+		if (s == -1)
+			return result;
+		PrimitiveIterator.OfInt ids = new Traversal<N,E>(g).ids(s, order);
+		while (ids.hasNext())
+			result.add(g.node(ids.nextInt()));
+		return result;
 	}
-	
-	/** Returns a Heap of nodes with priority of edge weight of the edge 
-	 * between node_from and its neighbors that are in the Set unvis.
-	 * 
-	 *  @param dist
-	 *  @param unvis */
+
+	/**
+	 * Return a minimal path from start to end in g, or an empty list if there is
+	 * none.  Same contract as shortestPath(start, end), but runs on the arrays of
+	 * g, so no Map is consulted while relaxing edges.  Nodes are put on the heap
+	 * only when they are first reached, and the search stops as soon as end is
+	 * taken off the heap.  Most queries with no path are answered without a
+	 * search, by the components of g (see CompiledGraph.mayReach).
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> shortestPath(CompiledGraph<N,E> g, N start, N end) {
+		return search(g, start, end, null, new SearchWorkspace(g.size()), null);
+	}
+
+	/**
+	 * Same as shortestPath(g, start, end), but keeps its per-node state in ws
+	 * instead of allocating it, so repeated queries only pay for the nodes they
+	 * reach.  Afterwards ws holds the nodes the search reached.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> shortestPath(CompiledGraph<N,E> g, N start, N end, SearchWorkspace ws) {
+		return search(g, start, end, null, ws, null);
+	}
+
+	/** Same as shortestPath(g, start, end, ws), and record what the search did
+	 * in stats, unless stats is null. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> shortestPath(CompiledGraph<N,E> g, N start, N end, SearchWorkspace ws, SearchStats stats) {
+		return search(g, start, end, null, ws, stats);
+	}
+
+	/**
+	 * Return a minimal path from start to end in landmarks.graph(), or an empty
+	 * list if there is none, using A* search with the landmark lower bounds as
+	 * heuristic (see Landmarks).  This needs no node coordinates.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> shortestPath(Landmarks<N,E> landmarks, N start, N end) {
+		return shortestPath(landmarks, start, end, null);
+	}
+
+	/** Same as shortestPath(landmarks, start, end), and record what the search
+	 * did in stats, unless stats is null. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	List<N> shortestPath(Landmarks<N,E> landmarks, N start, N end, SearchStats stats) {
+		CompiledGraph<N,E> g = landmarks.graph();
+		return search(g, start, end, landmarks, new SearchWorkspace(g.size()), stats);
+	}
+
+	/**
+	 * Return the shortest paths from source to every node reachable from it.
+	 * This is one run of Dijkstra's algorithm, so it answers the queries from
+	 * source to all n nodes for the price of one.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	ShortestPathTree<N,E> shortestPathTree(N source) {
+		CompiledGraph<N,E> g = CompiledGraph.compile(dfs(source));
+		return shortestPathTree(g, source, new SearchWorkspace(g.size()));
+	}
+
+	/**
+	 * Return the shortest paths in g from source to every node reachable from
+	 * it, computed in ws.  The result is a view of ws: it is valid until ws is
+	 * used again.  If source is not in g, the tree is empty.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	ShortestPathTree<N,E> shortestPathTree(CompiledGraph<N,E> g, N source, SearchWorkspace ws) {
+		return shortestPathTree(g, source, ws, null);
+	}
+
+	/** Same as shortestPathTree(g, source, ws), and record what the search did
+	 * in stats, unless stats is null. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	ShortestPathTree<N,E> shortestPathTree(CompiledGraph<N,E> g, N source, SearchWorkspace ws,
+		SearchStats stats) {
+		if (stats != null)
+			stats.start();
+		int s = g.id(source);
+		ws.reset(g.size(), g.minWeight(), g.maxWeight());
+		if (s == -1)
+			return finish(stats, new ShortestPathTree<N,E>(g, s, ws));
+
+		ws.reach(s, 0, -1, 0);
+		if (stats != null)
+			stats.push(1);
+		while (ws.frontier.size() > 0) {
+			int node_curr = ws.frontier.poll();
+			if (stats != null) {
+				stats.polls++;
+				stats.settled++;
+				stats.relaxed += g.end(node_curr) - g.start(node_curr);
+			}
+			for (int i = g.start(node_curr); i < g.end(node_curr); i++) {
+				int neighbor = g.target(i);
+				double new_weight = ws.dist(node_curr) + g.weight(i);
+				if (!ws.reached(neighbor)) {
+					ws.reach(neighbor, new_weight, node_curr, new_weight);
+					if (stats != null)
+						stats.push(ws.frontier.size());
+				} else if (new_weight < ws.dist(neighbor)) {
+					ws.improve(neighbor, new_weight, node_curr, new_weight);
+					if (stats != null)
+						stats.decreaseKeys++;
+				}
+			}
+		}
+		return finish(stats, new ShortestPathTree<N,E>(g, s, ws));
+	}
+
+	/**
+	 * The search behind the CompiledGraph versions of shortestPath: A* with the
+	 * lower bounds of landmarks as heuristic, or Dijkstra's algorithm if
+	 * landmarks is null.  The per-node state is kept in ws, and what the search
+	 * does is recorded in stats, unless stats is null.
+	 */
 	private static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
-	Heap<N, Double> getWeightHeap(HashMap<N, Double> dist, Set<N> unvis) {
-		// n_dist is the Heap to be returned. Will contain unvisited Nodes sorted
-		// in order of least distance to greatest distance from the start node.
-		Heap<N, Double> n_dist 	= new Heap<N, Double>(Comparator.reverseOrder());
-		// For each unvisited node,
-		for (N node : unvis) {
-			// Add node to n_dist with priority given in dist.
-			n_dist.add(node, dist.get(node));
+	List<N> search(CompiledGraph<N,E> g, N start, N end, Landmarks<N,E> landmarks, SearchWorkspace ws,
+		SearchStats stats) {
+		if (stats != null)
+			stats.start();
+		int s = g.id(start);
+		int t = g.id(end);
+		// Dijkstra's algorithm can use a monotone queue; A* keeps the heap
+		if (landmarks == null)
+			ws.reset(g.size(), g.minWeight(), g.maxWeight());
+		else
+			ws.reset(g.size());
+		// the components of g rule out most unreachable ends without a search
+		if (s == -1 || t == -1 || !g.mayReach(s, t))
+			return finish(stats, new ArrayList<N>());
+
+		// the frontier is ordered by dist plus the lower bound to t, if any
+		ws.reach(s, 0, -1, landmarks == null ? 0.0 : landmarks.lowerBound(s, t));
+		if (stats != null)
+			stats.push(1);
+		while (ws.frontier.size() > 0) {
+			int node_curr = ws.frontier.poll();
+			if (stats != null) {
+				stats.polls++;
+				stats.settled++;
+			}
+			if (node_curr == t)
+				return finish(stats, idsToList(g, ws, t));
+
+			if (stats != null)
+				stats.relaxed += g.end(node_curr) - g.start(node_curr);
+			for (int i = g.start(node_curr); i < g.end(node_curr); i++) {
+				int neighbor = g.target(i);
+				double new_weight = ws.dist(node_curr) + g.weight(i);
+				if (new_weight < ws.dist(neighbor)) {
+					// a reached neighbor that is off the frontier is settled, and
+					// new_weight cannot beat its distance; so it is on the frontier
+					double estimate = landmarks == null ? 0.0 : landmarks.lowerBound(neighbor, t);
+					if (!ws.reached(neighbor)) {
+						// the landmarks may prove that t is not reachable from neighbor
+						if (estimate == Double.POSITIVE_INFINITY)
+							continue;
+						ws.reach(neighbor, new_weight, node_curr, new_weight + estimate);
+						if (stats != null)
+							stats.push(ws.frontier.size());
+					} else {
+						ws.improve(neighbor, new_weight, node_curr, new_weight + estimate);
+						if (stats != null)
+							stats.decreaseKeys++;
+					}
+				}
+			}
 		}
-		return n_dist;
+
+		return finish(stats, new ArrayList<N>());
 	}
-	
+
+	/** Finish recording a search in stats, unless stats is null, and return its result. */
+	private static <T> T finish(SearchStats stats, T result) {
+		if (stats != null)
+			stats.finish();
+		return result;
+	}
+
+	/** Return the path ending at id end described by the parent array, where
+	 * node i is nodes.get(i). */
+	private static <N> List<N> idsToList(List<N> nodes, int[] parent, int end) {
+		List<N> out_list = new ArrayList<N>();
+		for (int u = end; u != -1; u = parent[u])
+			out_list.add(nodes.get(u));
+		Collections.reverse(out_list);
+		return out_list;
+	}
+
+	/** Return the path ending at id end found by the last search in ws, as Nodes of g. */
 	private static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
-	List<N> parentsToList(HashMap<N, N> parents, N start, N end) {
+	List<N> idsToList(CompiledGraph<N,E> g, SearchWorkspace ws, int end) {
 		List<N> out_list = new ArrayList<N>();
-		out_list.add(end);
-		N last_added = end;
-		while (!out_list.contains(start)) {
-			last_added = parents.get(last_added);
-			out_list.add(last_added);
-//			System.out.println(start.toString() + " " + end.toString() + " " + out_list.toString());
-//			break;
-		}
+		for (int u = end; u != -1; u = ws.parent(u))
+			out_list.add(g.node(u));
 		Collections.reverse(out_list);
 		return out_list;
 	}
-	
+
 }	
@@ -0,0 +1,275 @@
+package a5;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.ToDoubleBiFunction;
+
+import a4.IntDaryHeap;
+import graph.CompiledGraph;
+import graph.LabeledEdge;
+import graph.Node;
+
+/**
+ * Precomputed distances to and from a few landmark nodes of a CompiledGraph,
+ * used as lower bounds for A* search (the ALT technique: A*, Landmarks,
+ * Triangle inequality).
+ *
+ * For a landmark L and any nodes u and t, the triangle inequality gives
+ *    dist(u,t) >= dist(u,L) - dist(t,L)   and   dist(u,t) >= dist(L,t) - dist(L,u)
+ * so the largest of these bounds over all landmarks is a consistent A*
+ * heuristic.  Unlike a geometric heuristic it needs no coordinates, so it works
+ * for any graph with Integer edge labels.  It is best when the landmarks lie
+ * on the outskirts of the graph, behind the targets as seen from the sources,
+ * which is what farthest-point selection aims for.
+ *
+ * Preprocessing runs two Dijkstra searches per landmark.  The result can be
+ * written with save and read back with load, so it survives process restarts.
+ */
+public class Landmarks<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>> {
+	/** Distance stored for nodes that cannot be reached. */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** First int of a saved file. */
+	private static final int MAGIC = 0x414c5431; // "ALT1"
+
+	private final CompiledGraph<N,E> graph;
+
+	// landmarks[i] is the id of the i'th landmark
+	private final int[] landmarks;
+
+	// from[i][u] is the distance from landmarks[i] to u, to[i][u] the distance
+	// from u to landmarks[i]; UNREACHABLE if there is no path
+	private final int[][] from;
+	private final int[][] to;
+
+	private Landmarks(CompiledGraph<N,E> g, int[] landmarks, int[][] from, int[][] to) {
+		this.graph     = g;
+		this.landmarks = landmarks;
+		this.from      = from;
+		this.to        = to;
+	}
+
+	/**
+	 * Choose k landmarks of g by farthest-point selection and compute their
+	 * distance arrays.  The first landmark is the node farthest from node 0;
+	 * each next one is the node whose distance to the landmarks chosen so far is
+	 * largest.  A node that none of them can reach counts as infinitely far, so
+	 * every component of a fragmented graph gets a landmark as long as k allows.
+	 * No node is chosen twice, and selection stops early once every node that
+	 * is not a landmark is at distance 0 from one, since another landmark would
+	 * add nothing to the bounds; so fewer than k may be chosen.
+	 *
+	 * @throws IllegalArgumentException if k < 1
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	Landmarks<N,E> select(CompiledGraph<N,E> g, int k) {
+		if (k < 1)
+			throw new IllegalArgumentException("need at least one landmark: " + k);
+		k = Math.min(k, g.size());
+		int[]   chosen = new int[k];
+		int[][] from   = new int[k][];
+		int[][] to     = new int[k][];
+		if (k == 0)
+			return new Landmarks<N,E>(g, chosen, from, to);
+
+		// closest[u] is the smallest distance between u and a chosen landmark
+		long[] closest = new long[g.size()];
+		Arrays.fill(closest, Long.MAX_VALUE);
+		int next = farthest(distances(g, 0, true));
+		int count = 0;
+		while (count < k && next != -1) {
+			chosen[count] = next;
+			from[count]   = distances(g, next, true);
+			to[count]     = distances(g, next, false);
+			for (int u = 0; u < g.size(); u++)
+				closest[u] = Math.min(closest[u], Math.min(dist(from[count][u]), dist(to[count][u])));
+			count++;
+			next = farthest(closest);
+		}
+		if (count < k)
+			return new Landmarks<N,E>(g, Arrays.copyOf(chosen, count),
+				Arrays.copyOf(from, count), Arrays.copyOf(to, count));
+		return new Landmarks<N,E>(g, chosen, from, to);
+	}
+
+	/** Return the graph these landmarks belong to. */
+	public CompiledGraph<N,E> graph() {
+		return graph;
+	}
+
+	/** Return the number of landmarks. */
+	public int size() {
+		return landmarks.length;
+	}
+
+	/** Return the id of landmark i. */
+	public int landmark(int i) {
+		return landmarks[i];
+	}
+
+	/**
+	 * Return a lower bound on the distance from node u to node t (ids in
+	 * graph()).  Return +infinity if the landmarks prove that t cannot be
+	 * reached from u.
+	 */
+	public double lowerBound(int u, int t) {
+		int best = 0;
+		for (int i = 0; i < landmarks.length; i++) {
+			int[] f = from[i];
+			int[] b = to[i];
+			// a landmark that reaches u but not t, or that t reaches but u does not,
+			// shows that u does not reach t
+			if (f[u] != UNREACHABLE && f[t] == UNREACHABLE
+				|| b[t] != UNREACHABLE && b[u] == UNREACHABLE)
+				return Double.POSITIVE_INFINITY;
+			if (f[t] != UNREACHABLE && f[u] != UNREACHABLE)
+				best = Math.max(best, f[t] - f[u]);
+			if (b[u] != UNREACHABLE && b[t] != UNREACHABLE)
+				best = Math.max(best, b[u] - b[t]);
+		}
+		return best;
+	}
+
+	/**
+	 * Return lowerBound as a heuristic on nodes, for GraphAlgorithms.astar.
+	 * Each call looks the nodes up in graph(); the shortestPath overload that
+	 * takes a Landmarks avoids that.
+	 */
+	public ToDoubleBiFunction<N,N> heuristic() {
+		return (u, t) -> {
+			int ui = graph.id(u);
+			int ti = graph.id(t);
+			return ui == -1 || ti == -1 ? 0 : lowerBound(ui, ti);
+		};
+	}
+
+	/**
+	 * Write these landmarks to out.  Nodes are identified by toString(), so the
+	 * nodes of graph() must have distinct string forms.  out is not closed.
+	 */
+	public void save(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(graph.size());
+		data.writeInt(landmarks.length);
+		for (int u = 0; u < graph.size(); u++)
+			data.writeUTF(graph.node(u).toString());
+		for (int i = 0; i < landmarks.length; i++) {
+			data.writeInt(landmarks[i]);
+			for (int u = 0; u < graph.size(); u++)
+				data.writeInt(from[i][u]);
+			for (int u = 0; u < graph.size(); u++)
+				data.writeInt(to[i][u]);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Read landmarks written by save and attach them to g, which must have the
+	 * same nodes (by toString()) as the graph they were computed for.  The ids
+	 * of g may differ from the saved ones.  in is not closed.
+	 *
+	 * @throws IOException if in cannot be read, is not a saved Landmarks, or
+	 *                     does not match the nodes of g
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	Landmarks<N,E> load(InputStream in, CompiledGraph<N,E> g) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC)
+			throw new IOException("not a saved Landmarks");
+		int n = data.readInt();
+		int k = data.readInt();
+		if (n != g.size())
+			throw new IOException("saved for " + n + " nodes, graph has " + g.size());
+		if (k < 0 || k > n)
+			throw new IOException("bad number of landmarks: " + k);
+
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		for (int u = 0; u < g.size(); u++)
+			if (ids.put(g.node(u).toString(), u) != null)
+				throw new IOException("two nodes are named " + g.node(u));
+
+		// id[s] is the id in g of the node with saved id s
+		int[] id = new int[n];
+		for (int s = 0; s < n; s++) {
+			String name = data.readUTF();
+			Integer u = ids.get(name);
+			if (u == null)
+				throw new IOException("graph has no node " + name);
+			id[s] = u;
+		}
+
+		int[]   chosen = new int[k];
+		int[][] from   = new int[k][n];
+		int[][] to     = new int[k][n];
+		for (int i = 0; i < k; i++) {
+			int landmark = data.readInt();
+			if (landmark < 0 || landmark >= n)
+				throw new IOException("bad landmark id: " + landmark);
+			chosen[i] = id[landmark];
+			for (int s = 0; s < n; s++)
+				from[i][id[s]] = data.readInt();
+			for (int s = 0; s < n; s++)
+				to[i][id[s]] = data.readInt();
+		}
+		return new Landmarks<N,E>(g, chosen, from, to);
+	}
+
+	/**
+	 * Return the distances from source to every node of g (if forward) or from
+	 * every node of g to source (if not), UNREACHABLE where there is no path.
+	 */
+	private static int[] distances(CompiledGraph<?,?> g, int source, boolean forward) {
+		int[] dist = new int[g.size()];
+		Arrays.fill(dist, UNREACHABLE);
+		IntDaryHeap frontier = new IntDaryHeap(4, g.size());
+		dist[source] = 0;
+		frontier.add(source, 0);
+		while (frontier.size() > 0) {
+			int u = frontier.poll();
+			int first = forward ? g.start(u) : g.inStart(u);
+			int last  = forward ? g.end(u)   : g.inEnd(u);
+			for (int i = first; i < last; i++) {
+				int v = forward ? g.target(i) : g.source(i);
+				int d = dist[u] + (forward ? g.weight(i) : g.inWeight(i));
+				if (d < dist[v]) {
+					if (dist[v] == UNREACHABLE)
+						frontier.add(v, d);
+					else
+						frontier.changePriority(v, d);
+					dist[v] = d;
+				}
+			}
+		}
+		return dist;
+	}
+
+	/** Return d as a long, with UNREACHABLE as Long.MAX_VALUE. */
+	private static long dist(int d) {
+		return d == UNREACHABLE ? Long.MAX_VALUE : d;
+	}
+
+	/** Return the index of the largest entry of dist other than UNREACHABLE. */
+	private static int farthest(int[] dist) {
+		int best = 0;
+		for (int u = 0; u < dist.length; u++)
+			if (dist[u] != UNREACHABLE && dist[u] > dist[best])
+				best = u;
+		return best;
+	}
+
+	/** Return the index of the largest entry of closest, or -1 if every entry
+	 * is 0.  A landmark is at distance 0 from itself, so this never returns one. */
+	private static int farthest(long[] closest) {
+		int best = -1;
+		for (int u = 0; u < closest.length; u++)
+			if (closest[u] > 0 && (best == -1 || closest[u] > closest[best]))
+				best = u;
+		return best;
+	}
+}
@@ -0,0 +1,146 @@
+package a5;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Totals and histograms of many searches, gathered from the SearchStats made
+ * with it, for monitoring through JMX (see SearchMetricsMXBean).
+ *
+ * Recording a search is a few atomic additions and never blocks, so one
+ * SearchMetrics can be shared by all the threads that run searches.  Register
+ * it with the platform MBean server to watch it with jconsole or any JMX
+ * client:
+ *
+ *   SearchMetrics metrics = SearchMetrics.register("routing");
+ *   SearchStats   stats   = new SearchStats(metrics);   // one per thread
+ *   GraphAlgorithms.shortestPath(g, start, end, ws, stats);
+ */
+public class SearchMetrics implements SearchMetricsMXBean {
+	/** Number of buckets of a histogram; enough for any long. */
+	private static final int BUCKETS = 64;
+
+	private final LongAdder queries      = new LongAdder();
+	private final LongAdder settled      = new LongAdder();
+	private final LongAdder relaxed      = new LongAdder();
+	private final LongAdder pushes       = new LongAdder();
+	private final LongAdder decreaseKeys = new LongAdder();
+	private final LongAdder polls        = new LongAdder();
+	private final LongAdder nanos        = new LongAdder();
+	private final AtomicLong peakFrontier = new AtomicLong();
+
+	private final AtomicLongArray microsHistogram   = new AtomicLongArray(BUCKETS);
+	private final AtomicLongArray settledHistogram  = new AtomicLongArray(BUCKETS);
+	private final AtomicLongArray relaxedHistogram  = new AtomicLongArray(BUCKETS);
+
+	/** The name this is registered under, null if it is not registered. */
+	private ObjectName name;
+
+	/**
+	 * Return a new SearchMetrics registered with the platform MBean server as
+	 * a5:type=SearchMetrics,name=name.
+	 * @throws JMException if it cannot be registered, e.g. because the name is taken
+	 */
+	public static SearchMetrics register(String name) throws JMException {
+		SearchMetrics metrics = new SearchMetrics();
+		metrics.name = new ObjectName("a5:type=SearchMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metrics.name);
+		return metrics;
+	}
+
+	/** Remove this from the platform MBean server, if register made it. */
+	public void unregister() throws JMException {
+		if (name != null)
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		name = null;
+	}
+
+	/** Add the search that stats just recorded. */
+	void record(SearchStats stats) {
+		queries.increment();
+		settled.add(stats.settled);
+		relaxed.add(stats.relaxed);
+		pushes.add(stats.pushes);
+		decreaseKeys.add(stats.decreaseKeys);
+		polls.add(stats.polls);
+		nanos.add(stats.nanos());
+		peakFrontier.accumulateAndGet(stats.peakFrontier, Math::max);
+		microsHistogram.incrementAndGet(bucket(stats.nanos() / 1000));
+		settledHistogram.incrementAndGet(bucket(stats.settled));
+		relaxedHistogram.incrementAndGet(bucket(stats.relaxed));
+	}
+
+	/** Return the histogram bucket of v >= 0. */
+	private static int bucket(long v) {
+		return v <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(v);
+	}
+
+	/** Return the upper bound of the bucket of histogram h in which the
+	 * q'th quantile falls, 0 if h is empty. */
+	private static long quantile(AtomicLongArray h, double q) {
+		long[] counts = snapshot(h);
+		long total = 0;
+		for (long c : counts)
+			total += c;
+		long rank = (long) Math.ceil(q * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && seen > 0)
+				return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << (i + 1);
+		}
+		return 0;
+	}
+
+	/** Return a copy of histogram h. */
+	private static long[] snapshot(AtomicLongArray h) {
+		long[] counts = new long[h.length()];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = h.get(i);
+		return counts;
+	}
+
+	@Override public long getQueries()      { return queries.sum(); }
+	@Override public long getSettled()      { return settled.sum(); }
+	@Override public long getRelaxed()      { return relaxed.sum(); }
+	@Override public long getPushes()       { return pushes.sum(); }
+	@Override public long getDecreaseKeys() { return decreaseKeys.sum(); }
+	@Override public long getPolls()        { return polls.sum(); }
+	@Override public long getPeakFrontier() { return peakFrontier.get(); }
+	@Override public long getTotalMicros()  { return nanos.sum() / 1000; }
+
+	@Override
+	public double getMeanMicros() {
+		long n = queries.sum();
+		return n == 0 ? 0 : nanos.sum() / 1000.0 / n;
+	}
+
+	@Override public long getMedianMicros() { return quantile(microsHistogram, 0.5); }
+	@Override public long getP99Micros()    { return quantile(microsHistogram, 0.99); }
+
+	@Override public long[] getMicrosHistogram()  { return snapshot(microsHistogram); }
+	@Override public long[] getSettledHistogram() { return snapshot(settledHistogram); }
+	@Override public long[] getRelaxedHistogram() { return snapshot(relaxedHistogram); }
+
+	@Override
+	public void reset() {
+		queries.reset();
+		settled.reset();
+		relaxed.reset();
+		pushes.reset();
+		decreaseKeys.reset();
+		polls.reset();
+		nanos.reset();
+		peakFrontier.set(0);
+		for (int i = 0; i < BUCKETS; i++) {
+			microsHistogram.set(i, 0);
+			settledHistogram.set(i, 0);
+			relaxedHistogram.set(i, 0);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package a5;
+
+/**
+ * The management interface of SearchMetrics: totals and histograms of the
+ * searches recorded so far.
+ *
+ * Bucket 0 of a histogram counts the values 0 and 1; bucket i > 0 counts the
+ * values v with 2^i <= v < 2^(i+1).  So a bucket's upper bound is twice its
+ * lower bound, and a percentile is the upper bound of the bucket it falls in.
+ */
+public interface SearchMetricsMXBean {
+	/** Return the number of searches recorded. */
+	long getQueries();
+
+	/** Return the nodes settled by all the searches. */
+	long getSettled();
+
+	/** Return the edges relaxed by all the searches. */
+	long getRelaxed();
+
+	/** Return the nodes added to the frontiers of all the searches. */
+	long getPushes();
+
+	/** Return the priorities lowered by all the searches. */
+	long getDecreaseKeys();
+
+	/** Return the nodes taken off the frontiers of all the searches. */
+	long getPolls();
+
+	/** Return the largest frontier of any search. */
+	long getPeakFrontier();
+
+	/** Return the wall time of all the searches, in microseconds. */
+	long getTotalMicros();
+
+	/** Return the mean wall time of a search, in microseconds. */
+	double getMeanMicros();
+
+	/** Return the median wall time of a search, in microseconds (see above). */
+	long getMedianMicros();
+
+	/** Return the 99th percentile of the wall time of a search, in microseconds. */
+	long getP99Micros();
+
+	/** Return the histogram of the wall time of a search, in microseconds. */
+	long[] getMicrosHistogram();
+
+	/** Return the histogram of the nodes settled by a search. */
+	long[] getSettledHistogram();
+
+	/** Return the histogram of the edges relaxed by a search. */
+	long[] getRelaxedHistogram();
+
+	/** Forget all the searches recorded so far. */
+	void reset();
+}
@@ -0,0 +1,105 @@
+package a5;
+
+/**
+ * What one shortest-path search did: the nodes it settled, the edges it
+ * relaxed, its work on the frontier heap, and how long it took.
+ *
+ * Pass a SearchStats to a search method of GraphAlgorithms to have it filled
+ * in; the searches that are given none record nothing and pay nothing.  Each
+ * search starts by clearing the counters, so one SearchStats can be reused for
+ * any number of searches, one at a time, and holds the last one.  If it was
+ * made with a SearchMetrics, every search it records is also added to it.
+ *
+ * A SearchStats is not thread-safe; give each thread its own.
+ */
+public final class SearchStats {
+	/** Where finished searches are added, or null. */
+	private final SearchMetrics metrics;
+
+	int settled;		// nodes whose distance became final
+	int relaxed;		// edges looked at from a settled node
+	int pushes;			// nodes added to the frontier
+	int decreaseKeys;	// priorities lowered on the frontier
+	int polls;			// nodes taken off the frontier
+	int peakFrontier;	// largest size of the frontier
+	private long startNanos;
+	private long nanos;	// wall time of the search
+
+	/** Constructor: statistics that are not aggregated anywhere. */
+	public SearchStats() {
+		this(null);
+	}
+
+	/** Constructor: statistics whose every search is also added to metrics. */
+	public SearchStats(SearchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/** Clear the counters and start the clock: a search begins. */
+	void start() {
+		settled      = 0;
+		relaxed      = 0;
+		pushes       = 0;
+		decreaseKeys = 0;
+		polls        = 0;
+		peakFrontier = 0;
+		nanos        = 0;
+		startNanos   = System.nanoTime();
+	}
+
+	/** Record that a node was added to the frontier, which now has size nodes. */
+	void push(int size) {
+		pushes++;
+		if (size > peakFrontier)
+			peakFrontier = size;
+	}
+
+	/** Stop the clock and publish the search to the metrics, if any. */
+	void finish() {
+		nanos = System.nanoTime() - startNanos;
+		if (metrics != null)
+			metrics.record(this);
+	}
+
+	/** Return the number of nodes whose distance the last search made final. */
+	public int settled() {
+		return settled;
+	}
+
+	/** Return the number of edges the last search relaxed. */
+	public int relaxed() {
+		return relaxed;
+	}
+
+	/** Return the number of nodes the last search added to its frontier. */
+	public int pushes() {
+		return pushes;
+	}
+
+	/** Return the number of times the last search lowered a priority on its frontier. */
+	public int decreaseKeys() {
+		return decreaseKeys;
+	}
+
+	/** Return the number of nodes the last search took off its frontier. */
+	public int polls() {
+		return polls;
+	}
+
+	/** Return the largest number of nodes on the frontier of the last search. */
+	public int peakFrontier() {
+		return peakFrontier;
+	}
+
+	/** Return the wall time of the last search, in nanoseconds. */
+	public long nanos() {
+		return nanos;
+	}
+
+	@Override
+	public String toString() {
+		return "settled=" + settled + " relaxed=" + relaxed + " pushes=" + pushes
+			+ " decreaseKeys=" + decreaseKeys + " polls=" + polls
+			+ " peakFrontier=" + peakFrontier + " micros=" + nanos / 1000;
+	}
+}
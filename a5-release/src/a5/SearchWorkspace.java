@@ -0,0 +1,157 @@
+package a5;
+
+import java.util.Arrays;
+
+import a4.DialQueue;
+import a4.IntDaryHeap;
+import a4.IntPriorityQueue;
+import a4.RadixHeap;
+
+/**
+ * The per-node state of a search over the ids of a CompiledGraph: a tentative
+ * distance and a parent for every node, and the frontier.
+ *
+ * The frontier is chosen for each search by the weights of its graph.  When
+ * they are non-negative integers, as on our road maps, Dijkstra's algorithm
+ * only ever adds priorities between the last one polled and that plus the
+ * largest weight, so a monotone queue does: a DialQueue when the largest
+ * weight is small, else a RadixHeap.  Other searches use an IntDaryHeap.
+ *
+ * A workspace belongs to its caller and can be passed to any number of
+ * searches, one at a time.  Each search starts by calling reset(), which only
+ * clears the entries the previous search touched, so repeated searches cost
+ * time proportional to the part of the graph they explore rather than to the
+ * size of the graph, and allocate nothing once the arrays are large enough.
+ *
+ * A workspace is not thread-safe; give each thread its own.
+ */
+public final class SearchWorkspace {
+	/** Number of children per node of the frontier heap. */
+	private static final int HEAP_ARITY = 4;
+
+	/** Largest edge weight for which the frontier is a DialQueue: it has a
+	 * bucket per weight, and poll may step over all of them. */
+	static final int DIAL_MAX_WEIGHT = 1024;
+
+	// dist[u] is the best known distance to u, +infinity if u is not reached;
+	// parent[u] is the node before u on that path, -1 for the source
+	private double[] dist;
+	private int[]    parent;
+
+	// touched[0 .. touchedSize-1] are the ids reached since the last reset
+	private int[] touched;
+	private int   touchedSize;
+
+	/** The nodes that are reached but not settled, by priority: one of the
+	 * queues below, chosen by the last reset. */
+	IntPriorityQueue frontier;
+
+	// the queues frontier may be; dial and radix are made when first needed
+	private final IntDaryHeap heap;
+	private DialQueue dial;
+	private RadixHeap radix;
+
+	/** Constructor: a workspace for graphs of about capacity nodes (it grows as needed). */
+	public SearchWorkspace(int capacity) {
+		capacity = Math.max(capacity, 1);
+		dist     = new double[capacity];
+		parent   = new int[capacity];
+		touched  = new int[capacity];
+		heap     = new IntDaryHeap(HEAP_ARITY, capacity);
+		frontier = heap;
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+	}
+
+	/** Constructor: an empty workspace that grows as needed. */
+	public SearchWorkspace() {
+		this(16);
+	}
+
+	/**
+	 * Prepare for Dijkstra's algorithm over a graph of n nodes whose edge
+	 * weights are in minWeight..maxWeight, as reset(n) does, with the frontier
+	 * that suits those weights (see above).
+	 */
+	void reset(int n, int minWeight, int maxWeight) {
+		reset(n);
+		if (minWeight < 0) {
+			return;
+		} else if (maxWeight <= DIAL_MAX_WEIGHT) {
+			if (dial == null || dial.maxSpan() != maxWeight)
+				dial = new DialQueue(maxWeight, dist.length);
+			frontier = dial;
+		} else {
+			if (radix == null)
+				radix = new RadixHeap(dist.length);
+			frontier = radix;
+		}
+	}
+
+	/**
+	 * Prepare for a search over a graph of n nodes: forget the previous search,
+	 * in time proportional to the nodes it reached, and make room for n nodes.
+	 * The frontier is an IntDaryHeap, which takes any priorities.
+	 */
+	void reset(int n) {
+		for (int i = 0; i < touchedSize; i++)
+			dist[touched[i]] = Double.POSITIVE_INFINITY;
+		touchedSize = 0;
+		frontier.clear();
+		frontier = heap;
+		if (n > dist.length) {
+			int old = dist.length;
+			int cap = Math.max(n, 2 * old);
+			dist    = Arrays.copyOf(dist, cap);
+			parent  = Arrays.copyOf(parent, cap);
+			touched = Arrays.copyOf(touched, cap);
+			Arrays.fill(dist, old, cap, Double.POSITIVE_INFINITY);
+		}
+	}
+
+	/** Record that u is first reached, at distance d from the source via p,
+	 * and put it on the frontier with priority priority. */
+	void reach(int u, double d, int p, double priority) {
+		touched[touchedSize++] = u;
+		dist[u]   = d;
+		parent[u] = p;
+		frontier.add(u, priority);
+	}
+
+	/** Record a shorter path to u, which is on the frontier. */
+	void improve(int u, double d, int p, double priority) {
+		dist[u]   = d;
+		parent[u] = p;
+		frontier.changePriority(u, priority);
+	}
+
+	/** Return true iff the last search reached node u. */
+	public boolean reached(int u) {
+		return u < dist.length && dist[u] != Double.POSITIVE_INFINITY;
+	}
+
+	/** Return true iff the last search took u off the frontier, so dist(u) is final. */
+	public boolean settled(int u) {
+		return reached(u) && !frontier.contains(u);
+	}
+
+	/** Return the distance to u found by the last search, +infinity if not reached. */
+	public double dist(int u) {
+		return u < dist.length ? dist[u] : Double.POSITIVE_INFINITY;
+	}
+
+	/** Return the node before u on the path found by the last search, -1 for its source.
+	 * Precondition: reached(u). */
+	public int parent(int u) {
+		return parent[u];
+	}
+
+	/** Return the number of nodes the last search reached. */
+	public int touchedCount() {
+		return touchedSize;
+	}
+
+	/** Return the i'th node the last search reached, for 0 <= i < touchedCount(). */
+	public int touched(int i) {
+		return touched[i];
+	}
+}
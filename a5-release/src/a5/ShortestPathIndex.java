@@ -0,0 +1,22 @@
+package a5;
+
+import java.util.List;
+
+/**
+ * A preprocessed graph that answers point-to-point shortest-path queries.
+ * Implementations trade preprocessing time and memory for query speed; they
+ * answer the same question as GraphAlgorithms.shortestPath on the graph they
+ * were built from, which must not change afterwards.
+ *
+ * @param <N> The type of nodes in the graph
+ */
+public interface ShortestPathIndex<N> {
+
+	/**
+	 * Return a minimal path from start to end, as GraphAlgorithms.shortestPath
+	 * does: a list of nodes beginning with start and ending with end, [start] if
+	 * start equals end, and an empty list if end cannot be reached from start
+	 * or either node is not in the indexed graph.
+	 */
+	public List<N> shortestPath(N start, N end);
+}
@@ -0,0 +1,102 @@
+package a5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import graph.CompiledGraph;
+import graph.LabeledEdge;
+import graph.Node;
+
+/**
+ * The shortest paths from one source to every node it can reach, as computed
+ * by GraphAlgorithms.shortestPathTree.  Nodes are identified by their ids in
+ * graph().
+ *
+ * A tree is a view of the SearchWorkspace it was computed in; it is only
+ * valid until that workspace is used for another search.  Copy what must
+ * outlive it with distances() and parents().
+ */
+public final class ShortestPathTree<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>> {
+	private final CompiledGraph<N,E> graph;
+	private final int source;
+	private final SearchWorkspace workspace;
+
+	ShortestPathTree(CompiledGraph<N,E> graph, int source, SearchWorkspace workspace) {
+		this.graph     = graph;
+		this.source    = source;
+		this.workspace = workspace;
+	}
+
+	/** Return the graph this tree spans part of. */
+	public CompiledGraph<N,E> graph() {
+		return graph;
+	}
+
+	/** Return the id of the source, -1 if the source is not in graph(). */
+	public int source() {
+		return source;
+	}
+
+	/** Return the number of nodes reachable from the source, including itself. */
+	public int size() {
+		return source == -1 ? 0 : workspace.touchedCount();
+	}
+
+	/** Return the distance from the source to node u, +infinity if u is not reachable. */
+	public double distance(int u) {
+		return source == -1 ? Double.POSITIVE_INFINITY : workspace.dist(u);
+	}
+
+	/** Return the distance from the source to n, +infinity if n is not reachable. */
+	public double distance(N n) {
+		int u = graph.id(n);
+		return u == -1 ? Double.POSITIVE_INFINITY : distance(u);
+	}
+
+	/** Return the node before u on a shortest path from the source, -1 if u is
+	 * the source or is not reachable. */
+	public int parent(int u) {
+		return workspace.reached(u) && source != -1 ? workspace.parent(u) : -1;
+	}
+
+	/**
+	 * Return a minimal path from the source to n, with the same contract as
+	 * GraphAlgorithms.shortestPath: empty if n cannot be reached.
+	 */
+	public List<N> pathTo(N n) {
+		List<N> out_list = new ArrayList<N>();
+		int end = graph.id(n);
+		if (end == -1 || distance(end) == Double.POSITIVE_INFINITY)
+			return out_list;
+		for (int u = end; u != -1; u = workspace.parent(u))
+			out_list.add(graph.node(u));
+		Collections.reverse(out_list);
+		return out_list;
+	}
+
+	/** Return a new array with the distance to every node of graph(), by id;
+	 * +infinity for the nodes that are not reachable. */
+	public double[] distances() {
+		double[] result = new double[graph.size()];
+		Arrays.fill(result, Double.POSITIVE_INFINITY);
+		for (int i = 0; i < size(); i++) {
+			int u = workspace.touched(i);
+			result[u] = workspace.dist(u);
+		}
+		return result;
+	}
+
+	/** Return a new array with the parent of every node of graph(), by id;
+	 * -1 for the source and for the nodes that are not reachable. */
+	public int[] parents() {
+		int[] result = new int[graph.size()];
+		Arrays.fill(result, -1);
+		for (int i = 0; i < size(); i++) {
+			int u = workspace.touched(i);
+			result[u] = workspace.parent(u);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,264 @@
+package a5;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import graph.CompiledGraph;
+import graph.Edge;
+import graph.LabeledEdge;
+import graph.Node;
+
+/**
+ * Lazy depth-first and breadth-first traversals: the nodes reachable from a
+ * start node, each exactly once, as an Iterator or a Stream.
+ *
+ * A node goes on the work list only when it is first reached, so a traversal
+ * holds O(V) state however many edges there are.  The depth-first work list is
+ * the path from the start to the node last returned, each with its place in
+ * its edges, so the order is a preorder that follows the first edge of a node
+ * first; the breadth-first one is a queue.  Nodes are found as the iterator
+ * is advanced, so a caller that stops early (findFirst, anyMatch, limit) only
+ * pays for the nodes it looked at.
+ *
+ * The static methods traverse the Node maps and keep the visited nodes in a
+ * HashSet.  A Traversal object traverses the ids of a CompiledGraph in arrays
+ * it allocates once: a node is visited iff its stamp is the number of the
+ * current traversal, so starting one takes constant time rather than clearing
+ * a visited array.  Like a SearchWorkspace, it runs one traversal at a time
+ * and is not thread-safe; starting a traversal ends the last one, whose
+ * iterator then throws ConcurrentModificationException.
+ */
+public final class Traversal<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>> {
+	/** The order in which a traversal lists the nodes. */
+	public enum Order { DEPTH_FIRST, BREADTH_FIRST }
+
+	/** The characteristics of the streams of nodes made here. */
+	private static final int CHARACTERISTICS =
+		Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+	private final CompiledGraph<N,E> graph;
+
+	// u is visited by the current traversal iff stamp[u] == generation
+	private final int[] stamp;
+	private int generation;
+
+	// work is the stack or queue of ids of the current traversal; in a
+	// depth-first one, the next edge of u to follow is edge[u]
+	private final int[] work;
+	private final int[] edge;
+
+	/** Return the nodes reachable from start in order, as they are found. */
+	public static <N extends Node<N,E>, E extends Edge<N,E>>
+	Iterator<N> iterator(N start, Order order) {
+		if (order == Order.DEPTH_FIRST)
+			return new DepthFirst<N,E>(start);
+		return new BreadthFirst<N,E>(start);
+	}
+
+	/** Return the nodes reachable from start in order, as a lazy sequential Stream. */
+	public static <N extends Node<N,E>, E extends Edge<N,E>>
+	Stream<N> stream(N start, Order order) {
+		return StreamSupport.stream(
+			Spliterators.spliteratorUnknownSize(iterator(start, order), CHARACTERISTICS), false);
+	}
+
+	/** Constructor: traversals of g. */
+	public Traversal(CompiledGraph<N,E> g) {
+		graph = g;
+		stamp = new int[g.size()];
+		work  = new int[g.size()];
+		edge  = new int[g.size()];
+	}
+
+	/** Return the graph this traverses. */
+	public CompiledGraph<N,E> graph() {
+		return graph;
+	}
+
+	/**
+	 * Return the ids of the nodes of graph() reachable from node s in order,
+	 * as they are found, ending the last traversal.
+	 * @throws IndexOutOfBoundsException if s is not an id of graph()
+	 */
+	public PrimitiveIterator.OfInt ids(int s, Order order) {
+		if (s < 0 || s >= graph.size())
+			throw new IndexOutOfBoundsException("node " + s + " of " + graph.size());
+		generation++;
+		if (generation == 0) {
+			// after 2^32 traversals the stamps come round again
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+		stamp[s] = generation;
+		if (order == Order.DEPTH_FIRST)
+			return new DepthFirstIds(s);
+		return new BreadthFirstIds(s);
+	}
+
+	/**
+	 * Return the nodes of graph() reachable from start in order, as a lazy
+	 * sequential Stream, ending the last traversal.  If start is not in
+	 * graph(), the stream is empty.
+	 */
+	public Stream<N> nodes(N start, Order order) {
+		int s = graph.id(start);
+		if (s == -1)
+			return Stream.empty();
+		return StreamSupport.intStream(
+			Spliterators.spliteratorUnknownSize(ids(s, order), CHARACTERISTICS), false)
+			.mapToObj(graph::node);
+	}
+
+	/** Return true iff u has not been visited by the current traversal, and visit it. */
+	private boolean visit(int u) {
+		if (stamp[u] == generation)
+			return false;
+		stamp[u] = generation;
+		return true;
+	}
+
+	/** A depth-first traversal of the ids: work[0 .. depth-1] is the path from
+	 * the start to the id last returned. */
+	private final class DepthFirstIds implements PrimitiveIterator.OfInt {
+		private final int gen = generation;
+		private int depth;
+		private int next;	// the next id to return, -1 if not yet found
+
+		DepthFirstIds(int s) {
+			next = s;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (gen != generation)
+				throw new ConcurrentModificationException("another traversal was started");
+			while (next == -1 && depth > 0) {
+				int u = work[depth - 1];
+				if (edge[u] == graph.end(u))
+					depth--;
+				else if (visit(graph.target(edge[u])))
+					next = graph.target(edge[u]++);
+				else
+					edge[u]++;
+			}
+			return next != -1;
+		}
+
+		@Override
+		public int nextInt() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			int u = next;
+			next = -1;
+			work[depth++] = u;
+			edge[u] = graph.start(u);
+			return u;
+		}
+	}
+
+	/** A breadth-first traversal of the ids: work[head .. tail-1] is the queue. */
+	private final class BreadthFirstIds implements PrimitiveIterator.OfInt {
+		private final int gen = generation;
+		private int head;
+		private int tail;
+
+		BreadthFirstIds(int s) {
+			work[tail++] = s;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (gen != generation)
+				throw new ConcurrentModificationException("another traversal was started");
+			return head < tail;
+		}
+
+		@Override
+		public int nextInt() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			int u = work[head++];
+			for (int i = graph.start(u); i < graph.end(u); i++)
+				if (visit(graph.target(i)))
+					work[tail++] = graph.target(i);
+			return u;
+		}
+	}
+
+	/** A depth-first traversal of the Node maps. */
+	private static final class DepthFirst<N extends Node<N,E>, E extends Edge<N,E>> implements Iterator<N> {
+		private final Set<N> visited = new HashSet<N>();
+
+		// the path from the start to the node last returned, innermost first,
+		// as iterators over the neighbors of its nodes not yet looked at
+		private final ArrayDeque<Iterator<N>> path = new ArrayDeque<Iterator<N>>();
+		private N next;	// the next node to return, null if not yet found
+
+		DepthFirst(N start) {
+			visited.add(start);
+			next = start;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && !path.isEmpty()) {
+				Iterator<N> neighbors = path.peek();
+				if (!neighbors.hasNext())
+					path.pop();
+				else {
+					N v = neighbors.next();
+					if (visited.add(v))
+						next = v;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public N next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			N u = next;
+			next = null;
+			path.push(u.outgoing().keySet().iterator());
+			return u;
+		}
+	}
+
+	/** A breadth-first traversal of the Node maps. */
+	private static final class BreadthFirst<N extends Node<N,E>, E extends Edge<N,E>> implements Iterator<N> {
+		private final Set<N> visited = new HashSet<N>();
+		private final ArrayDeque<N> queue = new ArrayDeque<N>();
+
+		BreadthFirst(N start) {
+			visited.add(start);
+			queue.add(start);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !queue.isEmpty();
+		}
+
+		@Override
+		public N next() {
+			if (queue.isEmpty())
+				throw new NoSuchElementException();
+			N u = queue.poll();
+			for (N v : u.outgoing().keySet())
+				if (visited.add(v))
+					queue.add(v);
+			return u;
+		}
+	}
+}
@@ -0,0 +1,537 @@
+package a5.testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleBiFunction;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import a5.ContractionHierarchy;
+import a5.GraphAlgorithms;
+import a5.Landmarks;
+import a5.SearchMetrics;
+import a5.SearchStats;
+import a5.SearchWorkspace;
+import a5.ShortestPathTree;
+import graph.AdjacencyListGraph;
+import graph.CompiledGraph;
+import gui.Adapter;
+import gui.EdgeData;
+import gui.Graph;
+import gui.NodeData;
+
+/** Checks the alternative shortest-path searches of GraphAlgorithms against <br>
+ * the reference distances in info/Maps and on a small directed graph. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class AlgorithmsTester {
+
+	/** The maps with a distances file, checked by every search. */
+	private static final String[] MAPS= { "TestBoard1", "Seed16", "Board3", "TestBoard2", "seed128" };
+
+	@Test
+	/** Test all bidirectional shortest paths on the maps with distance files. */
+	public void test10Bidirectional() {
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Adapter a= new Adapter(g);
+			checkAllShortestPaths(pd, (u, v) -> unwrap(
+				GraphAlgorithms.bidirectionalShortestPath(a.wrap(u), a.wrap(v))));
+		}
+	}
+
+	@Test
+	/** Bidirectional search must follow edge directions: on the cycle <br>
+	 * a -1-> b -1-> c -1-> a plus a -5-> c, the path from c to b is c, a, b <br>
+	 * and the path from a to c is a, b, c. */
+	public void test20BidirectionalDirected() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		AdjacencyListGraph<String, Integer>.Node d= g.addNode("d");
+		g.addEdge(a, b, 1);
+		g.addEdge(b, c, 1);
+		g.addEdge(c, a, 1);
+		g.addEdge(a, c, 5);
+		assertEquals("[c, a, b]", GraphAlgorithms.bidirectionalShortestPath(c, b).toString());
+		assertEquals("[a, b, c]", GraphAlgorithms.bidirectionalShortestPath(a, c).toString());
+		assertEquals("[b]", GraphAlgorithms.bidirectionalShortestPath(b, b).toString());
+		assertEquals("[]", GraphAlgorithms.bidirectionalShortestPath(a, d).toString());
+		assertEquals("[]", GraphAlgorithms.bidirectionalShortestPath(d, a).toString());
+	}
+
+	@Test
+	/** Test all A* shortest paths on the maps with distance files, <br>
+	 * with the Euclidean heuristic and with a heuristic that is always 0. */
+	public void test30Astar() {
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Adapter a= new Adapter(g);
+			ToDoubleBiFunction<Adapter.Node, Adapter.Node> h= a.euclideanHeuristic();
+			checkAllShortestPaths(pd, (u, v) -> unwrap(
+				GraphAlgorithms.astar(a.wrap(u), a.wrap(v), h)));
+			checkAllShortestPaths(pd, (u, v) -> unwrap(
+				GraphAlgorithms.astar(a.wrap(u), a.wrap(v), (x, y) -> 0)));
+		}
+	}
+
+	@Test
+	/** The Euclidean heuristic never overestimates the length of an edge. */
+	public void test40EuclideanAdmissible() {
+		Graph g= TestGraphs.getGraph("info/Maps/seed128.txt");
+		Adapter a= new Adapter(g);
+		ToDoubleBiFunction<Adapter.Node, Adapter.Node> h= a.euclideanHeuristic();
+		for (EdgeData e : g.getEdges()) {
+			double d= h.applyAsDouble(a.wrap(e.getFirstExit()), a.wrap(e.getSecondExit()));
+			assertTrue(d <= e.length);
+		}
+	}
+
+	@Test
+	/** Test all landmark (ALT) shortest paths on the maps with distance files, <br>
+	 * both with freshly selected landmarks and after a save/load round trip <br>
+	 * into a separately compiled copy of the graph. */
+	public void test50Landmarks() throws IOException {
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Adapter a= new Adapter(g);
+			Landmarks<Adapter.Node, Adapter.Edge> lm= Landmarks.select(CompiledGraph.compile(a), 4);
+			checkAllShortestPaths(pd, (u, v) -> unwrap(
+				GraphAlgorithms.shortestPath(lm, a.wrap(u), a.wrap(v))));
+
+			ByteArrayOutputStream out= new ByteArrayOutputStream();
+			lm.save(out);
+			Landmarks<Adapter.Node, Adapter.Edge> loaded= Landmarks.load(
+				new ByteArrayInputStream(out.toByteArray()), CompiledGraph.compile(a));
+			assertEquals(lm.size(), loaded.size());
+			checkAllShortestPaths(pd, (u, v) -> unwrap(
+				GraphAlgorithms.shortestPath(loaded, a.wrap(u), a.wrap(v))));
+		}
+	}
+
+	@Test
+	/** Landmark bounds on a directed graph: a -1-> b -1-> c, d isolated. */
+	public void test60LandmarksDirected() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		AdjacencyListGraph<String, Integer>.Node d= g.addNode("d");
+		g.addEdge(a, b, 1);
+		g.addEdge(b, c, 1);
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		Landmarks<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> lm=
+			Landmarks.select(cg, 3);
+		assertEquals("[a, b, c]", GraphAlgorithms.shortestPath(lm, a, c).toString());
+		assertEquals("[]", GraphAlgorithms.shortestPath(lm, c, a).toString());
+		assertEquals("[]", GraphAlgorithms.shortestPath(lm, a, d).toString());
+		assertTrue(lm.lowerBound(cg.id(a), cg.id(c)) <= 2);
+	}
+
+	@Test
+	/** Asked for more landmarks than would help, select chooses each node at <br>
+	 * most once and stops when no other node is farther than 0 from them. */
+	public void test65LandmarksFewerThanK() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		g.addEdge(a, b, 2);
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		Landmarks<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> lm=
+			Landmarks.select(cg, 10);
+		assertEquals(3, lm.size());
+		HashSet<Integer> ids= new HashSet<>();
+		for (int i= 0; i < lm.size(); i= i + 1) ids.add(lm.landmark(i));
+		assertEquals(3, ids.size());
+		assertEquals("[a, b]", GraphAlgorithms.shortestPath(lm, a, b).toString());
+		assertEquals("[]", GraphAlgorithms.shortestPath(lm, a, c).toString());
+
+		g.addEdge(b, c, 0);
+		g.addEdge(c, b, 0);
+		cg= CompiledGraph.compile(g);
+		lm= Landmarks.select(cg, 10);
+		assertEquals(2, lm.size());
+		assertTrue(lm.landmark(0) != lm.landmark(1));
+		assertEquals("[a, b, c]", GraphAlgorithms.shortestPath(lm, a, c).toString());
+	}
+
+	@Test
+	/** load throws an IOException, not a runtime exception, when the saved <br>
+	 * number of landmarks or a saved landmark id is out of range. */
+	public void test66LandmarksLoadCorrupt() throws IOException {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		g.addEdge(a, b, 1);
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		ByteArrayOutputStream out= new ByteArrayOutputStream();
+		Landmarks.select(cg, 1).save(out);
+		byte[] saved= out.toByteArray();
+		Landmarks.load(new ByteArrayInputStream(saved), cg);
+
+		// the count of landmarks is at offset 8, the first landmark id after
+		// the two names "a" and "b" (2 bytes of length and 1 of text each)
+		for (int[] patch : new int[][] { { 8, -1 }, { 8, 3 }, { 8, Integer.MAX_VALUE }, { 18, 2 }, { 18, -1 } }) {
+			byte[] bad= saved.clone();
+			for (int i= 0; i < 4; i= i + 1)
+				bad[patch[0] + i]= (byte) (patch[1] >>> (24 - 8 * i));
+			try {
+				Landmarks.load(new ByteArrayInputStream(bad), cg);
+				fail("loaded landmarks with " + patch[1] + " at offset " + patch[0]);
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	@Test
+	/** Test all contraction-hierarchy shortest paths on the maps with distance <br>
+	 * files, with a new workspace per query and with one workspace reused <br>
+	 * (and grown) across all queries of all maps. */
+	public void test70ContractionHierarchy() {
+		ContractionHierarchy.Workspace ws= new ContractionHierarchy.Workspace();
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Adapter a= new Adapter(g);
+			ContractionHierarchy<Adapter.Node, Adapter.Edge> ch=
+				ContractionHierarchy.build(CompiledGraph.compile(a));
+			checkAllShortestPaths(pd, (u, v) -> unwrap(ch.shortestPath(a.wrap(u), a.wrap(v))));
+			checkAllShortestPaths(pd, (u, v) -> unwrap(ch.shortestPath(a.wrap(u), a.wrap(v), ws)));
+		}
+	}
+
+	@Test
+	/** A contraction hierarchy must follow edge directions and expand shortcuts: <br>
+	 * on the cycle a -1-> b -1-> c -1-> a plus a -5-> c, the path from c to b <br>
+	 * is c, a, b and the path from a to c is a, b, c. */
+	public void test80ContractionHierarchyDirected() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		AdjacencyListGraph<String, Integer>.Node d= g.addNode("d");
+		g.addEdge(a, b, 1);
+		g.addEdge(b, c, 1);
+		g.addEdge(c, a, 1);
+		g.addEdge(a, c, 5);
+		ContractionHierarchy<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> ch=
+			ContractionHierarchy.build(CompiledGraph.compile(g));
+		assertEquals("[c, a, b]", ch.shortestPath(c, b).toString());
+		assertEquals("[a, b, c]", ch.shortestPath(a, c).toString());
+		assertEquals("[b, c, a]", ch.shortestPath(b, a).toString());
+		assertEquals("[b]", ch.shortestPath(b, b).toString());
+		assertEquals("[]", ch.shortestPath(a, d).toString());
+		assertEquals("[]", ch.shortestPath(d, a).toString());
+	}
+
+	@Test
+	/** Test the shortest-path tree of every node of the maps with distance files: <br>
+	 * one search per source instead of one per pair, all in one workspace that <br>
+	 * is reused across sources and maps of different sizes. Also check the <br>
+	 * trees built directly from a node. */
+	public void test90ShortestPathTree() {
+		SearchWorkspace ws= new SearchWorkspace();
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Adapter a= new Adapter(g);
+			CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+			for (int r= 0; r < pd.size; r= r + 1) {
+				ShortestPathTree<Adapter.Node, Adapter.Edge> tree=
+					GraphAlgorithms.shortestPathTree(cg, a.wrap(pd.nodes[r]), ws);
+				ShortestPathTree<Adapter.Node, Adapter.Edge> fresh=
+					GraphAlgorithms.shortestPathTree(a.wrap(pd.nodes[r]));
+				for (int c= 0; c < pd.size; c= c + 1) {
+					Adapter.Node v= a.wrap(pd.nodes[c]);
+					assertEquals(pd.dist[r][c], (int) tree.distance(v));
+					assertEquals(pd.dist[r][c], (int) fresh.distance(v));
+					List<NodeData> list= unwrap(tree.pathTo(v));
+					assertEquals(pd.dist[r][c], TestGraphs.pathSum(list));
+					assertEquals(pd.nodes[r], list.get(0));
+					assertEquals(pd.nodes[c], list.get(list.size() - 1));
+				}
+				assertEquals(-1, tree.parent(tree.source()));
+				assertEquals(cg.size(), tree.size());
+			}
+		}
+	}
+
+	@Test
+	/** Shortest-path trees on a directed graph: a -1-> b -1-> c, a -5-> c, d isolated. */
+	public void test95ShortestPathTreeDirected() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		AdjacencyListGraph<String, Integer>.Node d= g.addNode("d");
+		g.addEdge(a, b, 1);
+		g.addEdge(b, c, 1);
+		g.addEdge(a, c, 5);
+		ShortestPathTree<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> tree=
+			GraphAlgorithms.shortestPathTree(a);
+		assertEquals(3, tree.size());
+		assertEquals("[a, b, c]", tree.pathTo(c).toString());
+		assertEquals("[]", tree.pathTo(d).toString());
+		assertTrue(tree.distance(c) == 2);
+		assertTrue(tree.distance(d) == Double.POSITIVE_INFINITY);
+
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		SearchWorkspace ws= new SearchWorkspace(cg.size());
+		tree= GraphAlgorithms.shortestPathTree(cg, c, ws);
+		assertEquals(1, tree.size());
+		assertEquals("[c]", tree.pathTo(c).toString());
+		assertEquals("[]", tree.pathTo(a).toString());
+		assertEquals("[a, b, c]", GraphAlgorithms.shortestPath(cg, a, c, ws).toString());
+		assertEquals("[]", GraphAlgorithms.shortestPath(cg, c, a, ws).toString());
+	}
+
+	@Test
+	/** SearchStats counts the work of each kind of search, and SearchMetrics <br>
+	 * adds it up and shows it through JMX. */
+	public void test96SearchStats() throws JMException {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		g.addNode("d");
+		g.addEdge(a, b, 1);
+		g.addEdge(b, c, 1);
+		g.addEdge(a, c, 5);
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+
+		SearchMetrics metrics= SearchMetrics.register("AlgorithmsTester");
+		try {
+			SearchStats stats= new SearchStats(metrics);
+			assertEquals("[a, b, c]", GraphAlgorithms.shortestPath(a, c, stats).toString());
+			checkStats(stats);
+			assertEquals("[a, b, c]",
+				GraphAlgorithms.shortestPath(cg, a, c, new SearchWorkspace(), stats).toString());
+			checkStats(stats);
+			GraphAlgorithms.shortestPathTree(cg, a, new SearchWorkspace(), stats);
+			checkStats(stats);
+
+			assertEquals(3, metrics.getQueries());
+			assertEquals(9, metrics.getSettled());
+			assertEquals(3, metrics.getDecreaseKeys());
+			assertEquals(2, metrics.getPeakFrontier());
+			assertEquals(3, metrics.getRelaxedHistogram()[1]);
+			assertEquals(3L, ManagementFactory.getPlatformMBeanServer().getAttribute(
+				new ObjectName("a5:type=SearchMetrics,name=\"AlgorithmsTester\""), "Queries"));
+			metrics.reset();
+			assertEquals(0, metrics.getQueries());
+			assertEquals(0, metrics.getMedianMicros());
+		} finally {
+			metrics.unregister();
+		}
+	}
+
+	/** Check the stats of a search from a to c in the graph of test96SearchStats. */
+	private static void checkStats(SearchStats stats) {
+		assertEquals(3, stats.settled());
+		assertEquals(3, stats.polls());
+		assertEquals(3, stats.relaxed());
+		assertEquals(3, stats.pushes());
+		assertEquals(1, stats.decreaseKeys());
+		assertEquals(2, stats.peakFrontier());
+		assertTrue(stats.nanos() > 0);
+	}
+
+	@Test
+	/** Graph.adapter() is shared, and its wrappers and edge maps are made once: <br>
+	 * wrapping a node or asking for its edges twice gives the same objects, <br>
+	 * the maps cannot be changed, and they agree with the node's exits. */
+	public void test97AdapterCaches() {
+		Graph g= TestGraphs.getGraph("info/Maps/seed128.txt");
+		Adapter a= g.adapter();
+		assertTrue(a == g.adapter());
+		for (NodeData n : g.getNodes()) {
+			Adapter.Node u= a.wrap(n);
+			assertTrue(u == a.wrap(n));
+			assertTrue(u.outgoing() == u.outgoing());
+			assertEquals(n.getExitsSize(), u.outgoing().size());
+			assertEquals(n.getExitsSize(), u.incoming().size());
+			for (Adapter.Node v : u.outgoing().keySet()) {
+				assertTrue(v == a.wrap(v.impl()));
+				assertTrue(u.outgoing().get(v) == v.incoming().get(u));
+				assertEquals(n.getEdge(v.impl()).length, (int) u.outgoing().get(v).label());
+			}
+		}
+		Adapter.Node u= a.wrap(g.getNode("Topeka"));
+		try {
+			u.outgoing().clear();
+			fail("outgoing() can be modified");
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	@Test
+	/** The compiled searches pick a DialQueue, a RadixHeap or an IntDaryHeap <br>
+	 * for their frontier by the edge weights; whichever they pick, with one <br>
+	 * workspace for all, they find the distances Dijkstra's algorithm on the <br>
+	 * Node maps does. */
+	public void test98MonotoneFrontiers() {
+		Random r= new Random(98);
+		SearchWorkspace ws= new SearchWorkspace();
+		for (int maxWeight : new int[] { 1, 60, 1024, 1025, 1000000 }) {
+			AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+			List<AdjacencyListGraph<String, Integer>.Node> nodes= new ArrayList<>();
+			for (int i= 0; i < 200; i= i + 1)
+				nodes.add(g.addNode("n" + i));
+			for (int i= 0; i < 800; i= i + 1) {
+				AdjacencyListGraph<String, Integer>.Node u= nodes.get(r.nextInt(nodes.size()));
+				AdjacencyListGraph<String, Integer>.Node v= nodes.get(r.nextInt(nodes.size()));
+				if (u != v && !u.outgoing().containsKey(v))
+					g.addEdge(u, v, r.nextInt(maxWeight + 1));
+			}
+			CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+				CompiledGraph.compile(g);
+			for (int q= 0; q < 50; q= q + 1) {
+				AdjacencyListGraph<String, Integer>.Node s= nodes.get(r.nextInt(nodes.size()));
+				AdjacencyListGraph<String, Integer>.Node t= nodes.get(r.nextInt(nodes.size()));
+				assertEquals(weight(GraphAlgorithms.shortestPath(s, t)),
+					weight(GraphAlgorithms.shortestPath(cg, s, t, ws)));
+				ShortestPathTree<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> tree=
+					GraphAlgorithms.shortestPathTree(cg, s, ws);
+				assertTrue(tree.distance(t) == (tree.pathTo(t).isEmpty()
+					? Double.POSITIVE_INFINITY : weight(tree.pathTo(t))));
+			}
+		}
+	}
+
+	@Test
+	/** mayReach never says no when there is a path: on the graph itself as <br>
+	 * edges are added and removed, and on a compiled snapshot, where it is <br>
+	 * exact once every edge has a reverse edge and an unreachable end is <br>
+	 * answered without settling any node. */
+	public void test99Reachability() {
+		Random r= new Random(99);
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		List<AdjacencyListGraph<String, Integer>.Node> nodes= new ArrayList<>();
+		for (int i= 0; i < 60; i= i + 1) {
+			nodes.add(g.addNode("n" + i));
+			for (int k= 0; k < 2; k= k + 1) {
+				AdjacencyListGraph<String, Integer>.Node u= nodes.get(r.nextInt(nodes.size()));
+				AdjacencyListGraph<String, Integer>.Node v= nodes.get(r.nextInt(nodes.size()));
+				if (u != v && !u.outgoing().containsKey(v))
+					g.addEdge(u, v, 1);
+			}
+			if (i % 10 == 9)
+				g.edges().iterator().next().remove();
+			checkReachability(g, nodes);
+		}
+
+		// with both directions of every edge, reachability is connectivity
+		for (AdjacencyListGraph<String, Integer>.Edge e : new ArrayList<>(g.edges()))
+			if (!e.target().outgoing().containsKey(e.source()))
+				g.addEdge(e.target(), e.source(), 1);
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		for (AdjacencyListGraph<String, Integer>.Node u : nodes) {
+			List<AdjacencyListGraph<String, Integer>.Node> reached= GraphAlgorithms.dfs(u);
+			for (AdjacencyListGraph<String, Integer>.Node v : nodes) {
+				assertEquals(reached.contains(v), g.mayReach(u, v));
+				assertEquals(reached.contains(v), cg.mayReach(cg.id(u), cg.id(v)));
+				assertEquals(reached.contains(v), cg.weakComponent(cg.id(u)) == cg.weakComponent(cg.id(v)));
+			}
+		}
+
+		AdjacencyListGraph<String, Integer>.Node lone= g.addNode("lone");
+		cg= CompiledGraph.compile(g);
+		SearchStats stats= new SearchStats();
+		assertEquals(0, GraphAlgorithms.shortestPath(cg, nodes.get(0), lone, new SearchWorkspace(), stats).size());
+		assertEquals(0, stats.settled());
+
+		// the Node searches ask the graph's index too: against an edge's
+		// direction, to another weak component, and on a gui.Graph
+		AdjacencyListGraph<String, Integer>.Node from= g.addNode("from");
+		g.addEdge(from, lone, 1);
+		List<AdjacencyListGraph<String, Integer>.Node> ends= new ArrayList<>();
+		ends.add(from);
+		ends.add(nodes.get(0));
+		for (AdjacencyListGraph<String, Integer>.Node end : ends) {
+			stats= new SearchStats();
+			assertEquals(0, GraphAlgorithms.shortestPath(lone, end, stats).size());
+			assertEquals(0, stats.settled());
+			assertEquals(0, GraphAlgorithms.bidirectionalShortestPath(lone, end).size());
+		}
+		assertEquals("[from, lone]", GraphAlgorithms.shortestPath(from, lone).toString());
+		Graph two= TestGraphs.getGraph("info/Maps/TwoNodeNoEdge.txt");
+		Adapter a= two.adapter();
+		stats= new SearchStats();
+		assertEquals(0, GraphAlgorithms.shortestPath(a.wrap(two.getNode(0)), a.wrap(two.getNode(1)), stats).size());
+		assertEquals(0, stats.settled());
+	}
+
+	/** Check that g.mayReach(u, v) and the mayReach of a snapshot of g are <br>
+	 * true for all nodes u, v of nodes such that v is reachable from u. */
+	private static void checkReachability(AdjacencyListGraph<String, Integer> g,
+		List<AdjacencyListGraph<String, Integer>.Node> nodes) {
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		for (AdjacencyListGraph<String, Integer>.Node u : nodes) {
+			for (AdjacencyListGraph<String, Integer>.Node v : GraphAlgorithms.dfs(u)) {
+				assertTrue(g.mayReach(u, v));
+				assertTrue(cg.mayReach(cg.id(u), cg.id(v)));
+				assertEquals(cg.strongComponent(cg.id(u)) == cg.strongComponent(cg.id(v)),
+					GraphAlgorithms.dfs(v).contains(u));
+			}
+		}
+	}
+
+	/** Return the sum of the weights of the edges of path. */
+	private static int weight(List<AdjacencyListGraph<String, Integer>.Node> path) {
+		int sum= 0;
+		for (int i= 1; i < path.size(); i= i + 1)
+			sum= sum + path.get(i - 1).outgoing().get(path.get(i)).label();
+		return sum;
+	}
+
+	/** Return the NodeDatas wrapped by the nodes of path. */
+	static List<NodeData> unwrap(List<Adapter.Node> path) {
+		List<NodeData> result= new ArrayList<>();
+		for (Adapter.Node n : path)
+			result.add(n.impl());
+		return result;
+	}
+
+	/** Check that search finds, from each node to each node of pd, a path <br>
+	 * with the correct endpoints and the distance given in pd. */
+	static void checkAllShortestPaths(PathData pd,
+		BiFunction<NodeData, NodeData, List<NodeData>> search) {
+		for (int r= 0; r < pd.size; r= r + 1) {
+			for (int c= 0; c < pd.size; c= c + 1) {
+				List<NodeData> list= search.apply(pd.nodes[r], pd.nodes[c]);
+				assertEquals(pd.dist[r][c], TestGraphs.distance(list));
+				if (list.size() > 0) {
+					assertEquals(pd.nodes[r], list.get(0));
+					assertEquals(pd.nodes[c], list.get(list.size() - 1));
+				}
+			}
+		}
+	}
+}
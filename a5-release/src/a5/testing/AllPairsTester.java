@@ -0,0 +1,127 @@
+package a5.testing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import a5.AllPairs;
+import graph.AdjacencyListGraph;
+import graph.CompiledGraph;
+import gui.Adapter;
+import gui.Graph;
+
+/** Checks the distance matrices of AllPairs against the reference <br>
+ * distances in info/Maps and on a small directed graph. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class AllPairsTester {
+
+	/** The maps with a distances file. */
+	private static final String[] MAPS= { "TestBoard1", "Seed16", "Board3", "TestBoard2", "seed128" };
+
+	@Test
+	/** Both algorithms, on one thread and on several, give the distances in the files. */
+	public void test10Maps() {
+		ForkJoinPool one= new ForkJoinPool(1);
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Adapter a= new Adapter(g);
+			CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+			checkMatrix(pd, a, cg, AllPairs.dijkstra(cg));
+			checkMatrix(pd, a, cg, AllPairs.dijkstra(cg, one));
+			checkMatrix(pd, a, cg, AllPairs.floydWarshall(cg));
+		}
+		one.shutdown();
+	}
+
+	@Test
+	/** Directed edges, unreachable pairs, and more nodes than one Floyd-Warshall <br>
+	 * tile: a directed path 0 -> 1 -> ... -> 149 with weight 2 per edge, <br>
+	 * a shortcut 0 -> 100 of weight 5, and an isolated node. */
+	public void test20Directed() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		List<AdjacencyListGraph<String, Integer>.Node> n= new ArrayList<>();
+		for (int k= 0; k < 151; k= k + 1) n.add(g.addNode("n" + k));
+		for (int k= 0; k + 1 < 150; k= k + 1) g.addEdge(n.get(k), n.get(k + 1), 2);
+		g.addEdge(n.get(0), n.get(100), 5);
+
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		int[][] d= AllPairs.dijkstra(cg);
+		int[][] fw= AllPairs.floydWarshall(cg);
+		for (int r= 0; r < cg.size(); r= r + 1) assertArrayEquals(d[r], fw[r]);
+
+		assertEquals(5, d[cg.id(n.get(0))][cg.id(n.get(100))]);
+		assertEquals(5 + 2 * 49, d[cg.id(n.get(0))][cg.id(n.get(149))]);
+		assertEquals(2 * 99, d[cg.id(n.get(1))][cg.id(n.get(100))]);
+		assertEquals(AllPairs.UNREACHABLE, d[cg.id(n.get(100))][cg.id(n.get(0))]);
+		assertEquals(AllPairs.UNREACHABLE, d[cg.id(n.get(0))][cg.id(n.get(150))]);
+		assertEquals(0, d[cg.id(n.get(150))][cg.id(n.get(150))]);
+	}
+
+	@Test
+	/** A written matrix is read back by PathData.readFile. */
+	public void test30WriteRead() throws IOException {
+		Graph g= TestGraphs.getGraph("info/Maps/TestBoard2.txt");
+		Adapter a= new Adapter(g);
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+		int[][] d= AllPairs.dijkstra(cg);
+		StringWriter out= new StringWriter();
+		AllPairs.write(cg, d, out);
+
+		PathData pd= new PathData(new String[0], new int[0][0], g);
+		pd.readFile(new BufferedReader(new StringReader(out.toString())));
+		assertEquals(cg.size(), pd.size);
+		for (int r= 0; r < pd.size; r= r + 1) {
+			assertEquals(cg.node(r).toString(), pd.names[r]);
+			assertArrayEquals(d[r], pd.dist[r]);
+		}
+	}
+
+	@Test
+	/** Unreachable pairs are written as PathData.NO_PATH and read back as such, <br>
+	 * and a search between them finds no path. */
+	public void test40WriteReadUnreachable() throws IOException {
+		Graph g= TestGraphs.getGraph("info/Maps/TwoNodeNoEdge.txt");
+		Adapter a= new Adapter(g);
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+		int[][] d= AllPairs.dijkstra(cg);
+		assertEquals(AllPairs.UNREACHABLE, d[0][1]);
+		StringWriter out= new StringWriter();
+		AllPairs.write(cg, d, out);
+
+		PathData pd= new PathData(new String[0], new int[0][0], g);
+		pd.readFile(new BufferedReader(new StringReader(out.toString())));
+		pd= new PathData(pd.names, pd.dist, g);
+		assertEquals(2, pd.size);
+		assertEquals(0, pd.dist[0][0]);
+		assertEquals(PathData.NO_PATH, pd.dist[0][1]);
+		assertEquals(PathData.NO_PATH, pd.dist[1][0]);
+		checkMatrix(pd, a, cg, d);
+		AlgorithmsTester.checkAllShortestPaths(pd, Adapter::shortest);
+	}
+
+	/** Check that dist, a distance matrix of cg, agrees with pd, where an <br>
+	 * UNREACHABLE pair has distance NO_PATH. */
+	private static void checkMatrix(PathData pd, Adapter a,
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg, int[][] dist) {
+		for (int r= 0; r < pd.size; r= r + 1) {
+			for (int c= 0; c < pd.size; c= c + 1) {
+				int u= cg.id(a.wrap(pd.nodes[r]));
+				int v= cg.id(a.wrap(pd.nodes[c]));
+				assertEquals(pd.dist[r][c], dist[u][v] == AllPairs.UNREACHABLE ? PathData.NO_PATH : dist[u][v]);
+			}
+		}
+	}
+}
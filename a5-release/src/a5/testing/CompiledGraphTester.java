@@ -0,0 +1,71 @@
+package a5.testing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import a5.GraphAlgorithms;
+import graph.CompiledGraph;
+import gui.Adapter;
+import gui.Graph;
+
+/** Runs the shortest-path checks of PathsTester against a CompiledGraph. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CompiledGraphTester {
+
+	@Test
+	/** Compiling a board keeps every node and both directions of every edge. */
+	public void test10CompileSizes() {
+		Graph g= TestGraphs.getGraph("info/Maps/Board3.txt");
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(new Adapter(g));
+		assertEquals(g.getNodesSize(), cg.size());
+		assertEquals(2 * g.getEdgesSize(), cg.edgeCount());
+	}
+
+	@Test
+	/** Paths on a board without edges: 1-node path to itself, empty path elsewhere. */
+	public void test20NoEdges() {
+		Graph g= TestGraphs.getGraph("info/Maps/TwoNodeNoEdge.txt");
+		Adapter a= new Adapter(g);
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+		Adapter.Node n= a.wrap(g.getNode("Ithaca"));
+		Adapter.Node n1= a.wrap(g.getNode("Truck Depot"));
+		assertEquals(1, GraphAlgorithms.shortestPath(cg, n, n).size());
+		assertEquals(0, GraphAlgorithms.shortestPath(cg, n, n1).size());
+		assertEquals(1, GraphAlgorithms.dfs(cg, n).size());
+	}
+
+	@Test
+	/** dfs on the compiled graph reaches the same nodes as dfs on the Adapter. */
+	public void test30Dfs() {
+		Graph g= TestGraphs.getGraph("info/Maps/TestBoard2.txt");
+		Adapter a= new Adapter(g);
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+		Adapter.Node n= a.wrap(g.getNode("Rochester"));
+		List<Adapter.Node> compiled= GraphAlgorithms.dfs(cg, n);
+		assertEquals(new HashSet<>(GraphAlgorithms.dfs(n)), new HashSet<>(compiled));
+		assertEquals(compiled.size(), new HashSet<>(compiled).size());
+	}
+
+	@Test
+	/** Test all shortest paths on map seeded with 128 */
+	public void test40MapSeeded128() {
+		Graph g= TestGraphs.getGraph("info/Maps/seed128.txt");
+		PathData pd= new PathData("info/Maps/seed128distances.txt", g);
+		checkAllShortestPaths(g, pd);
+	}
+
+	/** Check the shortest paths computed on the compiled version of g <br>
+	 * against the distances in pd. */
+	private static void checkAllShortestPaths(Graph g, PathData pd) {
+		Adapter a= new Adapter(g);
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(a);
+		AlgorithmsTester.checkAllShortestPaths(pd, (u, v) -> AlgorithmsTester.unwrap(
+			GraphAlgorithms.shortestPath(cg, a.wrap(u), a.wrap(v))));
+	}
+}
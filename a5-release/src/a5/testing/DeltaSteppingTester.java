@@ -0,0 +1,117 @@
+package a5.testing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import a5.DeltaStepping;
+import a5.GraphAlgorithms;
+import a5.SearchWorkspace;
+import a5.ShortestPathTree;
+import graph.AdjacencyListGraph;
+import graph.CompiledGraph;
+import graph.LabeledEdge;
+import graph.Node;
+import gui.Adapter;
+import gui.Graph;
+
+/** Checks the distances of DeltaStepping against those of Dijkstra's <br>
+ * algorithm, for several bucket widths, on one thread and on several. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DeltaSteppingTester {
+
+	/** The maps that are searched. */
+	private static final String[] MAPS= { "TestBoard1", "Seed16", "Board3", "TestBoard2", "seed128" };
+
+	@Test
+	/** From every node of every map, with the default delta and others. */
+	public void test10Maps() {
+		ForkJoinPool one= new ForkJoinPool(1);
+		ForkJoinPool four= new ForkJoinPool(4);
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(g.adapter());
+			for (int delta : new int[] { DeltaStepping.defaultDelta(cg), 1, 20, 1000 }) {
+				DeltaStepping<Adapter.Node, Adapter.Edge> ds= DeltaStepping.of(cg, delta);
+				for (int s= 0; s < cg.size(); s= s + 1) {
+					checkDistances(cg, s, ds.distances(cg.node(s), one));
+					checkDistances(cg, s, ds.distances(cg.node(s), four));
+				}
+			}
+		}
+		one.shutdown();
+		four.shutdown();
+	}
+
+	@Test
+	/** A random directed graph big enough for the rounds to be split into <br>
+	 * parallel tasks, with zero weights, unreachable nodes and a node not <br>
+	 * in the graph. */
+	public void test20RandomDirected() {
+		Random r= new Random(20);
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		List<AdjacencyListGraph<String, Integer>.Node> n= new ArrayList<>();
+		for (int k= 0; k < 5000; k= k + 1) n.add(g.addNode("n" + k));
+		for (int k= 0; k < 40000; k= k + 1) {
+			AdjacencyListGraph<String, Integer>.Node u= n.get(r.nextInt(n.size()));
+			AdjacencyListGraph<String, Integer>.Node v= n.get(r.nextInt(n.size()));
+			if (u != v && !u.outgoing().containsKey(v)) g.addEdge(u, v, r.nextInt(100));
+		}
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		ForkJoinPool four= new ForkJoinPool(4);
+		for (int delta : new int[] { 1, 7, DeltaStepping.defaultDelta(cg), 99, 100 }) {
+			DeltaStepping<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> ds=
+				DeltaStepping.of(cg, delta);
+			for (int s= 0; s < 5; s= s + 1) {
+				checkDistances(cg, s, ds.distances(cg.node(s), four));
+			}
+		}
+		four.shutdown();
+
+		AdjacencyListGraph<String, Integer> other= new AdjacencyListGraph<>();
+		int[] none= DeltaStepping.of(cg).distances(other.addNode("x"));
+		for (int d : none) assertEquals(DeltaStepping.UNREACHABLE, d);
+	}
+
+	@Test
+	/** delta must be positive and weights non-negative. */
+	public void test30BadArguments() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		g.addEdge(g.addNode("a"), g.addNode("b"), -1);
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		try {
+			DeltaStepping.of(cg);
+			fail("negative weight accepted");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			DeltaStepping.of(CompiledGraph.compile(new AdjacencyListGraph<String, Integer>()), 0);
+			fail("delta 0 accepted");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/** Check that dist are the distances from node s of g that Dijkstra's <br>
+	 * algorithm finds. */
+	static <N extends Node<N, E>, E extends LabeledEdge<N, E, Integer>> void checkDistances(
+		CompiledGraph<N, E> g, int s, int[] dist) {
+		ShortestPathTree<N, E> tree= GraphAlgorithms.shortestPathTree(g, g.node(s), new SearchWorkspace());
+		int[] expected= new int[g.size()];
+		for (int v= 0; v < expected.length; v= v + 1) {
+			double d= tree.distance(v);
+			expected[v]= d == Double.POSITIVE_INFINITY ? DeltaStepping.UNREACHABLE : (int) d;
+		}
+		assertArrayEquals(expected, dist);
+	}
+}
@@ -0,0 +1,380 @@
+package a5.testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import gui.Adapter;
+import gui.EdgeData;
+import gui.Graph;
+import gui.Line;
+import gui.NodeData;
+import gui.TextIO;
+
+/** Checks the indexes that gui.Graph and gui.NodeData keep <br>
+ * on loaded and on randomly generated graphs. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class GraphTester {
+
+	@Test
+	/** getNode(name) and getNode(id) find every node; ids are 0..n-1. */
+	public void test10NodeIndex() {
+		checkNodeIndex(TestGraphs.getGraph("info/Maps/seed128.txt"));
+		checkNodeIndex(TestGraphs.getGraph("info/Maps/TestBoard2.txt"));
+		checkNodeIndex(Graph.randomBoard(16));
+	}
+
+	@Test
+	/** getEdge and isConnectedTo agree with the exits of every node, <br>
+	 * on loaded and generated graphs. */
+	public void test20NeighborIndex() {
+		checkNeighbors(TestGraphs.getGraph("info/Maps/seed128.txt"));
+		checkNeighbors(Graph.randomBoard(16));
+	}
+
+	@Test
+	/** The streaming loader reads every map the same as the JSONObject loader, <br>
+	 * and accepts edges that come before their nodes. */
+	public void test30StreamingLoader() throws IOException {
+		for (String map : new String[] { "TestBoard1", "Seed16", "Board3", "TestBoard2",
+			"seed128", "OneNodeBoard", "TwoNodeNoEdge", "TwoNodeBoard" }) {
+			File f= new File("info/Maps/" + map + ".txt");
+			Graph streamed= Graph.readJsonGraph(f);
+			Graph parsed= Graph.getJsonGraph(new JSONObject(TextIO.read(f)));
+			checkSameGraph(parsed, streamed);
+			checkNodeIndex(streamed);
+		}
+
+		Graph g= Graph.readJsonGraph(new StringReader("{\"edge-0\":{\"location\":[\"A\",\"B\"]," +
+			"\"length\":7},\"seed\":5,\"node-0\":{\"name\":\"A\",\"x\":10,\"y\":20}," +
+			"\"node-1\":{\"name\":\"B\",\"x\":30,\"y\":40},}"));
+		assertEquals(5, g.seed);
+		assertEquals(2, g.getNodesSize());
+		assertEquals(7, g.getNode("A").getEdge(g.getNode("B")).length);
+	}
+
+	@Test
+	/** Every map in info/Maps loads to the same nodes, and the same edges <br>
+	 * with the same lengths, through getJsonGraph, readJsonGraph and <br>
+	 * parseJsonGraph. */
+	public void test35BothLoaders() throws IOException {
+		int maps= 0;
+		for (File f : new File("info/Maps").listFiles((dir, name) -> name.endsWith(".txt"))) {
+			String text= TextIO.read(f);
+			if (!text.startsWith("{")) continue;	// a distances file
+			maps= maps + 1;
+			Graph parsed= Graph.getJsonGraph(new JSONObject(text));
+			Graph streamed= Graph.readJsonGraph(f);
+			Graph split= Graph.parseJsonGraph(text);
+			assertEquals(names(parsed), names(streamed));
+			assertEquals(edges(parsed), edges(streamed));
+			assertEquals(names(parsed), names(split));
+			assertEquals(edges(parsed), edges(split));
+			assertEquals(parsed.seed, split.seed);
+		}
+		assertEquals(14, maps);
+	}
+
+	@Test
+	/** A large map gives the same graph through all loaders: 5000 nodes <br>
+	 * on a grid, each linked to the next. parseJsonGraph reads it in several <br>
+	 * chunks, on the common pool and on a pool of one thread. */
+	public void test40LargeMapLoaders() {
+		StringBuilder json= new StringBuilder("{\"seed\":-1,\"scoreCoeff\":[]");
+		int n= 5000;
+		for (int k= 0; k < n; k= k + 1) {
+			json.append(",\"node-" + k + "\":{\"name\":\"c" + k + "\",\"x\":" + (k % 100) * 16 +
+				",\"y\":" + (k / 100) * 24 + "}");
+		}
+		for (int k= 0; k + 1 < n; k= k + 1) {
+			json.append(",\"edge-" + k + "\":{\"location\":[\"c" + k + "\",\"c" + (k + 1) +
+				"\"],\"length\":" + (k % 50 + 1) + "}");
+		}
+		json.append("}");
+
+		Graph parsed= Graph.getJsonGraph(new JSONObject(json.toString()));
+		Graph streamed= Graph.readJsonGraph(new StringReader(json.toString()));
+		assertEquals(n, parsed.getNodesSize());
+		assertEquals(n - 1, parsed.getEdgesSize());
+		checkSameGraph(parsed, streamed);
+		checkNodeIndex(parsed);
+
+		ForkJoinPool one= new ForkJoinPool(1);
+		try {
+			for (Graph split : new Graph[] { Graph.parseJsonGraph(json.toString()),
+				Graph.parseJsonGraph(json.toString(), one) }) {
+				checkSameGraph(parsed, split);
+				checkNodeIndex(split);
+			}
+		} finally {
+			one.shutdown();
+		}
+	}
+
+	@Test
+	/** parseJsonGraph accepts edges before their nodes and a trailing ',', <br>
+	 * reads the seed, and rejects malformed text and edges with unknown nodes. */
+	public void test45ParallelLoader() {
+		Graph g= Graph.parseJsonGraph("{\"edge-0\":{\"location\":[\"A\",\"B\"]," +
+			"\"length\":7},\"seed\":5,\"trucks\":[{\"name\":\"}\"}]," +
+			"\"node-0\":{\"name\":\"A\",\"x\":10,\"y\":20}," +
+			"\"node-1\":{\"name\":\"B\",\"x\":30,\"y\":40},}");
+		assertEquals(5, g.seed);
+		assertEquals(2, g.getNodesSize());
+		assertEquals(7, g.getNode("A").getEdge(g.getNode("B")).length);
+		assertEquals(-1, Graph.parseJsonGraph("{}").seed);
+
+		for (String bad : new String[] { "", "[]", "{\"node-0\":{\"name\":\"A\",\"x\":1,\"y\":2}",
+			"{\"node-0\" {\"name\":\"A\",\"x\":1,\"y\":2}}", "{\"node-0\":{\"name\":\"A\"}}",
+			"{\"node-0\":{\"name\":\"A\",\"x\":1,\"y\":2},\"edge-0\":{\"location\":[\"A\",\"C\"]," +
+				"\"length\":3}}" }) {
+			try {
+				Graph.parseJsonGraph(bad);
+				fail("parsed " + bad);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	/** writeJSON, plain or gzipped, and toJSONString give back the same graph <br>
+	 * through both loaders; names that need escaping survive the trip. */
+	public void test50WriteJSON() throws IOException {
+		for (Graph g : new Graph[] { TestGraphs.getGraph("info/Maps/seed128.txt"),
+			Graph.getJsonGraph(new JSONObject("{\"seed\":3,\"scoreCoeff\":[],\"node-0\":{\"name\":\"Say \\\"hi\\\"\"," +
+				"\"x\":10,\"y\":20},\"node-1\":{\"name\":\"back\\\\slash\",\"x\":30,\"y\":40}," +
+				"\"edge-0\":{\"location\":[\"Say \\\"hi\\\"\",\"back\\\\slash\"],\"length\":9}}")) }) {
+			checkSameGraph(g, Graph.getJsonGraph(new JSONObject(g.toJSONString())));
+			checkSameGraph(g, Graph.readJsonGraph(new StringReader(g.toJSONString())));
+			for (boolean gzip : new boolean[] { false, true }) {
+				File f= File.createTempFile("graph", gzip ? ".txt.gz" : ".txt");
+				try {
+					g.writeJSON(f, gzip);
+					checkSameGraph(g, Graph.readJsonGraph(f));
+				} finally {
+					f.delete();
+				}
+			}
+		}
+	}
+
+	@Test
+	/** Large generated boards have the requested number of uniquely named <br>
+	 * nodes, are connected and planar, and depend only on the seed. */
+	public void test60LargeBoard() {
+		Graph g= Graph.randomBoard(7, 300);
+		assertEquals(300, g.getNodesSize());
+		checkNodeIndex(g);
+		checkConnected(g);
+		assertFalse(g.isIntersection());
+		checkSameGraph(g, Graph.randomBoard(7, 300));
+
+		// More nodes than city names
+		Graph big= Graph.randomBoard(11, 20000);
+		assertEquals(20000, big.getNodesSize());
+		assertTrue(big.getEdgesSize() <= 20000 * 5 / 2 + 1);
+		assertTrue(big.getEdgesSize() >= 20000 * 2);
+		checkNodeIndex(big);
+		checkConnected(big);
+	}
+
+	@Test
+	/** Generated boards are connected and planar for many seeds and sizes, <br>
+	 * including boards of a few nodes, whose hull edges the triangulation <br>
+	 * is most likely to miss. */
+	public void test65LargeBoardSeeds() {
+		for (int seed= 0; seed < 300; seed= seed + 1) {
+			int size= 1 + seed % 60;
+			Graph g= Graph.randomBoard(seed, size);
+			assertEquals(size, g.getNodesSize());
+			checkConnected(g);
+			assertFalse(g.isIntersection());
+		}
+	}
+
+	@Test
+	/** getIntersections finds the same crossing pairs as comparing every <br>
+	 * two edges, on boards whose nodes are moved to random places. */
+	public void test70Intersections() {
+		Random r= new Random(70);
+		for (long seed= 0; seed < 8; seed= seed + 1) {
+			Graph g= Graph.randomBoard(seed);
+			assertFalse(g.isIntersection());
+			assertNull(g.getAIntersection());
+			assertEquals(0, g.getIntersections().size());
+
+			for (NodeData n : g.getNodes()) {
+				n.getCircle().setX1(r.nextInt(800));
+				n.getCircle().setY1(r.nextInt(600));
+			}
+			HashSet<String> expected= new HashSet<>();
+			for (EdgeData e : g.getEdges()) {
+				for (EdgeData f : g.getEdges()) {
+					if (e != f && e.getLine().intersects(f.getLine())) expected.add(pair(e, f));
+				}
+			}
+			HashSet<String> found= new HashSet<>();
+			for (EdgeData[] p : g.getIntersections()) {
+				assertTrue(found.add(pair(p[0], p[1])));
+			}
+			assertEquals(expected, found);
+			assertEquals(!expected.isEmpty(), g.isIntersection());
+		}
+	}
+
+	@Test
+	/** A graph has no Circles or Lines until they are asked for; they are then <br>
+	 * made at the nodes' locations, and moving a node moves its circle. */
+	public void test80Headless() {
+		Graph g= Graph.randomBoard(80);
+		NodeData n= g.getNode(0);
+		int x= n.getGUIX(), y= n.getGUIY();
+		n.updateGUILocation(x + 5, y + 7);
+		assertEquals(x + 5, n.getGUIX());
+		assertEquals(y + 7, n.getGUIY());
+
+		EdgeData e= n.getExits().get(0);
+		Line l= e.getLine();
+		assertEquals(e.getFirstExit().getGUIX(), l.getX1());
+		assertEquals(e.getFirstExit().getGUIY(), l.getY1());
+		assertEquals(e.getSecondExit().getGUIX(), l.getX2());
+		assertEquals(e.getSecondExit().getGUIY(), l.getY2());
+		assertSame(l, e.getLine());
+		assertTrue(l.getC1() == n.getCircle() || l.getC2() == n.getCircle());
+
+		n.updateGUILocation(x, y);
+		assertEquals(x, n.getCircle().getX1());
+		assertEquals(y, n.getCircle().getY1());
+		n.getCircle().setX1(x + 1);
+		assertEquals(x + 1, n.getGUIX());
+	}
+
+	@Test
+	/** connected(a, b) tells the components of a map apart, on a loaded map <br>
+	 * and on generated ones, whose generation removes edges. */
+	public void test90Connected() {
+		Graph g= TestGraphs.getGraph("info/Maps/TwoNodeNoEdge.txt");
+		NodeData a= g.getNode("Ithaca"), b= g.getNode("Truck Depot");
+		assertTrue(g.connected(a, a));
+		assertFalse(g.connected(a, b));
+		assertTrue(Adapter.shortest(a, b).isEmpty());
+
+		for (Graph h : new Graph[] { TestGraphs.getGraph("info/Maps/seed128.txt"), Graph.randomBoard(16) }) {
+			checkConnected(h);
+			for (NodeData n : h.getNodes()) {
+				assertTrue(h.connected(h.getNode(0), n));
+			}
+		}
+	}
+
+	/** Return the names of the nodes of g, sorted. */
+	private static List<String> names(Graph g) {
+		List<String> result= new ArrayList<>();
+		for (NodeData n : g.getNodes()) result.add(n.name);
+		Collections.sort(result);
+		return result;
+	}
+
+	/** Return the edges of g as "name-name length", the names in order, sorted. */
+	private static List<String> edges(Graph g) {
+		List<String> result= new ArrayList<>();
+		for (EdgeData e : g.getEdges()) {
+			String a= e.getFirstExit().name, b= e.getSecondExit().name;
+			result.add(a.compareTo(b) < 0 ? a + "-" + b + " " + e.length : b + "-" + a + " " + e.length);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/** Return a name for the unordered pair of edges e and f. */
+	private static String pair(EdgeData e, EdgeData f) {
+		String a= e.toString(), b= f.toString();
+		return a.compareTo(b) < 0 ? a + " / " + b : b + " / " + a;
+	}
+
+	/** Check that every node of g can be reached from its first node. */
+	static void checkConnected(Graph g) {
+		HashSet<NodeData> seen= new HashSet<>();
+		ArrayDeque<NodeData> frontier= new ArrayDeque<>();
+		NodeData first= g.getNode(0);
+		seen.add(first);
+		frontier.add(first);
+		while (!frontier.isEmpty()) {
+			NodeData n= frontier.poll();
+			for (EdgeData e : n.getExits()) {
+				if (seen.add(e.getOther(n))) frontier.add(e.getOther(n));
+			}
+		}
+		assertEquals(g.getNodesSize(), seen.size());
+	}
+
+	/** Check that g and h have the same seed, nodes, locations and edges. */
+	static void checkSameGraph(Graph g, Graph h) {
+		assertEquals(g.seed, h.seed);
+		assertEquals(g.getNodesSize(), h.getNodesSize());
+		assertEquals(g.getEdgesSize(), h.getEdgesSize());
+		for (NodeData n : g.getNodes()) {
+			NodeData m= h.getNode(n.name);
+			assertEquals(n.getGUIX(), m.getGUIX());
+			assertEquals(n.getGUIY(), m.getGUIY());
+			assertEquals(n.getExitsSize(), m.getExitsSize());
+			for (EdgeData e : n.getExits()) {
+				EdgeData f= m.getEdge(h.getNode(e.getOther(n).name));
+				assertEquals(e.length, f.length);
+				assertEquals(e.getFirstExit().getGUIX(), f.getFirstExit().getGUIX());
+				assertEquals(e.getSecondExit().getGUIY(), f.getSecondExit().getGUIY());
+			}
+		}
+	}
+
+	/** Check the name and id index of g. */
+	static void checkNodeIndex(Graph g) {
+		boolean[] seen= new boolean[g.getNodesSize()];
+		for (NodeData n : g.getNodes()) {
+			assertTrue(g.getNode(n.name) == n);
+			assertTrue(g.getNode(n.getId()) == n);
+			assertTrue(!seen[n.getId()]);
+			seen[n.getId()]= true;
+		}
+		assertNull(g.getNode("no such city"));
+	}
+
+	/** Check getEdge and isConnectedTo of every pair of nodes of g against <br>
+	 * a scan of the exits. */
+	static void checkNeighbors(Graph g) {
+		for (NodeData n : g.getNodes()) {
+			for (NodeData m : g.getNodes()) {
+				EdgeData expected= null;
+				for (EdgeData e : n.getExits()) {
+					if (e.getOther(n) == m) {
+						expected= e;
+						break;
+					}
+				}
+				assertTrue(n.getEdge(m) == expected);
+				assertEquals(expected != null && m != n, n.isConnectedTo(m));
+			}
+		}
+	}
+}
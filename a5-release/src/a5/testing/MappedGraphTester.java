@@ -0,0 +1,120 @@
+package a5.testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import a5.GraphAlgorithms;
+import graph.AdjacencyListGraph;
+import graph.CompiledGraph;
+import graph.MappedGraph;
+import gui.Graph;
+import gui.NodeData;
+
+/** Checks that graphs written to the binary format of graph.MappedGraph <br>
+ * read back with the same nodes, coordinates, edges and shortest paths. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class MappedGraphTester {
+
+	/** The maps with a distances file. */
+	private static final String[] MAPS= { "TestBoard1", "Seed16", "Board3", "TestBoard2", "seed128" };
+
+	@Test
+	/** Write each map, map it back in, and check its structure and all its <br>
+	 * shortest paths against the distances file. */
+	public void test10Maps() throws IOException {
+		for (String map : MAPS) {
+			Graph g= TestGraphs.getGraph("info/Maps/" + map + ".txt");
+			PathData pd= new PathData("info/Maps/" + map + "distances.txt", g);
+			Path p= Files.createTempFile(map, ".graph");
+			try {
+				g.writeMapped(p);
+				MappedGraph mg= MappedGraph.open(p);
+				assertEquals(g.getNodesSize(), mg.size());
+				assertEquals(2 * g.getEdgesSize(), mg.edgeCount());
+				assertEquals(2 * g.getEdgesSize(), mg.edges().size());
+				for (NodeData n : g.getNodes()) {
+					MappedGraph.Node u= mg.node(n.name);
+					assertEquals(n.name, u.name());
+					assertEquals(n.getExitsSize(), u.outgoing().size());
+					assertEquals(n.getExitsSize(), u.incoming().size());
+					for (MappedGraph.Node v : u.outgoing().keySet())
+						assertEquals(n.getEdge(g.getNode(v.name())).length, (int) u.outgoing().get(v).label());
+				}
+				assertNull(mg.node("no such city"));
+
+				for (int r= 0; r < pd.size; r= r + 1) {
+					for (int c= 0; c < pd.size; c= c + 1) {
+						List<MappedGraph.Node> path= GraphAlgorithms.shortestPath(
+							mg.node(pd.names[r]), mg.node(pd.names[c]));
+						assertEquals(pd.dist[r][c], sum(path));
+						assertEquals(pd.names[r], path.get(0).name());
+						assertEquals(pd.names[c], path.get(path.size() - 1).name());
+					}
+				}
+			} finally {
+				Files.delete(p);
+			}
+		}
+	}
+
+	@Test
+	/** A directed AdjacencyListGraph keeps its edge directions and coordinates <br>
+	 * default to 0: a -1-> b -2-> c, c -4-> a, d isolated. */
+	public void test20Directed() throws IOException {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node a= g.addNode("a");
+		AdjacencyListGraph<String, Integer>.Node b= g.addNode("b");
+		AdjacencyListGraph<String, Integer>.Node c= g.addNode("c");
+		g.addNode("d");
+		g.addEdge(a, b, 1);
+		g.addEdge(b, c, 2);
+		g.addEdge(c, a, 4);
+		Path p= Files.createTempFile("directed", ".graph");
+		try {
+			MappedGraph.write(g, p);
+			MappedGraph mg= MappedGraph.open(p);
+			assertEquals(4, mg.size());
+			assertEquals(3, mg.edgeCount());
+			assertEquals("[a, b, c]", GraphAlgorithms.shortestPath(mg.node("a"), mg.node("c")).toString());
+			assertEquals("[c, a]", GraphAlgorithms.shortestPath(mg.node("c"), mg.node("a")).toString());
+			assertEquals("[]", GraphAlgorithms.shortestPath(mg.node("a"), mg.node("d")).toString());
+			assertTrue(mg.node("b").incoming().containsKey(mg.node("a")));
+			assertTrue(!mg.node("b").outgoing().containsKey(mg.node("a")));
+			assertEquals(0, mg.node("b").x());
+			assertEquals(mg.node("a"), mg.node(0));
+			assertEquals(3, CompiledGraph.compile(mg).edgeCount());
+		} finally {
+			Files.delete(p);
+		}
+	}
+
+	@Test
+	/** A file that is not a mapped graph is rejected. */
+	public void test30BadFile() {
+		try {
+			MappedGraph.open(new File("info/Maps/TestBoard1.txt").toPath());
+			fail("opened a JSON file as a mapped graph");
+		} catch (IOException e) {
+		}
+	}
+
+	/** Return the sum of the weights of the edges of path. */
+	private static int sum(List<MappedGraph.Node> path) {
+		int s= 0;
+		for (int k= 0; k + 1 < path.size(); k= k + 1)
+			s= s + path.get(k).outgoing().get(path.get(k + 1)).label();
+		return s;
+	}
+}
@@ -1,9 +1,15 @@
 package a5.testing;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 
+import a5.AllPairs;
+import graph.CompiledGraph;
+import gui.Adapter;
 import gui.Graph;
 import gui.NodeData;
 
@@ -11,11 +17,15 @@ import gui.NodeData;
  * names of the nodes, the nodes themselves, and a matrix of<br>
  * shortest distances. */
 public class PathData {
+	/** The distance in dist, and in a distances file, of a pair of nodes <br>
+	 * with no path between them. */
+	public static final int NO_PATH= -1;
+
 	public Graph graph;  // the graph
 	public int size; // number of nodes
 	public String[] names; // names of nodes
 	public NodeData[] nodes;  // null if not calculated; otherwise, the nodes for names
-	public int[][] dist; // Adjacency matrix, giving shortest distances
+	public int[][] dist; // Adjacency matrix, giving shortest distances (NO_PATH if none)
 
 	/** Constructor: an instance with names n and distances d. */
 	public PathData(String[] n, int[][] d, Graph g) {
@@ -50,7 +60,7 @@ public class PathData {
 
 	/** Read the size of the graph, the names of the nodes, and a<br>
 	 * distance adjacency matrix from reader and place them in fields<br>
-	 * size, names, and dist. */
+	 * size, names, and dist. A distance of NO_PATH means there is no path. */
 	public void readFile(BufferedReader br) {
 		try {
 			String line= br.readLine().trim();
@@ -90,4 +100,19 @@ public class PathData {
 		}
 
 	}
-}
\ No newline at end of file
+
+	/** Write the distances file for a map: args[0] is the map file (as in <br>
+	 * info/Maps), args[1] the file to write, in the format read by readFile. <br>
+	 * The distances are computed by AllPairs.dijkstra on all processors. */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: PathData <map file> <distances file>");
+			return;
+		}
+		Graph g= Graph.readJsonGraph(new File(args[0]));
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(g.adapter());
+		try (BufferedWriter out= new BufferedWriter(new FileWriter(args[1]))) {
+			AllPairs.write(cg, AllPairs.dijkstra(cg), out);
+		}
+	}
+}
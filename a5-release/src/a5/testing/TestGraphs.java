@@ -0,0 +1,47 @@
+package a5.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import gui.Graph;
+import gui.NodeData;
+import gui.TextIO;
+
+/** Helpers shared by the testers: loading a map from the info directory <br>
+ * and measuring a path. */
+class TestGraphs {
+
+	/** Return a graph for file named s in the info. */
+	static Graph getGraph(String s) {
+		try {
+			return Graph.getJsonGraph(new JSONObject(TextIO.read(new File(s))));
+		} catch (IOException e) {
+			throw new RuntimeException("IO Exception reading in graph " + s);
+		}
+	}
+
+	/** Return the sum of the weights of the edges on path pa. <br>
+	 * Precondition: pa contains at least 1 node. <br>
+	 * If 1 node, it's a path of length 0, i.e. with no edges. */
+	static int pathSum(List<NodeData> pa) {
+		NodeData v= null;
+		int sum= 0;
+		// invariant: if v is null, n is the first node of the path.<br>
+		// ......... if v is not null, v is the predecessor of n on the path.
+		// sum = sum of weights on edges from first node to v
+		for (NodeData n : pa) {
+			if (v != null) sum= sum + v.getEdge(n).length;
+			v= n;
+		}
+		return sum;
+	}
+
+	/** Return the distance along path pa, as given in a PathData: <br>
+	 * PathData.NO_PATH if pa is empty (no path was found), else pathSum(pa). */
+	static int distance(List<NodeData> pa) {
+		return pa.isEmpty() ? PathData.NO_PATH : pathSum(pa);
+	}
+}
@@ -0,0 +1,170 @@
+package a5.testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import a5.GraphAlgorithms;
+import a5.Traversal;
+import a5.Traversal.Order;
+import graph.AdjacencyListGraph;
+import graph.CompiledGraph;
+import gui.Adapter;
+import gui.Graph;
+
+/** Checks the depth-first and breadth-first traversals of Traversal and <br>
+ * GraphAlgorithms, on the Node maps and on a CompiledGraph. */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TraversalTester {
+
+	@Test
+	/** On random directed graphs, dfs and bfs list each reachable node once, <br>
+	 * in a valid order, and the same on the Node maps as on a snapshot. */
+	public void test10RandomDirected() {
+		Random r= new Random(10);
+		for (int edges : new int[] { 0, 150, 400, 2000 }) {
+			AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+			List<AdjacencyListGraph<String, Integer>.Node> nodes= randomGraph(g, 200, edges, r);
+			CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+				CompiledGraph.compile(g);
+			for (int q= 0; q < 20; q= q + 1) {
+				AdjacencyListGraph<String, Integer>.Node s= nodes.get(r.nextInt(nodes.size()));
+				List<AdjacencyListGraph<String, Integer>.Node> dfs= GraphAlgorithms.dfs(s);
+				List<AdjacencyListGraph<String, Integer>.Node> bfs= GraphAlgorithms.bfs(s);
+				assertEquals(dfs.size(), new HashSet<>(dfs).size());
+				assertEquals(new HashSet<>(dfs), new HashSet<>(bfs));
+				assertEquals(s, dfs.get(0));
+				checkDepthFirst(dfs);
+				checkBreadthFirst(bfs);
+				assertEquals(dfs, GraphAlgorithms.dfs(cg, s));
+				assertEquals(bfs, GraphAlgorithms.bfs(cg, s));
+				assertEquals(dfs, Traversal.stream(s, Order.DEPTH_FIRST).collect(Collectors.toList()));
+			}
+		}
+	}
+
+	@Test
+	/** The traversals are lazy: taking the first nodes of a large map looks at <br>
+	 * no more of it; one Traversal runs many traversals, and ends the last <br>
+	 * one when it starts another. */
+	public void test20Lazy() {
+		Graph g= Graph.randomBoard(20, 3000);
+		Adapter.Node s= g.adapter().wrap(g.getNode(0));
+		CompiledGraph<Adapter.Node, Adapter.Edge> cg= CompiledGraph.compile(g.adapter());
+		Traversal<Adapter.Node, Adapter.Edge> t= new Traversal<>(cg);
+		for (Order order : Order.values()) {
+			List<Adapter.Node> all= order == Order.DEPTH_FIRST ? GraphAlgorithms.dfs(s) : GraphAlgorithms.bfs(s);
+			assertEquals(g.getNodesSize(), all.size());
+			assertEquals(all.subList(0, 10), Traversal.stream(s, order).limit(10).collect(Collectors.toList()));
+			for (int k= 0; k < 100; k= k + 1)
+				assertEquals(all.subList(0, 10), t.nodes(s, order).limit(10).collect(Collectors.toList()));
+			assertEquals(all, t.nodes(s, order).collect(Collectors.toList()));
+			assertTrue(t.nodes(all.get(all.size() - 1), order).anyMatch(n -> n == s));
+		}
+
+		Iterator<Adapter.Node> first= t.nodes(s, Order.BREADTH_FIRST).iterator();
+		first.next();
+		PrimitiveIterator.OfInt second= t.ids(cg.id(s), Order.DEPTH_FIRST);
+		assertEquals(cg.id(s), second.nextInt());
+		try {
+			first.next();
+			fail("the first traversal went on after the second started");
+		} catch (ConcurrentModificationException e) {
+		}
+		assertTrue(second.hasNext());
+	}
+
+	@Test
+	/** A path of 100000 nodes is traversed without running out of stack; <br>
+	 * nothing is reached from a node that is not in the graph. */
+	public void test30LongPath() {
+		AdjacencyListGraph<String, Integer> g= new AdjacencyListGraph<>();
+		AdjacencyListGraph<String, Integer>.Node first= g.addNode("n0");
+		AdjacencyListGraph<String, Integer>.Node last= first;
+		for (int i= 1; i < 100000; i= i + 1) {
+			AdjacencyListGraph<String, Integer>.Node n= g.addNode("n" + i);
+			g.addEdge(last, n, 1);
+			last= n;
+		}
+		CompiledGraph<AdjacencyListGraph<String, Integer>.Node, AdjacencyListGraph<String, Integer>.Edge> cg=
+			CompiledGraph.compile(g);
+		assertEquals(100000, GraphAlgorithms.dfs(first).size());
+		assertEquals(100000, GraphAlgorithms.dfs(cg, first).size());
+		assertEquals(last, GraphAlgorithms.bfs(cg, first).get(99999));
+		assertEquals(1, GraphAlgorithms.dfs(last).size());
+		AdjacencyListGraph<String, Integer>.Node other= new AdjacencyListGraph<String, Integer>().addNode("n0");
+		assertFalse(new Traversal<>(cg).nodes(other, Order.DEPTH_FIRST).findAny().isPresent());
+		assertEquals(0, GraphAlgorithms.bfs(cg, other).size());
+	}
+
+	/** Add n nodes to g and up to edges random edges between them, and return the nodes. */
+	private static List<AdjacencyListGraph<String, Integer>.Node> randomGraph(
+		AdjacencyListGraph<String, Integer> g, int n, int edges, Random r) {
+		List<AdjacencyListGraph<String, Integer>.Node> nodes= new ArrayList<>();
+		for (int i= 0; i < n; i= i + 1)
+			nodes.add(g.addNode("n" + i));
+		for (int i= 0; i < edges; i= i + 1) {
+			AdjacencyListGraph<String, Integer>.Node u= nodes.get(r.nextInt(n));
+			AdjacencyListGraph<String, Integer>.Node v= nodes.get(r.nextInt(n));
+			if (u != v && !u.outgoing().containsKey(v))
+				g.addEdge(u, v, 1);
+		}
+		return nodes;
+	}
+
+	/** Check that order is a depth-first preorder from its first node: each <br>
+	 * later node is reached from the innermost node on the path to it that <br>
+	 * still has an edge to a node not yet listed. */
+	private static void checkDepthFirst(List<AdjacencyListGraph<String, Integer>.Node> order) {
+		HashSet<AdjacencyListGraph<String, Integer>.Node> listed= new HashSet<>();
+		List<AdjacencyListGraph<String, Integer>.Node> path= new ArrayList<>();
+		for (AdjacencyListGraph<String, Integer>.Node v : order) {
+			while (!path.isEmpty() && !hasEdgeOut(path.get(path.size() - 1), listed))
+				path.remove(path.size() - 1);
+			if (!path.isEmpty())
+				assertTrue(path.get(path.size() - 1).outgoing().containsKey(v));
+			listed.add(v);
+			path.add(v);
+		}
+		while (!path.isEmpty() && !hasEdgeOut(path.get(path.size() - 1), listed))
+			path.remove(path.size() - 1);
+		assertTrue(path.isEmpty());
+	}
+
+	/** Return true iff u has an edge to a node not in listed. */
+	private static boolean hasEdgeOut(AdjacencyListGraph<String, Integer>.Node u,
+		HashSet<AdjacencyListGraph<String, Integer>.Node> listed) {
+		for (AdjacencyListGraph<String, Integer>.Node v : u.outgoing().keySet())
+			if (!listed.contains(v)) return true;
+		return false;
+	}
+
+	/** Check that order is a breadth-first order from its first node: the <br>
+	 * nodes are listed by the number of edges from it, and each later node <br>
+	 * has an edge from a node listed one step closer. */
+	private static void checkBreadthFirst(List<AdjacencyListGraph<String, Integer>.Node> order) {
+		List<Integer> hops= new ArrayList<>();
+		for (int k= 0; k < order.size(); k= k + 1) {
+			int h= k == 0 ? 0 : Integer.MAX_VALUE;
+			for (int j= 0; j < k; j= j + 1)
+				if (order.get(j).outgoing().containsKey(order.get(k))) h= Math.min(h, hops.get(j) + 1);
+			assertTrue(h != Integer.MAX_VALUE);
+			if (k > 0) assertTrue(hops.get(k - 1) <= h);
+			hops.add(h);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package graph;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -11,6 +12,9 @@ import java.util.Set;
  * This implementation uses a variant of an adjacency list (an adjacency hash table).
  * This class allows data of type VD to be stored with each vertex and data of
  * type VE to be stored with each edge.  See Node.setData and Node.getData.
+ *
+ * The graph also keeps an index of which nodes may reach which (see
+ * mayReach), which addNode and addEdge update as they go.
  * 
  * @param <VD> The type of data stored at each vertex
  * @param <ED> The type of data stored at each edge
@@ -55,6 +59,7 @@ public class AdjacencyListGraph<VD, ED> implements graph.Graph<AdjacencyListGrap
       this.source.outgoing.put(target,this);
       this.target.incoming.put(source,this);
       edges.add(this);
+      edgeAdded(source, target);
     }
     
     /**
@@ -86,6 +91,9 @@ public class AdjacencyListGraph<VD, ED> implements graph.Graph<AdjacencyListGrap
 
     /** invariant: if not removed, this is in graph's nodes set */
     private boolean removed;
+
+    /** the number of this node in the reachability index */
+    private int index;
     
     public Map<Node, Edge>  outgoing()       { checkValid(); return this.outgoing; }
     public Map<Node, Edge>  incoming()       { checkValid(); return this.incoming; }
@@ -94,6 +102,16 @@ public class AdjacencyListGraph<VD, ED> implements graph.Graph<AdjacencyListGrap
     
     public String toString() { checkValid(); return data.toString(); }
     
+    /** Return false if there is no path from this node to other, by the
+     * graph's reachability index (see AdjacencyListGraph.mayReach); true if
+     * either node is not in the graph. */
+    @Override
+    public boolean mayReach(Node other) {
+      if (!nodes.contains(this) || !nodes.contains(other))
+        return true;
+      return AdjacencyListGraph.this.mayReach(this, other);
+    }
+    
     private void checkValid() {
       if (removed)
         throw new IllegalStateException("Vertex is no longer in graph");
@@ -106,6 +124,7 @@ public class AdjacencyListGraph<VD, ED> implements graph.Graph<AdjacencyListGrap
 
       this.data  = data;
       nodes.add(this);
+      this.index = nodeAdded();
     }
     
     /** Remove this vertex and any edges to or from it from the graph. */
@@ -126,6 +145,19 @@ public class AdjacencyListGraph<VD, ED> implements graph.Graph<AdjacencyListGrap
 
 	Set<Node> nodes;
 	Set<Edge> edges;
+
+	// The reachability index, by Node.index.  weak holds the weak components;
+	// strong[i] is a label of node i such that if a node u reaches v, then
+	// strong[v.index] <= strong[u.index], with equality (just after a rebuild)
+	// iff v also reaches u: the strong components in reverse topological order.
+	// A new node gets a label larger than all others, and a new edge u->v keeps
+	// the labels valid if strong[u.index] >= strong[v.index]; otherwise they are
+	// stale until the next mayReach rebuilds them.  Removing an edge or node
+	// only takes away paths, so the labels stay valid.
+	private UnionFind weak   = new UnionFind(0);
+	private int[]     strong = new int[8];
+	private int       labels;	// one more than the largest label
+	private boolean   stale;
 	
 	/** Initialize an empty graph */
 	public AdjacencyListGraph() {
@@ -154,4 +186,68 @@ public class AdjacencyListGraph<VD, ED> implements graph.Graph<AdjacencyListGrap
 	public Edge addEdge(Node source, Node target, ED data) {
 		return new Edge(source,target,data);
 	}
+
+	/**
+	 * Return false if there is no path from node from to node to: when they
+	 * are in different weak components, or to's strong component comes after
+	 * from's in topological order.  A true result means a path may exist (it
+	 * does when every edge has a reverse edge and none have been removed).
+	 *
+	 * Runs in constant time, except that if edges were added against the order
+	 * of the strong components since the last call, and the nodes are in the
+	 * same weak component, it first recomputes the components in time linear
+	 * in the size of the graph.
+	 * @throws IllegalStateException if from or to has been removed
+	 */
+	public boolean mayReach(Node from, Node to) {
+		from.checkValid();
+		to.checkValid();
+		if (!weak.connected(from.index, to.index))
+			return false;
+		if (stale)
+			rebuild();
+		return strong[to.index] <= strong[from.index];
+	}
+
+	/** Give a new node its index and a label of its own, and return the index. */
+	private int nodeAdded() {
+		int i = weak.add();
+		if (i == strong.length)
+			strong = Arrays.copyOf(strong, 2 * i);
+		strong[i] = labels++;
+		return i;
+	}
+
+	/** Update the reachability index for a new edge from u to v. */
+	private void edgeAdded(Node u, Node v) {
+		weak.union(u.index, v.index);
+		if (strong[u.index] < strong[v.index])
+			stale = true;
+	}
+
+	/** Renumber the nodes and recompute their weak and strong components. */
+	private void rebuild() {
+		int n = 0;
+		for (Node u : nodes)
+			u.index = n++;
+		int[] offsets = new int[n + 1];
+		for (Node u : nodes)
+			offsets[u.index + 1] = u.outgoing.size();
+		for (int u = 0; u < n; u++)
+			offsets[u + 1] += offsets[u];
+		int[] targets = new int[offsets[n]];
+		for (Node u : nodes) {
+			int i = offsets[u.index];
+			for (Node v : u.outgoing.keySet())
+				targets[i++] = v.index;
+		}
+
+		weak = new UnionFind(n);
+		for (Node u : nodes)
+			for (Node v : u.outgoing.keySet())
+				weak.union(u.index, v.index);
+		strong = new int[Math.max(n, 8)];
+		labels = Components.strong(offsets, targets, strong);
+		stale  = false;
+	}
 }
@@ -0,0 +1,241 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A frozen, array-based snapshot of a weighted graph.
+ *
+ * <p>Each node is given a dense id in 0..size()-1, and the outgoing edges of
+ * all nodes are stored in compressed-sparse-row form: the edges leaving node
+ * u are the indices start(u) .. end(u)-1, and edge i goes to target(i) with
+ * weight weight(i).  Algorithms that work on the ids never touch a Map or
+ * allocate while scanning edges.
+ *
+ * <p>The incoming edges are stored the same way: the edges entering node v
+ * are inStart(v) .. inEnd(v)-1, and incoming edge j comes from source(j) with
+ * weight inWeight(j).  This lets algorithms search backward from a node.
+ *
+ * <p>The strong and weak components are numbered when the graph is compiled,
+ * so mayReach(u, v) rules out most pairs of nodes with no path between them
+ * in constant time, before any search.
+ *
+ * <p>The snapshot does not follow later changes to the graph it was compiled
+ * from; compile it again after modifying the graph.
+ *
+ * @param <N> The type of nodes in the graph
+ * @param <E> The type of edges in the graph; the weights are given by e.label()
+ */
+public final class CompiledGraph<N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>> {
+	/** nodes.get(i) is the node with id i */
+	private final List<N> nodes;
+
+	/** ids.get(n) is the id of node n; inverse of nodes */
+	private final Map<N, Integer> ids;
+
+	/** the edges leaving node u are offsets[u] .. offsets[u+1]-1 */
+	private final int[] offsets;
+
+	/** targets[i] is the id of the node edge i goes to */
+	private final int[] targets;
+
+	/** weights[i] is the label of edge i */
+	private final int[] weights;
+
+	/** the edges entering node v are inOffsets[v] .. inOffsets[v+1]-1 */
+	private final int[] inOffsets;
+
+	/** sources[j] is the id of the node incoming edge j comes from */
+	private final int[] sources;
+
+	/** inWeights[j] is the label of incoming edge j */
+	private final int[] inWeights;
+
+	/** the largest weight of any edge, 0 if there are no edges */
+	private final int maxWeight;
+
+	/** the smallest weight of any edge, 0 if there are no edges */
+	private final int minWeight;
+
+	/** strong[u] is the strong component of u, in reverse topological order */
+	private final int[] strong;
+
+	/** weak[u] is the weak component of u */
+	private final int[] weak;
+
+	private CompiledGraph(Collection<? extends N> ns) {
+		nodes = new ArrayList<N>(ns);
+		ids   = new HashMap<N, Integer>();
+		for (N n : nodes)
+			ids.put(n, ids.size());
+
+		offsets = new int[nodes.size() + 1];
+
+		// first pass: count the edges that stay inside the node set
+		for (int u = 0; u < nodes.size(); u++) {
+			int degree = 0;
+			for (N target : nodes.get(u).outgoing().keySet())
+				if (ids.containsKey(target))
+					degree++;
+			offsets[u + 1] = offsets[u] + degree;
+		}
+
+		// second pass: fill in the targets and weights
+		targets = new int[offsets[nodes.size()]];
+		weights = new int[offsets[nodes.size()]];
+		int max = 0;
+		int min = targets.length == 0 ? 0 : Integer.MAX_VALUE;
+		for (int u = 0; u < nodes.size(); u++) {
+			int i = offsets[u];
+			for (Map.Entry<N, ? extends E> e : nodes.get(u).outgoing().entrySet()) {
+				Integer v = ids.get(e.getKey());
+				if (v == null)
+					continue;
+				targets[i] = v;
+				weights[i] = e.getValue().label();
+				max = Math.max(max, weights[i]);
+				min = Math.min(min, weights[i]);
+				i++;
+			}
+		}
+		maxWeight = max;
+		minWeight = min;
+
+		// transpose: count the edges entering each node, then place each edge
+		inOffsets = new int[nodes.size() + 1];
+		for (int i = 0; i < targets.length; i++)
+			inOffsets[targets[i] + 1]++;
+		for (int v = 0; v < nodes.size(); v++)
+			inOffsets[v + 1] += inOffsets[v];
+		sources   = new int[targets.length];
+		inWeights = new int[targets.length];
+		int[] next = new int[nodes.size()];
+		for (int u = 0; u < nodes.size(); u++) {
+			for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+				int j = inOffsets[targets[i]] + next[targets[i]]++;
+				sources[j]   = u;
+				inWeights[j] = weights[i];
+			}
+		}
+
+		strong = new int[nodes.size()];
+		weak   = new int[nodes.size()];
+		Components.strong(offsets, targets, strong);
+		Components.weak(offsets, targets, weak);
+	}
+
+	/** Return a snapshot of all the nodes and edges of g. */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	CompiledGraph<N,E> compile(Graph<N,E> g) {
+		return new CompiledGraph<N,E>(g.nodes());
+	}
+
+	/**
+	 * Return a snapshot of the nodes in ns and the edges between them.  Edges
+	 * leading to nodes that are not in ns are dropped.
+	 */
+	public static <N extends Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	CompiledGraph<N,E> compile(Collection<? extends N> ns) {
+		return new CompiledGraph<N,E>(ns);
+	}
+
+	/** The number of nodes in this graph. */
+	public int size() {
+		return nodes.size();
+	}
+
+	/** The number of edges in this graph. */
+	public int edgeCount() {
+		return targets.length;
+	}
+
+	/** The largest edge weight in this graph (0 if there are no edges). */
+	public int maxWeight() {
+		return maxWeight;
+	}
+
+	/** The smallest edge weight in this graph (0 if there are no edges). */
+	public int minWeight() {
+		return minWeight;
+	}
+
+	/** Return the id of n, or -1 if n is not in this graph. */
+	public int id(N n) {
+		Integer id = ids.get(n);
+		return id == null ? -1 : id;
+	}
+
+	/** Return the node with id u. */
+	public N node(int u) {
+		return nodes.get(u);
+	}
+
+	/** Return the index of the first edge leaving node u. */
+	public int start(int u) {
+		return offsets[u];
+	}
+
+	/** Return one past the index of the last edge leaving node u. */
+	public int end(int u) {
+		return offsets[u + 1];
+	}
+
+	/** Return the id of the node that edge i goes to. */
+	public int target(int i) {
+		return targets[i];
+	}
+
+	/** Return the weight of edge i. */
+	public int weight(int i) {
+		return weights[i];
+	}
+
+	/** Return the index of the first edge entering node v. */
+	public int inStart(int v) {
+		return inOffsets[v];
+	}
+
+	/** Return one past the index of the last edge entering node v. */
+	public int inEnd(int v) {
+		return inOffsets[v + 1];
+	}
+
+	/** Return the id of the node that incoming edge j comes from. */
+	public int source(int j) {
+		return sources[j];
+	}
+
+	/** Return the weight of incoming edge j. */
+	public int inWeight(int j) {
+		return inWeights[j];
+	}
+
+	/**
+	 * Return the number of the strong component of node u: the nodes that u
+	 * reaches and that reach u.  If u reaches v, then strongComponent(v) <=
+	 * strongComponent(u), with equality iff v also reaches u.
+	 */
+	public int strongComponent(int u) {
+		return strong[u];
+	}
+
+	/** Return the number of the weak component of node u: the nodes connected
+	 * to u when the edges are taken as undirected. */
+	public int weakComponent(int u) {
+		return weak[u];
+	}
+
+	/**
+	 * Return false if there is no path from node u to node v, in constant time:
+	 * when they are in different weak components, or v's strong component comes
+	 * after u's in topological order.  A true result may still be wrong for a
+	 * directed graph, but not when every edge has a reverse edge (then the
+	 * strong components are exactly the connected components).
+	 */
+	public boolean mayReach(int u, int v) {
+		return weak[u] == weak[v] && strong[v] <= strong[u];
+	}
+}
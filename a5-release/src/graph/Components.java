@@ -0,0 +1,103 @@
+package graph;
+
+/**
+ * The strong and weak components of a graph given in compressed-sparse-row
+ * form (as in CompiledGraph): the edges leaving node u are offsets[u] ..
+ * offsets[u+1]-1, and edge i goes to targets[i].
+ */
+final class Components {
+	private Components() {
+	}
+
+	/**
+	 * Store in label[u] the number of the strong component of node u, and return
+	 * the number of strong components.  They are numbered in the order Tarjan's
+	 * algorithm finds them, which is a reverse topological order: if u reaches v,
+	 * then label[v] <= label[u], with equality iff v also reaches u.
+	 *
+	 * The depth-first search keeps its own stack of nodes and edge positions, so
+	 * long paths (a road map has thousands of nodes in a row) cannot overflow
+	 * the call stack.
+	 */
+	static int strong(int[] offsets, int[] targets, int[] label) {
+		int n = offsets.length - 1;
+		// index[u] is 1 + the order in which u was reached (0 if not yet), and
+		// low[u] the smallest index reachable from u through its subtree and
+		// one more edge to a node still on the component stack
+		int[]     index   = new int[n];
+		int[]     low     = new int[n];
+		int[]     next    = new int[n];	// next edge of u to follow
+		int[]     path    = new int[n];	// the nodes being searched, root first
+		int[]     stack   = new int[n];	// the nodes not yet in a component
+		boolean[] onStack = new boolean[n];
+		int reached = 0;
+		int depth   = 0;
+		int height  = 0;
+		int count   = 0;
+
+		for (int root = 0; root < n; root++) {
+			if (index[root] != 0)
+				continue;
+			index[root] = low[root] = ++reached;
+			next[root] = offsets[root];
+			path[depth++] = root;
+			stack[height++] = root;
+			onStack[root] = true;
+			while (depth > 0) {
+				int u = path[depth - 1];
+				if (next[u] < offsets[u + 1]) {
+					int v = targets[next[u]++];
+					if (index[v] == 0) {
+						index[v] = low[v] = ++reached;
+						next[v] = offsets[v];
+						path[depth++] = v;
+						stack[height++] = v;
+						onStack[v] = true;
+					} else if (onStack[v]) {
+						low[u] = Math.min(low[u], index[v]);
+					}
+					continue;
+				}
+				depth--;
+				if (low[u] == index[u]) {
+					int w;
+					do {
+						w = stack[--height];
+						onStack[w] = false;
+						label[w] = count;
+					} while (w != u);
+					count++;
+				}
+				if (depth > 0) {
+					int p = path[depth - 1];
+					low[p] = Math.min(low[p], low[u]);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Store in label[u] the number of the weak component of node u (its
+	 * component when the edges are taken as undirected), and return the number
+	 * of weak components.  They are numbered in order of their smallest node.
+	 */
+	static int weak(int[] offsets, int[] targets, int[] label) {
+		int n = offsets.length - 1;
+		UnionFind sets = new UnionFind(n);
+		for (int u = 0; u < n; u++)
+			for (int i = offsets[u]; i < offsets[u + 1]; i++)
+				sets.union(u, targets[i]);
+
+		// number the roots as they first turn up
+		int[] number = new int[n];
+		int count = 0;
+		for (int u = 0; u < n; u++) {
+			int r = sets.find(u);
+			if (number[r] == 0)
+				number[r] = ++count;
+			label[u] = number[r] - 1;
+		}
+		return count;
+	}
+}
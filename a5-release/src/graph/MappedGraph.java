@@ -0,0 +1,512 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * A read-only graph stored in a compact binary file and used in place: open
+ * maps the file into memory and the nodes, edges and edge maps are views over
+ * the mapped bytes, so opening takes constant time no matter how big the
+ * graph is, and processes that open the same file share its pages.
+ *
+ * <p>The file holds big-endian ints, in this order:
+ * <pre>
+ *   header      MAGIC, VERSION, n (nodes), m (edges), b (bytes of names)
+ *   names       nameOffsets[n+1], then b bytes of UTF-8, padded to a multiple of 4;
+ *               the name of node u is bytes nameOffsets[u] .. nameOffsets[u+1]-1
+ *   coordinates x[n], y[n]
+ *   out-edges   offsets[n+1], targets[m], weights[m]  (CSR, as in CompiledGraph)
+ *   in-edges    inOffsets[n+1], sources[m], inWeights[m]
+ * </pre>
+ * Nodes are numbered in increasing order of name, so node(name) is a binary
+ * search.  Files are at most 2GB.
+ *
+ * <p>Node and Edge objects are made on demand and hold only ids; two of them are
+ * equal if they denote the same node or edge.
+ */
+public final class MappedGraph implements Graph<MappedGraph.Node, MappedGraph.Edge> {
+	/** First int of a file. */
+	private static final int MAGIC = 0x47524631; // "GRF1"
+
+	/** Version of the format written by write. */
+	private static final int VERSION = 1;
+
+	/** Number of ints in the header. */
+	private static final int HEADER = 5;
+
+	private final int n;
+	private final int m;
+
+	private final IntBuffer  nameOffsets;
+	private final ByteBuffer names;
+	private final IntBuffer  xs;
+	private final IntBuffer  ys;
+	private final IntBuffer  offsets;
+	private final IntBuffer  targets;
+	private final IntBuffer  weights;
+	private final IntBuffer  inOffsets;
+	private final IntBuffer  sources;
+	private final IntBuffer  inWeights;
+
+	private MappedGraph(ByteBuffer buf) throws IOException {
+		if (buf.capacity() < 4 * HEADER || buf.getInt(0) != MAGIC)
+			throw new IOException("not a mapped graph file");
+		if (buf.getInt(4) != VERSION)
+			throw new IOException("unsupported mapped graph version " + buf.getInt(4));
+		n = buf.getInt(8);
+		m = buf.getInt(12);
+		int b = buf.getInt(16);
+		long size = 4L * HEADER + 4L * (n + 1) + (b + 3) / 4 * 4L
+		          + 4L * 2 * n + 2 * 4L * ((n + 1) + 2L * m);
+		if (n < 0 || m < 0 || b < 0 || size != buf.capacity())
+			throw new IOException("mapped graph file has the wrong size");
+
+		int at = 4 * HEADER;
+		nameOffsets = ints(buf, at, n + 1);  at += 4 * (n + 1);
+		names       = slice(buf, at, b);     at += (b + 3) / 4 * 4;
+		xs          = ints(buf, at, n);      at += 4 * n;
+		ys          = ints(buf, at, n);      at += 4 * n;
+		offsets     = ints(buf, at, n + 1);  at += 4 * (n + 1);
+		targets     = ints(buf, at, m);      at += 4 * m;
+		weights     = ints(buf, at, m);      at += 4 * m;
+		inOffsets   = ints(buf, at, n + 1);  at += 4 * (n + 1);
+		sources     = ints(buf, at, m);      at += 4 * m;
+		inWeights   = ints(buf, at, m);
+	}
+
+	/** Return the length bytes of buf starting at index at, as a buffer of their own. */
+	private static ByteBuffer slice(ByteBuffer buf, int at, int length) {
+		ByteBuffer b = buf.duplicate();
+		b.position(at);
+		b.limit(at + length);
+		return b.slice();
+	}
+
+	/** Return the count ints of buf starting at byte index at. */
+	private static IntBuffer ints(ByteBuffer buf, int at, int count) {
+		return slice(buf, at, 4 * count).asIntBuffer();
+	}
+
+	/**
+	 * Map the graph in file p into memory and return it.  The file must not
+	 * change while the graph is in use.
+	 *
+	 * @throws IOException if p cannot be read or is not a file made by write
+	 */
+	public static MappedGraph open(Path p) throws IOException {
+		try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+			if (ch.size() > Integer.MAX_VALUE)
+				throw new IOException("mapped graph file is larger than 2GB");
+			// the mapping stays valid after the channel is closed
+			return new MappedGraph(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+		}
+	}
+
+	/**
+	 * Write all nodes and edges of g to file p, with all coordinates 0.  Any
+	 * graph with Integer labels can be written, for example an
+	 * AdjacencyListGraph&lt;V,Integer&gt;.  Nodes are named by toString(), which
+	 * must differ for different nodes.
+	 */
+	public static <N extends graph.Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	void write(Graph<N,E> g, Path p) throws IOException {
+		write(CompiledGraph.compile(g), v -> 0, v -> 0, p);
+	}
+
+	/**
+	 * Write g to file p, with node v at coordinates (x(v), y(v)).  Nodes are
+	 * named by toString(), which must differ for different nodes.
+	 *
+	 * @throws IllegalArgumentException if two nodes have the same name
+	 */
+	public static <N extends graph.Node<N,E>, E extends LabeledEdge<N,E,Integer>>
+	void write(CompiledGraph<N,E> g, ToIntFunction<? super N> x, ToIntFunction<? super N> y,
+	           Path p) throws IOException {
+		int n = g.size();
+		String[] name = new String[n];
+		for (int u = 0; u < n; u++)
+			name[u] = g.node(u).toString();
+
+		// order[i] is the id in g of the node with id i in the file; id is its inverse
+		Integer[] order = new Integer[n];
+		for (int u = 0; u < n; u++)
+			order[u] = u;
+		Arrays.sort(order, Comparator.comparing((Integer u) -> name[u]));
+		int[] id = new int[n];
+		for (int i = 0; i < n; i++) {
+			id[order[i]] = i;
+			if (i > 0 && name[order[i]].equals(name[order[i - 1]]))
+				throw new IllegalArgumentException("two nodes are named " + name[order[i]]);
+		}
+
+		byte[][] bytes = new byte[n][];
+		int b = 0;
+		for (int i = 0; i < n; i++) {
+			bytes[i] = name[order[i]].getBytes(StandardCharsets.UTF_8);
+			b += bytes[i].length;
+		}
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(p)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(n);
+			out.writeInt(g.edgeCount());
+			out.writeInt(b);
+
+			int at = 0;
+			for (int i = 0; i < n; i++) {
+				out.writeInt(at);
+				at += bytes[i].length;
+			}
+			out.writeInt(at);
+			for (int i = 0; i < n; i++)
+				out.write(bytes[i]);
+			for (int i = b; i % 4 != 0; i++)
+				out.writeByte(0);
+
+			for (int i = 0; i < n; i++)
+				out.writeInt(x.applyAsInt(g.node(order[i])));
+			for (int i = 0; i < n; i++)
+				out.writeInt(y.applyAsInt(g.node(order[i])));
+
+			// out-edges in file order
+			at = 0;
+			for (int i = 0; i < n; i++) {
+				out.writeInt(at);
+				at += g.end(order[i]) - g.start(order[i]);
+			}
+			out.writeInt(at);
+			for (int i = 0; i < n; i++)
+				for (int e = g.start(order[i]); e < g.end(order[i]); e++)
+					out.writeInt(id[g.target(e)]);
+			for (int i = 0; i < n; i++)
+				for (int e = g.start(order[i]); e < g.end(order[i]); e++)
+					out.writeInt(g.weight(e));
+
+			// in-edges in file order
+			at = 0;
+			for (int i = 0; i < n; i++) {
+				out.writeInt(at);
+				at += g.inEnd(order[i]) - g.inStart(order[i]);
+			}
+			out.writeInt(at);
+			for (int i = 0; i < n; i++)
+				for (int e = g.inStart(order[i]); e < g.inEnd(order[i]); e++)
+					out.writeInt(id[g.source(e)]);
+			for (int i = 0; i < n; i++)
+				for (int e = g.inStart(order[i]); e < g.inEnd(order[i]); e++)
+					out.writeInt(g.inWeight(e));
+		}
+	}
+
+	/** The number of nodes in this graph. */
+	public int size() {
+		return n;
+	}
+
+	/** The number of edges in this graph. */
+	public int edgeCount() {
+		return m;
+	}
+
+	/** Return the node with id u, 0 <= u < size(). */
+	public Node node(int u) {
+		if (u < 0 || u >= n)
+			throw new IndexOutOfBoundsException("no node " + u);
+		return new Node(u);
+	}
+
+	/** Return the node named name, or null if there is none.  O(log n) time. */
+	public Node node(String name) {
+		int lo = 0;
+		int hi = n - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = name(mid).compareTo(name);
+			if (c == 0)
+				return new Node(mid);
+			if (c < 0)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return null;
+	}
+
+	/** Return the name of the node with id u. */
+	public String name(int u) {
+		int from = nameOffsets.get(u);
+		byte[] b = new byte[nameOffsets.get(u + 1) - from];
+		for (int i = 0; i < b.length; i++)
+			b[i] = names.get(from + i);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	/** Return the x coordinate of the node with id u. */
+	public int x(int u) {
+		return xs.get(u);
+	}
+
+	/** Return the y coordinate of the node with id u. */
+	public int y(int u) {
+		return ys.get(u);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	@Override
+	public List<Node> nodes() {
+		return new AbstractList<Node>() {
+			@Override public Node get(int u) { return node(u); }
+			@Override public int  size()     { return n; }
+		};
+	}
+
+	@Override
+	public List<Edge> edges() {
+		return new AbstractList<Edge>() {
+			@Override
+			public Edge get(int i) {
+				if (i < 0 || i >= m)
+					throw new IndexOutOfBoundsException("no edge " + i);
+				// the source is the last node whose edges start at or before i
+				int lo = 0;
+				int hi = n - 1;
+				while (lo < hi) {
+					int mid = (lo + hi + 1) >>> 1;
+					if (offsets.get(mid) <= i)
+						lo = mid;
+					else
+						hi = mid - 1;
+				}
+				return new Edge(lo, targets.get(i), weights.get(i));
+			}
+
+			@Override
+			public int size() {
+				return m;
+			}
+		};
+	}
+
+	/** A node of a MappedGraph: its id. */
+	public final class Node implements graph.Node<Node, Edge> {
+		private final int id;
+
+		private Node(int id) {
+			this.id = id;
+		}
+
+		/** Return the id of this node, in 0 .. size()-1. */
+		public int id() {
+			return id;
+		}
+
+		/** Return the name of this node. */
+		public String name() {
+			return MappedGraph.this.name(id);
+		}
+
+		/** Return the x coordinate of this node. */
+		public int x() {
+			return xs.get(id);
+		}
+
+		/** Return the y coordinate of this node. */
+		public int y() {
+			return ys.get(id);
+		}
+
+		@Override
+		public Map<Node, Edge> outgoing() {
+			return new EdgeMap(id, true);
+		}
+
+		@Override
+		public Map<Node, Edge> incoming() {
+			return new EdgeMap(id, false);
+		}
+
+		private MappedGraph graph() {
+			return MappedGraph.this;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Node
+				&& ((Node) o).graph() == MappedGraph.this
+				&& ((Node) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+
+		@Override
+		public String toString() {
+			return name();
+		}
+	}
+
+	/** An edge of a MappedGraph: the ids of its ends, and its weight. */
+	public final class Edge implements LabeledEdge<Node, Edge, Integer> {
+		private final int source;
+		private final int target;
+		private final int weight;
+
+		private Edge(int source, int target, int weight) {
+			this.source = source;
+			this.target = target;
+			this.weight = weight;
+		}
+
+		@Override
+		public Node source() {
+			return new Node(source);
+		}
+
+		@Override
+		public Node target() {
+			return new Node(target);
+		}
+
+		@Override
+		public Integer label() {
+			return weight;
+		}
+
+		private MappedGraph graph() {
+			return MappedGraph.this;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Edge
+				&& ((Edge) o).graph() == MappedGraph.this
+				&& ((Edge) o).source == source
+				&& ((Edge) o).target == target;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * source + target;
+		}
+
+		@Override
+		public String toString() {
+			return name(source) + " -" + weight + "-> " + name(target);
+		}
+	}
+
+	/**
+	 * The edges leaving (if out) or entering (if not) node u, keyed by the
+	 * node at their other end: a view of one slice of the CSR arrays.
+	 */
+	private final class EdgeMap extends AbstractMap<Node, Edge> {
+		private final int u;
+		private final boolean out;
+		private final int first;
+		private final int last;
+
+		EdgeMap(int u, boolean out) {
+			this.u     = u;
+			this.out   = out;
+			this.first = out ? offsets.get(u)     : inOffsets.get(u);
+			this.last  = out ? offsets.get(u + 1) : inOffsets.get(u + 1);
+		}
+
+		/** Return the id of the node at the other end of edge i of the slice. */
+		private int other(int i) {
+			return out ? targets.get(i) : sources.get(i);
+		}
+
+		/** Return edge i of the slice. */
+		private Edge edge(int i) {
+			int w = out ? weights.get(i) : inWeights.get(i);
+			return out ? new Edge(u, other(i), w) : new Edge(other(i), u, w);
+		}
+
+		/** Return the index of the edge whose other end is key, or -1. */
+		private int indexOf(Object key) {
+			if (!(key instanceof Node) || ((Node) key).graph() != MappedGraph.this)
+				return -1;
+			int v = ((Node) key).id;
+			for (int i = first; i < last; i++)
+				if (other(i) == v)
+					return i;
+			return -1;
+		}
+
+		@Override
+		public int size() {
+			return last - first;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return indexOf(key) != -1;
+		}
+
+		@Override
+		public Edge get(Object key) {
+			int i = indexOf(key);
+			return i == -1 ? null : edge(i);
+		}
+
+		@Override
+		public Set<Map.Entry<Node, Edge>> entrySet() {
+			return new AbstractSet<Map.Entry<Node, Edge>>() {
+				@Override
+				public int size() {
+					return last - first;
+				}
+
+				@Override
+				public Iterator<Map.Entry<Node, Edge>> iterator() {
+					return new Iterator<Map.Entry<Node, Edge>>() {
+						private int i = first;
+
+						@Override
+						public boolean hasNext() {
+							return i < last;
+						}
+
+						@Override
+						public Map.Entry<Node, Edge> next() {
+							if (i >= last)
+								throw new NoSuchElementException();
+							Map.Entry<Node, Edge> e =
+								new AbstractMap.SimpleImmutableEntry<>(new Node(other(i)), edge(i));
+							i++;
+							return e;
+						}
+					};
+				}
+			};
+		}
+	}
+}
@@ -13,4 +13,11 @@ public interface Node<N extends Node<N,E>, E extends Edge<N,E>> {
 	
 	/** The set of incoming edges, organized by their source. */
 	public Map<N,? extends E> incoming();
+
+	/** Return false if there is certainly no path from this node to other.
+	 * A graph that keeps a reachability index answers from it without a
+	 * search; a true result means a path may exist.  By default, always true. */
+	public default boolean mayReach(N other) {
+		return true;
+	}
 }
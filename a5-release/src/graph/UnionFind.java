@@ -0,0 +1,96 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A partition of the ints 0..size()-1 into disjoint sets, for keeping track of
+ * the connected components of a graph as edges are added.
+ *
+ * Each set is a tree of parent links whose root names the set.  union hangs
+ * the root of the smaller tree under the root of the larger, and find halves
+ * the path it walks, so any sequence of m operations on n elements takes
+ * O(m alpha(n)) time, where alpha grows so slowly it is at most 4 in practice.
+ *
+ * Sets can only be merged.  To split one (e.g. when an edge is removed), build
+ * a new UnionFind.
+ */
+public final class UnionFind {
+	// parent[i] is the parent of i, or i itself if i is a root; for a root r,
+	// weight[r] is the size of its set
+	private int[] parent;
+	private int[] weight;
+	private int size;
+	private int count;
+
+	/** Constructs a partition of 0..n-1 into n singletons.
+	 * @throws IllegalArgumentException if n < 0 */
+	public UnionFind(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("negative size: " + n);
+		parent = new int[Math.max(n, 8)];
+		weight = new int[parent.length];
+		while (size < n)
+			add();
+	}
+
+	/** Return the number of elements. */
+	public int size() {
+		return size;
+	}
+
+	/** Return the number of sets. */
+	public int count() {
+		return count;
+	}
+
+	/** Add the element size() in a set of its own, and return it. */
+	public int add() {
+		if (size == parent.length) {
+			parent = Arrays.copyOf(parent, 2 * size);
+			weight = Arrays.copyOf(weight, 2 * size);
+		}
+		parent[size] = size;
+		weight[size] = 1;
+		count++;
+		return size++;
+	}
+
+	/** Return the root of the set of i: the same int for every element of the set.
+	 * @throws IndexOutOfBoundsException if i is not in 0..size()-1 */
+	public int find(int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("element " + i + " of " + size);
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/** Merge the sets of i and j.  Return true iff they were different sets. */
+	public boolean union(int i, int j) {
+		int a = find(i);
+		int b = find(j);
+		if (a == b)
+			return false;
+		if (weight[a] < weight[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		parent[b] = a;
+		weight[a] += weight[b];
+		count--;
+		return true;
+	}
+
+	/** Return true iff i and j are in the same set. */
+	public boolean connected(int i, int j) {
+		return find(i) == find(j);
+	}
+
+	/** Return the number of elements in the set of i. */
+	public int setSize(int i) {
+		return weight[find(i)];
+	}
+}
@@ -2,39 +2,79 @@ package gui;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToDoubleBiFunction;
 
 import a5.GraphAlgorithms;
 import common.Wrapper;
 
+/** Views a gui.Graph as a graph.Graph, for the algorithms in a5.
+ * <br>
+ * An Adapter keeps one Node wrapper per NodeData and one Edge wrapper per
+ * direction of each EdgeData, and each Node's outgoing and incoming maps are
+ * built once, the first time any of them is asked for, and shared by all later
+ * calls.  So searches over an Adapter allocate no wrappers or maps. Use
+ * Graph.adapter() to share one Adapter among all users of a graph. */
 public class Adapter extends Wrapper<Graph> implements graph.Graph<Adapter.Node,Adapter.Edge> {
 	public class Node extends Wrapper<NodeData> implements graph.Node<Node, Edge>{
+		private final int hash;
+
+		// unmodifiable views of the edges leaving and entering this node,
+		// set by index() (null until then, and for nodes not in the graph)
+		private Map<Node, Edge> outgoing;
+		private Map<Node, Edge> incoming;
 
 		private Node(NodeData impl) {
 			super(impl);
+			this.hash = impl.hashCode();
 		}
 	
 		public Map<Node, Edge> edges(boolean thisIsSource) {
+			index();
+			Map<Node, Edge> result = thisIsSource ? outgoing : incoming;
+			return result != null ? result : exitMap(thisIsSource);
+		}
+
+		/** Return a new map of this node's edges, computed from its exits. */
+		private Map<Node, Edge> exitMap(boolean thisIsSource) {
 			Map<Node,Edge> result = new HashMap<>();
 			
 			for (EdgeData e : this.impl.getExits()) {
 				NodeData other = e.getOther(this.impl);
-				Node     otherWrapper = new Node(other);
+				Node     otherWrapper = wrap(other);
 				
 				Edge wrapper = thisIsSource
 						   ? new Edge(e,this,otherWrapper)
 						   : new Edge(e,otherWrapper,this);
 				result.put(otherWrapper, wrapper);
 			}
-			return result;
+			return Collections.unmodifiableMap(result);
 		}
 		@Override public Map<Node, Edge> outgoing() { return edges(true); }
 		@Override public Map<Node, Edge> incoming() { return edges(false); }
 
+		/** Return false if there is no path between this node and other, by
+		 * the components of their graph (see Graph.connected). */
+		@Override
+		public boolean mayReach(Node other) {
+			Graph g = this.impl.getGraph();
+			return g == null || g.connected(this.impl, other.impl);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return this == other || super.equals(other);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
 	}
-	
 	public class Edge extends Wrapper<EdgeData> implements graph.LabeledEdge<Node,Edge,Integer> {
 		private Node     source;
 		private Node     target;
@@ -62,8 +102,62 @@ public class Adapter extends Wrapper<Graph> implements graph.Graph<Adapter.Node,
 		
 	}
 	
+	// wrappers.get(n) is the wrapper of NodeData n
+	private final IdentityHashMap<NodeData, Node> wrappers = new IdentityHashMap<>();
+	private final List<Node> nodes;
+
+	// the wrappers of both directions of every edge, set by index()
+	private List<Edge> edges;
+	private volatile boolean indexed;
+
+	/** Constructor: a view of g, which should not change afterwards. */
 	public Adapter(Graph g) {
 		super(g);
+		List<Node> ns = new ArrayList<>(g.getNodesSize());
+		for (NodeData n : g.getNodes()) {
+			Node wrapper = new Node(n);
+			wrappers.put(n, wrapper);
+			ns.add(wrapper);
+		}
+		this.nodes = Collections.unmodifiableList(ns);
+	}
+
+	/** Build the edge wrappers and every node's outgoing and incoming maps,
+	 * unless that has been done already. */
+	private void index() {
+		if (indexed)
+			return;
+		synchronized (this) {
+			if (indexed)
+				return;
+			Map<Node, Map<Node, Edge>> out = new IdentityHashMap<>();
+			Map<Node, Map<Node, Edge>> in  = new IdentityHashMap<>();
+			for (Node n : nodes) {
+				out.put(n, new HashMap<>());
+				in.put(n, new HashMap<>());
+			}
+			List<Edge> es = new ArrayList<>(2 * this.impl.getEdgesSize());
+			for (EdgeData e : this.impl.getEdges()) {
+				Node n1 = wrappers.get(e.getFirstExit());
+				Node n2 = wrappers.get(e.getSecondExit());
+				if (n1 == null || n2 == null)
+					continue;
+				Edge forward  = new Edge(e, n1, n2);
+				Edge backward = new Edge(e, n2, n1);
+				out.get(n1).put(n2, forward);
+				in.get(n2).put(n1, forward);
+				out.get(n2).put(n1, backward);
+				in.get(n1).put(n2, backward);
+				es.add(forward);
+				es.add(backward);
+			}
+			for (Node n : nodes) {
+				n.outgoing = Collections.unmodifiableMap(out.get(n));
+				n.incoming = Collections.unmodifiableMap(in.get(n));
+			}
+			this.edges = Collections.unmodifiableList(es);
+			indexed = true;
+		}
 	}
 
 	@Override
@@ -73,30 +167,50 @@ public class Adapter extends Wrapper<Graph> implements graph.Graph<Adapter.Node,
 
 	@Override
 	public Collection<? extends Node> nodes() {
-		List<Node> result = new ArrayList<>();
-		for (NodeData n : this.impl.getNodes())
-			result.add(new Node(n));
-		return result;
+		return nodes;
 	}
 
 	@Override
 	public Collection<? extends Edge> edges() {
-		List<Edge> result = new ArrayList<>();
+		index();
+		return edges;
+	}
+	
+	/** Return an A* heuristic for this graph (see GraphAlgorithms.astar): the
+	 * straight-line distance between the nodes' (x, y) coordinates, scaled by
+	 * the smallest ratio of edge length to straight-line length of any edge.
+	 * Since no edge is shorter than its scaled straight line, the heuristic
+	 * never overestimates and is consistent.  Computing it takes O(E) time,
+	 * so compute it once per graph, not once per query. */
+	public ToDoubleBiFunction<Node, Node> euclideanHeuristic() {
+		double ratio= Double.POSITIVE_INFINITY;
 		for (EdgeData e : this.impl.getEdges()) {
-			Node n1 = new Node(e.getFirstExit());
-			Node n2 = new Node(e.getSecondExit());
-			result.add(new Edge(e, n1,n2));
-			result.add(new Edge(e, n2,n1));
+			double d= distance(e.getFirstExit(), e.getSecondExit());
+			if (d > 0) ratio= Math.min(ratio, e.length / d);
 		}
-		return result;
+		// no edge with distinct end points: nothing is known, estimate 0.
+		// otherwise shave a little off so rounding cannot overestimate.
+		final double scale= ratio == Double.POSITIVE_INFINITY ? 0 : ratio * (1 - 1e-9);
+		return (u, v) -> scale * distance(u.impl(), v.impl());
 	}
-	
+
+	/** Return the straight-line distance between the coordinates of n1 and n2. */
+	private static double distance(NodeData n1, NodeData n2) {
+		return Math.hypot(n1.x - n2.x, n1.y - n2.y);
+	}
+
+	/** Return the wrapper of d: the same object every time for the nodes
+	 * of this graph, a new one for any other NodeData. */
 	public Node wrap(NodeData d) {
-		return new Node(d);
+		Node n = wrappers.get(d);
+		return n != null ? n : new Node(d);
 	}
 	
 	public static List<NodeData> shortest(NodeData start, NodeData end) {
-		Adapter g = new Adapter(start.getGraph());
+		// the components of the map tell at once that there is no path
+		if (!start.getGraph().connected(start, end))
+			return new ArrayList<>();
+		Adapter g = start.getGraph().adapter();
 		Adapter.Node u = g.wrap(start);
 		Adapter.Node v = g.wrap(end);
 		List<Adapter.Node> nodes = GraphAlgorithms.shortestPath(u, v);
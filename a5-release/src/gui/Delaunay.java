@@ -0,0 +1,335 @@
+package gui;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/** The Delaunay triangulation of a set of points with int coordinates, <br>
+ * computed by the Bowyer-Watson algorithm in expected time O(n log n). <br>
+ * <br>
+ * Points are inserted one at a time into a triangulation that starts as one <br>
+ * large triangle around all of them. Each point is located by walking from <br>
+ * the last triangle created; the triangles whose circumcircle contains it are <br>
+ * removed and the hole is filled with triangles fanning out from the point. <br>
+ * To keep both the walks and the holes short, points are inserted in rounds <br>
+ * of doubling size in random order, each round sorted along a Hilbert curve. <br>
+ * <br>
+ * The orientation test is exact; the in-circle test falls back to exact <br>
+ * arithmetic when floating point cannot decide it, so cocircular and <br>
+ * collinear points are handled correctly. <br>
+ * <br>
+ * The result is the Delaunay triangulation of the points together with the <br>
+ * three corners of the big triangle, less the edges at those corners. As the <br>
+ * corners are finite, a few edges of the convex hull of the points may be <br>
+ * missing. The edges are still connected: each corner is farther from every <br>
+ * point than the diameter of the points, so for any split of the points in <br>
+ * two, the closest pair across it has an empty closed diametral circle and <br>
+ * is an edge of every Delaunay triangulation, so also of this one. */
+final class Delaunay {
+	private final int n;		// number of points; points n..n+2 are the big triangle
+	private final long[] px;	// px[p], py[p] are the coordinates of point p
+	private final long[] py;
+
+	// Triangle t has vertices tv[3t], tv[3t+1], tv[3t+2], counterclockwise.
+	// tn[3t+i] is the triangle across the edge opposite tv[3t+i], -1 if none.
+	private int[] tv= new int[3 * 64];
+	private int[] tn= new int[3 * 64];
+	private int size;		// number of triangles
+
+	private int last;		// the last triangle created, where walks start
+
+	// mark[t] == 2*stamp iff t is in the current hole, 2*stamp+1 iff t was tested not to be
+	private int[] mark= new int[64];
+	private int stamp;
+
+	private int[] hole= new int[16];	// the triangles of the current hole
+	private int holeSize;
+	private int[] edgeA= new int[16];	// the edges around the current hole: edgeA[k] -> edgeB[k]
+	private int[] edgeB= new int[16];	// counterclockwise, with edgeOut[k] the triangle outside
+	private int[] edgeOut= new int[16];
+	private int edgeSize;
+
+	private final int[] fanFrom;	// fanFrom[a] is the new triangle with edge a -> b
+	private final int[] fanTo;	// fanTo[b] is the new triangle with edge a -> b
+
+	/** Return the edges of the Delaunay triangulation of the n points (x[i], y[i]), <br>
+	 * as an array of 2 * (number of edges) point indices: edge k joins points <br>
+	 * e[2k] and e[2k+1]. Use r to choose the order of insertion. <br>
+	 * Precondition: x.length == y.length and the points are distinct. */
+	static int[] edges(int[] x, int[] y, Random r) {
+		Delaunay d= new Delaunay(x, y);
+		for (int p : insertionOrder(x, y, r)) {
+			d.insert(p);
+		}
+		return d.edges();
+	}
+
+	/** Constructor: the triangulation of no points, inside a triangle <br>
+	 * large enough to hold all the points (x[i], y[i]). */
+	private Delaunay(int[] x, int[] y) {
+		n= x.length;
+		px= new long[n + 3];
+		py= new long[n + 3];
+		long minX= 0, minY= 0, maxX= 0, maxY= 0;
+		for (int i= 0; i < n; i++ ) {
+			px[i]= x[i];
+			py[i]= y[i];
+			if (i == 0 || x[i] < minX) minX= x[i];
+			if (i == 0 || y[i] < minY) minY= y[i];
+			if (i == 0 || x[i] > maxX) maxX= x[i];
+			if (i == 0 || y[i] > maxY) maxY= y[i];
+		}
+		// A right triangle whose hypotenuse is well beyond the bounding square.
+		// Every corner is at least k from the square, so farther from each point
+		// than the square's diagonal: this is what keeps the edges connected.
+		long s= Math.max(maxX - minX, maxY - minY) + 1;
+		long k= 4 * s;
+		long c= 2 * s + k;
+		px[n]= minX - k;
+		py[n]= minY - k;
+		px[n + 1]= minX + c + k;
+		py[n + 1]= minY - k;
+		px[n + 2]= minX - k;
+		py[n + 2]= minY + c + k;
+
+		size= 1;
+		tv[0]= n;
+		tv[1]= n + 1;
+		tv[2]= n + 2;
+		tn[0]= tn[1]= tn[2]= -1;
+
+		fanFrom= new int[n + 3];
+		fanTo= new int[n + 3];
+	}
+
+	/** Return the points 0..x.length-1 in the order to insert them. */
+	private static int[] insertionOrder(int[] x, int[] y, Random r) {
+		int n= x.length;
+		int[] order= new int[n];
+		for (int i= 0; i < n; i++ ) {
+			order[i]= i;
+		}
+		for (int i= n - 1; i > 0; i-- ) {
+			int j= r.nextInt(i + 1);
+			int t= order[i];
+			order[i]= order[j];
+			order[j]= t;
+		}
+
+		int minX= Integer.MAX_VALUE, minY= Integer.MAX_VALUE;
+		int maxX= Integer.MIN_VALUE, maxY= Integer.MIN_VALUE;
+		for (int i= 0; i < n; i++ ) {
+			minX= Math.min(minX, x[i]);
+			minY= Math.min(minY, y[i]);
+			maxX= Math.max(maxX, x[i]);
+			maxY= Math.max(maxY, y[i]);
+		}
+		long span= Math.max(1L, Math.max((long) maxX - minX, (long) maxY - minY));
+
+		// Rounds are order[end/2 .. end-1], for end= n, n/2, ..., down to a first small round
+		long[] keys= new long[n];
+		int end= n;
+		while (end > 0) {
+			int begin= end <= 32 ? 0 : end / 2;
+			for (int i= begin; i < end; i++ ) {
+				int p= order[i];
+				int hx= (int) (((long) x[p] - minX) * (HILBERT_SIDE - 1) / span);
+				int hy= (int) (((long) y[p] - minY) * (HILBERT_SIDE - 1) / span);
+				keys[i]= hilbert(hx, hy) << 31 | p;
+			}
+			Arrays.sort(keys, begin, end);
+			for (int i= begin; i < end; i++ ) {
+				order[i]= (int) (keys[i] & Integer.MAX_VALUE);
+			}
+			end= begin;
+		}
+		return order;
+	}
+
+	/** Number of cells on a side of the grid of the Hilbert curve. */
+	private static final int HILBERT_SIDE= 1 << 16;
+
+	/** Return the position of cell (x, y) along the Hilbert curve through <br>
+	 * a HILBERT_SIDE x HILBERT_SIDE grid. */
+	private static long hilbert(int x, int y) {
+		long d= 0;
+		for (int s= HILBERT_SIDE / 2; s > 0; s= s / 2) {
+			int rx= (x & s) > 0 ? 1 : 0;
+			int ry= (y & s) > 0 ? 1 : 0;
+			d= d + (long) s * s * (3 * rx ^ ry);
+			if (ry == 0) {
+				if (rx == 1) {
+					x= HILBERT_SIDE - 1 - x;
+					y= HILBERT_SIDE - 1 - y;
+				}
+				int t= x;
+				x= y;
+				y= t;
+			}
+		}
+		return d;
+	}
+
+	/** Add point p to the triangulation. */
+	private void insert(int p) {
+		int t0= locate(p);
+
+		// Collect the hole: the triangles whose circumcircle contains p,
+		// which are connected and include the triangle that contains p.
+		stamp++ ;
+		holeSize= 0;
+		addToHole(t0);
+		for (int h= 0; h < holeSize; h++ ) {
+			int t= hole[h];
+			for (int i= 0; i < 3; i++ ) {
+				int nb= tn[3 * t + i];
+				if (nb != -1 && mark[nb] != 2 * stamp && mark[nb] != 2 * stamp + 1) {
+					if (inCircle(tv[3 * nb], tv[3 * nb + 1], tv[3 * nb + 2], p)) addToHole(nb);
+					else mark[nb]= 2 * stamp + 1;
+				}
+			}
+		}
+
+		// Collect the edges around the hole.
+		edgeSize= 0;
+		for (int h= 0; h < holeSize; h++ ) {
+			int t= hole[h];
+			for (int i= 0; i < 3; i++ ) {
+				int nb= tn[3 * t + i];
+				if (nb == -1 || mark[nb] != 2 * stamp) {
+					addEdge(tv[3 * t + (i + 1) % 3], tv[3 * t + (i + 2) % 3], nb);
+				}
+			}
+		}
+
+		// Fill the hole with a triangle a -> b -> p for each edge a -> b around it,
+		// reusing the slots of the removed triangles. There are two more of them.
+		for (int k= 0; k < edgeSize; k++ ) {
+			int t= k < holeSize ? hole[k] : newTriangle();
+			int a= edgeA[k];
+			int b= edgeB[k];
+			int out= edgeOut[k];
+			tv[3 * t]= a;
+			tv[3 * t + 1]= b;
+			tv[3 * t + 2]= p;
+			tn[3 * t + 2]= out;
+			if (out != -1) {
+				// Point out's link across edge a -> b at t
+				for (int i= 0; i < 3; i++ ) {
+					int v= tv[3 * out + i];
+					if (v != a && v != b) tn[3 * out + i]= t;
+				}
+			}
+			fanFrom[a]= t;
+			fanTo[b]= t;
+		}
+		for (int k= 0; k < edgeSize; k++ ) {
+			int t= fanFrom[edgeA[k]];
+			tn[3 * t]= fanFrom[edgeB[k]];	// across b -> p
+			tn[3 * t + 1]= fanTo[edgeA[k]];	// across p -> a
+		}
+		last= fanFrom[edgeA[0]];
+	}
+
+	/** Return a triangle that contains point p, found by walking from the <br>
+	 * last triangle created toward p. */
+	private int locate(int p) {
+		int t= last;
+		int steps= 0;
+		walk: while (true) {
+			// Vary the first edge tried, so the walk cannot cycle
+			for (int k= 0; k < 3; k++ ) {
+				int i= (k + steps) % 3;
+				if (orient(tv[3 * t + (i + 1) % 3], tv[3 * t + (i + 2) % 3], p) < 0) {
+					t= tn[3 * t + i];
+					steps++ ;
+					continue walk;
+				}
+			}
+			return t;
+		}
+	}
+
+	/** Add triangle t to the hole. */
+	private void addToHole(int t) {
+		if (holeSize == hole.length) hole= Arrays.copyOf(hole, 2 * holeSize);
+		hole[holeSize++ ]= t;
+		mark[t]= 2 * stamp;
+	}
+
+	/** Add edge a -> b with triangle out outside it to the edges around the hole. */
+	private void addEdge(int a, int b, int out) {
+		if (edgeSize == edgeA.length) {
+			edgeA= Arrays.copyOf(edgeA, 2 * edgeSize);
+			edgeB= Arrays.copyOf(edgeB, 2 * edgeSize);
+			edgeOut= Arrays.copyOf(edgeOut, 2 * edgeSize);
+		}
+		edgeA[edgeSize]= a;
+		edgeB[edgeSize]= b;
+		edgeOut[edgeSize]= out;
+		edgeSize++ ;
+	}
+
+	/** Return the index of a new triangle slot. */
+	private int newTriangle() {
+		if (3 * size == tv.length) {
+			tv= Arrays.copyOf(tv, 2 * tv.length);
+			tn= Arrays.copyOf(tn, 2 * tn.length);
+			mark= Arrays.copyOf(mark, 2 * mark.length);
+		}
+		return size++ ;
+	}
+
+	/** Return the edges of the triangulation between the input points, <br>
+	 * in the form returned by edges(x, y, r). */
+	private int[] edges() {
+		int[] e= new int[6 * size];
+		int m= 0;
+		for (int t= 0; t < size; t++ ) {
+			for (int i= 0; i < 3; i++ ) {
+				int a= tv[3 * t + (i + 1) % 3];
+				int b= tv[3 * t + (i + 2) % 3];
+				int nb= tn[3 * t + i];
+				// Each inner edge is seen from both sides; take it from the lower triangle
+				if (a < n && b < n && (nb == -1 || t < nb)) {
+					e[m++ ]= a;
+					e[m++ ]= b;
+				}
+			}
+		}
+		return Arrays.copyOf(e, m);
+	}
+
+	/** Return a positive number if a, b, c turn counterclockwise, <br>
+	 * a negative one if clockwise, 0 if they are collinear. */
+	private int orient(int a, int b, int c) {
+		long d= (px[b] - px[a]) * (py[c] - py[a]) - (py[b] - py[a]) * (px[c] - px[a]);
+		return Long.signum(d);
+	}
+
+	/** Return true iff d is strictly inside the circle through a, b, c, <br>
+	 * which turn counterclockwise. */
+	private boolean inCircle(int a, int b, int c, int d) {
+		long adx= px[a] - px[d], ady= py[a] - py[d];
+		long bdx= px[b] - px[d], bdy= py[b] - py[d];
+		long cdx= px[c] - px[d], cdy= py[c] - py[d];
+		long alift= adx * adx + ady * ady;
+		long blift= bdx * bdx + bdy * bdy;
+		long clift= cdx * cdx + cdy * cdy;
+		long bc= bdx * cdy - cdx * bdy;
+		long ca= cdx * ady - adx * cdy;
+		long ab= adx * bdy - bdx * ady;
+
+		// The terms are exact longs; only their products can lose precision
+		double det= (double) alift * bc + (double) blift * ca + (double) clift * ab;
+		double bound= 1e-12 * ((double) alift * Math.abs(bc) + (double) blift * Math.abs(ca) +
+			(double) clift * Math.abs(ab));
+		if (det > bound) return true;
+		if (det < -bound) return false;
+
+		BigInteger exact= BigInteger.valueOf(alift).multiply(BigInteger.valueOf(bc))
+			.add(BigInteger.valueOf(blift).multiply(BigInteger.valueOf(ca)))
+			.add(BigInteger.valueOf(clift).multiply(BigInteger.valueOf(ab)));
+		return exact.signum() > 0;
+	}
+}
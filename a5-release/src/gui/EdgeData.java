@@ -1,6 +1,10 @@
 package gui;
 
 import java.awt.Color;
+import java.awt.geom.Line2D;
+import java.io.StringWriter;
+
+import org.json.JSONWriter;
 
 /** Class Edge allows creation of connections between Nodes.<br>
  * Each Edge is bidirectional and is connected to exactly two Nodes. <br>
@@ -29,7 +33,7 @@ public final class EdgeData implements GraphElement {
 	 * Uncorrelated with its graphical length on the GUI */
 	public final int length;
 
-	private Line line; // Graphical representation of this Edge
+	private Line line; // Graphical representation of this Edge (null until needed)
 
 	private final Graph graph;  // The graph tp which this Edge belongs
 
@@ -68,7 +72,6 @@ public final class EdgeData implements GraphElement {
 				" is an illegal value.");
 
 		length= lengthOfRoad;
-		line= new Line(firstExit.getCircle(), secondExit.getCircle(), this);
 	}
 
 	/** Return the graph to which this Edge belongs. */
@@ -144,6 +147,7 @@ public final class EdgeData implements GraphElement {
 
 	/** Return true iff node is one of the exits of this Edge. */
 	public boolean isExit(NodeData node) {
+		if (exits[0] == node || exits[1] == node) return true;
 		return exits[0].equals(node) || exits[1].equals(node);
 	}
 
@@ -159,22 +163,44 @@ public final class EdgeData implements GraphElement {
 	/** Return the other exit that is not equal to n. <br>
 	 * (Return null if n is neither of the nodes in exits.) */
 	public NodeData getOther(NodeData n) {
+		// nodes are unique within a graph, so identity almost always decides
+		if (exits[0] == n) return exits[1];
+		if (exits[1] == n) return exits[0];
 		if (exits[0].equals(n)) return exits[1];
 		if (exits[1].equals(n)) return exits[0];
 		return null;
 	}
 
-	/** Return the line that represents this edge graphically. */
+	/** Return the line that represents this edge graphically, <br>
+	 * creating it (and the circles of its exits) if it has none yet. */
 	public Line getLine() {
+		if (line == null)
+			line= new Line(exits[0].getCircle(), exits[1].getCircle(), this);
 		return line;
 	}
 
+	/** Return true iff this edge and e cross on the GUI, as by Line.intersects <br>
+	 * (so false if they share an endpoint). */
+	public boolean crosses(EdgeData e) {
+		return crosses(exits[0], exits[1], e.exits[0], e.exits[1]);
+	}
+
+	/** Return true iff the segments a1 -- a2 and b1 -- b2 between the nodes' <br>
+	 * locations on the GUI cross, as by Line.intersects. */
+	static boolean crosses(NodeData a1, NodeData a2, NodeData b1, NodeData b2) {
+		int ax1= a1.getGUIX(), ay1= a1.getGUIY(), ax2= a2.getGUIX(), ay2= a2.getGUIY();
+		int bx1= b1.getGUIX(), by1= b1.getGUIY(), bx2= b2.getGUIX(), by2= b2.getGUIY();
+		return !(ax1 == bx1 && ay1 == by1) && !(ax1 == bx2 && ay1 == by2) &&
+			!(ax2 == bx1 && ay2 == by1) && !(ax2 == bx2 && ay2 == by2) &&
+			Line2D.linesIntersect(ax1, ay1, ax2, ay2, bx1, by1, bx2, by2);
+	}
+
 	/** Return the color of this Edge, as it is painted on the GUI. <br>
 	 * Color of edges has no game significance, so this value may be <br>
 	 * changed during gameplay. */
 	@Override
 	public Color getColor() {
-		return line.getColor();
+		return line == null ? null : line.getColor();
 	}
 
 	/** Return false - the color of Edges is not significant */
@@ -216,10 +242,17 @@ public final class EdgeData implements GraphElement {
 	/** Return the exits and length for an edge's JSON string */
 	@Override
 	public String toJSONString() {
-		return "{\n" + Main.addQuotes(GraphElement.LOCATION_TOKEN) + ":[" +
-			Main.addQuotes(exits[0].name) + "," + Main.addQuotes(exits[1].name) + "]," +
-			"\n" + Main.addQuotes(GraphElement.LENGTH_TOKEN) + ":" + length +
-			"\n}";
+		StringWriter s= new StringWriter();
+		writeJSON(new JSONWriter(s));
+		return s.toString();
+	}
+
+	/** Write the JSON object of this edge (see toJSONString()) to json. */
+	protected void writeJSON(JSONWriter json) {
+		json.object()
+			.key(GraphElement.LOCATION_TOKEN).array().value(exits[0].name).value(exits[1].name).endArray()
+			.key(GraphElement.LENGTH_TOKEN).value(length)
+			.endObject();
 	}
 
 	/** Return a String to print when this object is drawn on a GUI */
@@ -232,21 +265,24 @@ public final class EdgeData implements GraphElement {
 	 * left corner of the line */
 	@Override
 	public int getRelativeX() {
-		return line.getXMid() - Math.min(line.getX1(), line.getX2()) + Line.LINE_THICKNESS;
+		int x1= exits[0].getGUIX(), x2= exits[1].getGUIX();
+		return (x1 + x2) / 2 - Math.min(x1, x2) + Line.LINE_THICKNESS;
 	}
 
 	/** Return the y location the name of this Edge relative to the top <br>
 	 * left corner of the line */
 	@Override
 	public int getRelativeY() {
-		return line.getYMid() - Math.min(line.getY1(), line.getY2()) + Line.LINE_THICKNESS * 3;
+		int y1= exits[0].getGUIY(), y2= exits[1].getGUIY();
+		return (y1 + y2) / 2 - Math.min(y1, y2) + Line.LINE_THICKNESS * 3;
 	}
 
 	/** Repaint the edge (the line). <br>
 	 * Parameters x and y unused but are included to comply with interface. */
 	@Override
 	public void updateGUILocation(int x, int y) {
-		getLine().fixBounds();
-		getLine().repaint();
+		if (line == null) return;
+		line.fixBounds();
+		line.repaint();
 	}
 }
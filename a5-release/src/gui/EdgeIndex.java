@@ -0,0 +1,219 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/** A spatial index of the lines of edges: a uniform grid of square cells, <br>
+ * each listing the edges whose line's bounding box overlaps it. The lines <br>
+ * are those between the nodes' locations on the GUI (see NodeData.getGUIX()), <br>
+ * so no Line components are needed. <br>
+ * Finding the edges that cross a line then takes time proportional to the <br>
+ * number of edges near it, not to the number of edges. <br>
+ * <br>
+ * The index keeps the cells an edge's line covered when it was added; <br>
+ * an edge whose nodes move must be removed before and added again after. */
+final class EdgeIndex {
+	private final int minX;		// the grid covers minX.. and minY.., in cells of side cellSize;
+	private final int minY;		// lines beyond it are put in the nearest cells
+	private final int cellSize;
+	private final int cols;
+	private final int rows;
+
+	// Edge k of the index is edges[k] (null once removed), with a line whose
+	// bounding box was left[k]..right[k] x top[k]..bottom[k] when it was added.
+	private EdgeData[] edges= new EdgeData[16];
+	private int[] left= new int[16];
+	private int[] right= new int[16];
+	private int[] top= new int[16];
+	private int[] bottom= new int[16];
+	private int size;
+
+	// cell[c][0 .. cellSize[c]-1] are the edges whose bounding box overlaps cell c,
+	// numbered row * cols + col; cell[c] is null if no edge ever did
+	private final int[][] cell;
+	private final int[] cellCount;
+
+	/** Constructor: an empty index over the rectangle (minX, minY) .. (maxX, maxY), <br>
+	 * with cells of side cellSize. */
+	EdgeIndex(int minX, int minY, int maxX, int maxY, int cellSize) {
+		this.minX= minX;
+		this.minY= minY;
+		this.cellSize= Math.max(1, cellSize);
+		cols= (maxX - minX) / this.cellSize + 1;
+		rows= (maxY - minY) / this.cellSize + 1;
+		cell= new int[cols * rows][];
+		cellCount= new int[cols * rows];
+	}
+
+	/** Return an index of edges, with cells about as large as their lines, <br>
+	 * and about as many cells as edges. */
+	static EdgeIndex of(Collection<EdgeData> edges) {
+		if (edges.isEmpty()) return new EdgeIndex(0, 0, 0, 0, 1);
+		int x0= Integer.MAX_VALUE, y0= Integer.MAX_VALUE;
+		int x1= Integer.MIN_VALUE, y1= Integer.MIN_VALUE;
+		long extent= 0;
+		for (EdgeData e : edges) {
+			NodeData a= e.getFirstExit(), b= e.getSecondExit();
+			x0= Math.min(x0, left(a, b));
+			y0= Math.min(y0, top(a, b));
+			x1= Math.max(x1, right(a, b));
+			y1= Math.max(y1, bottom(a, b));
+			extent+= Math.max(right(a, b) - left(a, b), bottom(a, b) - top(a, b));
+		}
+
+		double area= (double) (x1 - x0 + 1) * (y1 - y0 + 1);
+		int side= (int) Math.max(Math.sqrt(area / edges.size()), extent / edges.size()) + 1;
+		EdgeIndex index= new EdgeIndex(x0, y0, x1, y1, side);
+		// Add the edges cell by cell, so the edges of a cell are near in memory
+		EdgeData[] es= edges.toArray(new EdgeData[edges.size()]);
+		long[] order= new long[es.length];
+		for (int k= 0; k < es.length; k++ ) {
+			NodeData a= es[k].getFirstExit(), b= es[k].getSecondExit();
+			order[k]= (long) (index.row(top(a, b)) * index.cols + index.col(left(a, b))) << 32 | k;
+		}
+		Arrays.sort(order);
+		for (long o : order) {
+			index.add(es[(int) o]);
+		}
+		return index;
+	}
+
+	/** Add e, at the current place of its line. */
+	void add(EdgeData e) {
+		if (size == edges.length) {
+			edges= Arrays.copyOf(edges, 2 * size);
+			left= Arrays.copyOf(left, 2 * size);
+			right= Arrays.copyOf(right, 2 * size);
+			top= Arrays.copyOf(top, 2 * size);
+			bottom= Arrays.copyOf(bottom, 2 * size);
+		}
+		int k= size++ ;
+		NodeData a= e.getFirstExit(), b= e.getSecondExit();
+		edges[k]= e;
+		left[k]= left(a, b);
+		right[k]= right(a, b);
+		top[k]= top(a, b);
+		bottom[k]= bottom(a, b);
+		for (int r= row(top[k]); r <= row(bottom[k]); r++ ) {
+			for (int c= col(left[k]); c <= col(right[k]); c++ ) {
+				int i= r * cols + c;
+				if (cell[i] == null) cell[i]= new int[4];
+				else if (cellCount[i] == cell[i].length) cell[i]= Arrays.copyOf(cell[i], 2 * cellCount[i]);
+				cell[i][cellCount[i]++ ]= k;
+			}
+		}
+	}
+
+	/** Remove e, which was added with its line at the current place. */
+	void remove(EdgeData e) {
+		NodeData a= e.getFirstExit(), b= e.getSecondExit();
+		int removed= -1;
+		for (int r= row(top(a, b)); r <= row(bottom(a, b)); r++ ) {
+			for (int c= col(left(a, b)); c <= col(right(a, b)); c++ ) {
+				int i= r * cols + c;
+				for (int j= 0; j < cellCount[i]; j++ ) {
+					int k= cell[i][j];
+					if (edges[k] == e) {
+						cell[i][j]= cell[i][--cellCount[i]];
+						removed= k;
+						break;
+					}
+				}
+			}
+		}
+		// Clear the slot so the index does not keep e reachable
+		if (removed != -1) edges[removed]= null;
+	}
+
+	/** Return an edge in this index whose line crosses the line from a to b, <br>
+	 * as by EdgeData.crosses (null if there is none). */
+	EdgeData crossing(NodeData a, NodeData b) {
+		int x0= left(a, b), x1= right(a, b), y0= top(a, b), y1= bottom(a, b);
+		for (int r= row(y0); r <= row(y1); r++ ) {
+			for (int c= col(x0); c <= col(x1); c++ ) {
+				int i= r * cols + c;
+				for (int j= 0; j < cellCount[i]; j++ ) {
+					int k= cell[i][j];
+					if (left[k] <= x1 && right[k] >= x0 && top[k] <= y1 && bottom[k] >= y0 &&
+						EdgeData.crosses(a, b, edges[k].getFirstExit(), edges[k].getSecondExit())) {
+						return edges[k];
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/** Return the pairs of edges in this index whose lines cross, as by <br>
+	 * EdgeData.crosses, each pair once; stop after limit pairs. <br>
+	 * <br>
+	 * Only edges that share a cell can intersect. In each cell, the edges are <br>
+	 * swept from left to right, so an edge is only compared with the edges <br>
+	 * that start before it ends (sweep and prune). A pair whose bounding boxes <br>
+	 * overlap in several cells is reported only in the cell containing the top <br>
+	 * left corner of the overlap. */
+	List<EdgeData[]> intersections(int limit) {
+		List<EdgeData[]> found= new ArrayList<>();
+		long[] sweep= new long[16];
+		for (int r= 0; r < rows; r++ ) {
+			for (int c= 0; c < cols; c++ ) {
+				int i= r * cols + c;
+				int count= cellCount[i];
+				if (count < 2) continue;
+				// Sort the cell's edges by left end: the left end in the high half
+				if (sweep.length < count) sweep= new long[2 * count];
+				for (int j= 0; j < count; j++ ) {
+					int k= cell[i][j];
+					sweep[j]= (long) left[k] << 32 | k;
+				}
+				Arrays.sort(sweep, 0, count);
+				for (int a= 0; a < count; a++ ) {
+					int k= (int) sweep[a];
+					for (int b= a + 1; b < count; b++ ) {
+						int h= (int) sweep[b];
+						if (left[h] > right[k]) break;
+						if (top[h] > bottom[k] || bottom[h] < top[k]) continue;
+						if (row(Math.max(top[k], top[h])) != r || col(left[h]) != c) continue;
+						if (edges[k].crosses(edges[h])) {
+							found.add(new EdgeData[] { edges[k], edges[h] });
+							if (found.size() >= limit) return found;
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/** Return the column of the cell containing x. */
+	private int col(int x) {
+		return Math.max(0, Math.min(cols - 1, (x - minX) / cellSize));
+	}
+
+	/** Return the row of the cell containing y. */
+	private int row(int y) {
+		return Math.max(0, Math.min(rows - 1, (y - minY) / cellSize));
+	}
+
+	/** Return the smallest x of the line from a to b. */
+	private static int left(NodeData a, NodeData b) {
+		return Math.min(a.getGUIX(), b.getGUIX());
+	}
+
+	/** Return the largest x of the line from a to b. */
+	private static int right(NodeData a, NodeData b) {
+		return Math.max(a.getGUIX(), b.getGUIX());
+	}
+
+	/** Return the smallest y of the line from a to b. */
+	private static int top(NodeData a, NodeData b) {
+		return Math.min(a.getGUIY(), b.getGUIY());
+	}
+
+	/** Return the largest y of the line from a to b. */
+	private static int bottom(NodeData a, NodeData b) {
+		return Math.max(a.getGUIY(), b.getGUIY());
+	}
+}
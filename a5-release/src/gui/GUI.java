@@ -4,6 +4,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -46,8 +47,10 @@ public class GUI extends JFrame {
 	public static final int UPDATE_PANEL_HEIGHT= 100;
 	public static final int SIDE_PANEL_WIDTH= 300;
 
+	// Without a screen (a graph loaded only for routing), scale as for a 1600 x 1200 one
 	static {
-		Dimension s= Toolkit.getDefaultToolkit().getScreenSize();
+		Dimension s= GraphicsEnvironment.isHeadless() ? new Dimension(1600, 1200)
+			: Toolkit.getDefaultToolkit().getScreenSize();
 		DRAWING_BOARD_WIDTH= s.width - SIDE_PANEL_WIDTH - 2 * X_OFFSET;
 		DRAWING_BOARD_HEIGHT= (int) (s.height * 0.8) - UPDATE_PANEL_HEIGHT - 2 * Y_OFFSET;
 	}
@@ -288,9 +291,8 @@ public class GUI extends JFrame {
 		double widthRatio= (double) newSize.width / (double) drawingBoardWidth;
 
 		for (NodeData n : board.getNodes()) {
-			Circle c= n.getCircle();
-			n.updateGUILocation((int) Math.round(c.getX1() * widthRatio),
-				(int) Math.round(c.getY1() * heightRatio));
+			n.updateGUILocation((int) Math.round(n.getGUIX() * widthRatio),
+				(int) Math.round(n.getGUIY() * heightRatio));
 		}
 
 		drawingBoardWidth= newSize.width;
@@ -310,9 +312,8 @@ public class GUI extends JFrame {
 		double widthRatio= (double) newSize.width / (double) DRAWING_BOARD_WIDTH;
 
 		for (NodeData n : board.getNodes()) {
-			Circle c= n.getCircle();
-			n.updateGUILocation((int) Math.round(c.getX1() * widthRatio),
-				(int) Math.round(c.getY1() * heightRatio));
+			n.updateGUILocation((int) Math.round(n.getGUIX() * widthRatio),
+				(int) Math.round(n.getGUIY() * heightRatio));
 		}
 
 		updateSidePanel();
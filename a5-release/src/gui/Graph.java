@@ -1,23 +1,49 @@
 package gui;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONString;
+import org.json.JSONTokener;
+import org.json.JSONWriter;
+
+import graph.CompiledGraph;
+import graph.MappedGraph;
+import graph.UnionFind;
 
 /** An instance contains HashSets of Edges and Nodes that make up the graph. <br>
  * <br>
@@ -37,8 +63,22 @@ public final class Graph implements JSONString {
 
 	private HashSet<NodeData> nodes= new HashSet<>();    // All nodes in this graph
 
+	// Index of nodes: nodesByName.get(s) is the node named s, and <br>
+	// nodesById.get(i) is the node with id i. Maintained by addNode.
+	private HashMap<String, NodeData> nodesByName= new HashMap<>();
+	private ArrayList<NodeData> nodesById= new ArrayList<>();
+
 	public GUI gui= null;
 
+	private Adapter adapter= null;	// view of this graph for a5, made by adapter()
+
+	private EdgeIndex generationIndex= null;	// lines of the edges, while being generated
+
+	// The connected components of the nodes, by id: kept up to date as exits <br>
+	// are added, and set to null when one is removed, until connected() <br>
+	// rebuilds them from the exits of all nodes.
+	private UnionFind components= new UnionFind(0);
+
 	/** Constructor: a graph from the given serialized version of the graph for g */
 	protected Graph(JSONObject obj) {
 		// Read seed if possible; otherwise use -1.
@@ -59,47 +99,231 @@ public final class Graph implements JSONString {
 		readEdges(obj);
 	}
 
+	/** Constructor: a graph read from x, a stream of the serialized version <br>
+	 * of a graph (see readJsonGraph(Reader)). */
+	protected Graph(JSONTokener x) {
+		long s= -1;
+		ArrayList<JSONObject> pending= new ArrayList<>(); // edges read before a node of theirs
+
+		if (x.nextClean() != '{') throw x.syntaxError("A graph must begin with '{'");
+		boolean more= x.nextClean() != '}';
+		if (more) x.back();
+		// inv: all members before the next one have been read; their nodes and <br>
+		// edges are in this graph, or, for edges with an unread node, in pending.
+		while (more) {
+			String key= x.nextValue().toString();
+			if (x.nextClean() != ':') throw x.syntaxError("Expected a ':' after a key");
+
+			if (key.startsWith(Graph.NODE_TOKEN)) {
+				scaleComponent(readNode(new JSONObject(x)));
+			} else if (key.startsWith(Graph.EDGE_TOKEN)) {
+				JSONObject edgeJSON= new JSONObject(x);
+				if (!readEdge(edgeJSON)) pending.add(edgeJSON);
+			} else if (key.equals(SEED_TOKEN)) {
+				Object v= x.nextValue();
+				if (!(v instanceof Number)) throw x.syntaxError("Expected a number for " + key);
+				s= ((Number) v).longValue();
+			} else {
+				x.nextValue(); // trucks, parcels, score coefficients: not part of the graph
+			}
+
+			// Members are separated by ','; toJSONString() also writes one after the last
+			char c= x.nextClean();
+			if (c == '}') more= false;
+			else if (c != ',') throw x.syntaxError("Expected a ',' or '}'");
+			else if (x.nextClean() == '}') more= false;
+			else x.back();
+		}
+		seed= s;
+
+		for (JSONObject edgeJSON : pending) {
+			if (!readEdge(edgeJSON)) throw new JSONException("Edge with unknown node: " + edgeJSON);
+		}
+	}
+
+	/** Constructor: a graph from the members of a serialized graph, tokenized <br>
+	 * in parallel on pool (see parseJsonGraph(String, ForkJoinPool)). */
+	private Graph(MapSections sections, ForkJoinPool pool) {
+		seed= sections.seed;
+		NodeData[] parsedNodes= new NodeData[sections.nodeCount];
+		JSONObject[] parsedEdges= new JSONObject[sections.edgeCount];
+		pool.invoke(new ParseMembers(this, sections, parsedNodes, parsedEdges, 0,
+			sections.nodeCount + sections.edgeCount));
+
+		// Publish the nodes, then link each edge to the nodes named in it
+		for (NodeData n : parsedNodes) {
+			addNode(n);
+		}
+		for (JSONObject edgeJSON : parsedEdges) {
+			if (!readEdge(edgeJSON)) throw new JSONException("Edge with unknown node: " + edgeJSON);
+		}
+	}
+
+	/** Number of members of a serialized graph tokenized by one task of <br>
+	 * parseJsonGraph; a graph with fewer is read on one thread. */
+	private static final int PARALLEL_CHUNK= 2048;
+
+	/** Tokenizes the members first .. last-1 of a serialized graph, where member <br>
+	 * k is node k if k < nodeCount and else edge k - nodeCount, splitting in <br>
+	 * halves down to PARALLEL_CHUNK members. A node is built and scaled as it is <br>
+	 * read, but not added to the graph. Each task only writes the slots of its <br>
+	 * own members in nodes and edges, so tasks share nothing. */
+	@SuppressWarnings("serial")
+	private static class ParseMembers extends RecursiveAction {
+		private final Graph g;
+		private final MapSections sections;
+		private final NodeData[] nodes;
+		private final JSONObject[] edges;
+		private final int first;
+		private final int last;
+
+		ParseMembers(Graph g, MapSections sections, NodeData[] nodes, JSONObject[] edges,
+			int first, int last) {
+			this.g= g;
+			this.sections= sections;
+			this.nodes= nodes;
+			this.edges= edges;
+			this.first= first;
+			this.last= last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > PARALLEL_CHUNK) {
+				int mid= (first + last) >>> 1;
+				invokeAll(new ParseMembers(g, sections, nodes, edges, first, mid),
+					new ParseMembers(g, sections, nodes, edges, mid, last));
+				return;
+			}
+			for (int k= first; k < last; k++ ) {
+				if (k < nodes.length) {
+					NodeData n= g.newNode(sections.node(k));
+					g.scaleComponent(n);
+					nodes[k]= n;
+				} else {
+					edges[k - nodes.length]= sections.edge(k - nodes.length);
+				}
+			}
+		}
+	}
+
 	/** Return a graph constructed from obj. */
 	public static Graph getJsonGraph(JSONObject obj) {
 		return new Graph(obj);
 	}
 
+	/** Return the graph serialized in JSON (as by toJSONString()) in file f, <br>
+	 * which may be gzip-compressed (as by writeJSON(f, true)). <br>
+	 * See readJsonGraph(Reader). Throw an IOException if f cannot be read. */
+	public static Graph readJsonGraph(File f) throws IOException {
+		InputStream in= new BufferedInputStream(new FileInputStream(f), 1 << 16);
+		// gzip streams start with the bytes 0x1f 0x8b
+		in.mark(2);
+		boolean gzip= in.read() == 0x1f && in.read() == 0x8b;
+		in.reset();
+		if (gzip) in= new GZIPInputStream(in, 1 << 16);
+		try (BufferedReader r= new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			return readJsonGraph(r);
+		}
+	}
+
+	/** Return the graph serialized in JSON (as by toJSONString()) on in. <br>
+	 * Unlike getJsonGraph, this never holds the whole text in memory: each <br>
+	 * node and edge is added to the graph as soon as it has been read, except <br>
+	 * that an edge that comes before one of its nodes waits until the end. <br>
+	 * in is not closed. Throw a JSONException if the text is malformed. */
+	public static Graph readJsonGraph(Reader in) {
+		return new Graph(new JSONTokener(in));
+	}
+
+	/** Return the graph serialized in JSON (as by toJSONString()) in text, <br>
+	 * read in parallel on the common fork-join pool. <br>
+	 * See parseJsonGraph(String, ForkJoinPool). */
+	public static Graph parseJsonGraph(String text) {
+		return parseJsonGraph(text, ForkJoinPool.commonPool());
+	}
+
+	/** Return the graph serialized in JSON (as by toJSONString()) in text, <br>
+	 * read in parallel on pool, for large maps whose text fits in memory: <br>
+	 * 1. One scan of text splits it into its node and edge members, without <br>
+	 * .. tokenizing them (see MapSections). <br>
+	 * 2. Tasks of pool tokenize chunks of the members, building the NodeData <br>
+	 * .. of each node, into slots of arrays that no other task writes. <br>
+	 * 3. On this thread, the nodes are added to this graph in the order of <br>
+	 * .. the text, and each edge is looked up in the name index, made, and <br>
+	 * .. linked to its nodes. <br>
+	 * Throw a JSONException if the text is malformed or an edge has a node <br>
+	 * that is not in the text. */
+	public static Graph parseJsonGraph(String text, ForkJoinPool pool) {
+		return new Graph(MapSections.split(text), pool);
+	}
+
 	/** Read in all nodes of the graph from obj. */
 	private void readNodes(JSONObject obj) {
 		for (String key : obj.keySet()) {
 			if (key.startsWith(Graph.NODE_TOKEN)) {
-				JSONObject nodeJSON= obj.getJSONObject(key);
-				NodeData n= new NodeData(this, nodeJSON.getString(GraphElement.NAME_TOKEN), null);
-				Circle c= n.getCircle();
-				c.setX1(nodeJSON.getInt(GraphElement.X_TOKEN));
-				c.setY1(nodeJSON.getInt(GraphElement.Y_TOKEN));
-				n.x= c.getX1();
-				n.y= c.getY1();
-				getNodes().add(n);
+				readNode(obj.getJSONObject(key));
 			}
 		}
 	}
 
+	/** Add the node described by nodeJSON to this graph and return it. */
+	private NodeData readNode(JSONObject nodeJSON) {
+		NodeData n= newNode(nodeJSON);
+		addNode(n);
+		return n;
+	}
+
+	/** Return a new node of this graph described by nodeJSON, not yet added to it. */
+	private NodeData newNode(JSONObject nodeJSON) {
+		NodeData n= new NodeData(this, nodeJSON.getString(GraphElement.NAME_TOKEN), null);
+		n.x= nodeJSON.getInt(GraphElement.X_TOKEN);
+		n.y= nodeJSON.getInt(GraphElement.Y_TOKEN);
+		n.setGUILocation(n.x, n.y);
+		return n;
+	}
+
 	/** Read in all edges of the graph from obj. <br>
 	 * Precondition: All nodes must have already been read in */
 	private void readEdges(JSONObject obj) {
 		for (String key : obj.keySet()) {
 			if (key.startsWith(Graph.EDGE_TOKEN)) {
 				JSONObject edgeJSON= obj.getJSONObject(key);
-				JSONArray exitArr= edgeJSON.getJSONArray(GraphElement.LOCATION_TOKEN);
-
-				int length= edgeJSON.getInt(GraphElement.LENGTH_TOKEN);
-				NodeData firstExit= getNode((String) exitArr.get(0));
-				NodeData secondExit= getNode((String) exitArr.get(1));
-
-				EdgeData e= new EdgeData(this, firstExit, secondExit, length);
-				getEdges().add(e);
-				firstExit.addExit(e);
-				secondExit.addExit(e);
+				if (!readEdge(edgeJSON)) throw new JSONException("Edge with unknown node: " + edgeJSON);
 			}
 		}
 	}
 
+	/** Add the edge described by edgeJSON to this graph and return true. <br>
+	 * Return false and add nothing if a node of the edge is not in this graph. */
+	private boolean readEdge(JSONObject edgeJSON) {
+		EdgeData e= newEdge(edgeJSON);
+		if (e == null) return false;
+		linkEdge(e);
+		return true;
+	}
+
+	/** Return a new edge of this graph described by edgeJSON, not yet added <br>
+	 * to it or to its nodes; null if a node of the edge is not in this graph. <br>
+	 * The nodes are looked up in the name index, which has every node read in. */
+	private EdgeData newEdge(JSONObject edgeJSON) {
+		JSONArray exitArr= edgeJSON.getJSONArray(GraphElement.LOCATION_TOKEN);
+
+		int length= edgeJSON.getInt(GraphElement.LENGTH_TOKEN);
+		NodeData firstExit= nodesByName.get((String) exitArr.get(0));
+		NodeData secondExit= nodesByName.get((String) exitArr.get(1));
+		if (firstExit == null || secondExit == null) return null;
+
+		return new EdgeData(this, firstExit, secondExit, length);
+	}
+
+	/** Add e to this graph and to the exits of its nodes. */
+	private void linkEdge(EdgeData e) {
+		getEdges().add(e);
+		e.getFirstExit().addExit(e);
+		e.getSecondExit().addExit(e);
+	}
+
 	/** Return a random node in this board */
 	public NodeData getRandomNode() {
 		return Main.randomElement(nodes);
@@ -116,21 +340,98 @@ public final class Graph implements JSONString {
 		return nodes;
 	}
 
+	/** Return the Adapter that views this graph as a graph.Graph. <br>
+	 * All callers share one Adapter, so its node wrappers and edge maps <br>
+	 * are built once per graph rather than once per search. */
+	public synchronized Adapter adapter() {
+		if (adapter == null) adapter= new Adapter(this);
+		return adapter;
+	}
+
+	/** Drop the shared Adapter, whose edge maps no longer match the edges, <br>
+	 * and join the components of the nodes of e. <br>
+	 * Called whenever e is added to the exits of a node. */
+	protected synchronized void exitAdded(EdgeData e) {
+		adapter= null;
+		if (components != null && !join(components, e)) components= null;
+	}
+
+	/** Drop the shared Adapter, whose edge maps no longer match the edges, <br>
+	 * and the components, which e may have split. <br>
+	 * Called whenever e is removed from the exits of a node. */
+	protected synchronized void exitRemoved(EdgeData e) {
+		adapter= null;
+		components= null;
+	}
+
+	/** Return true iff there is a path between a and b. <br>
+	 * Takes constant time, except that the first call after an edge was <br>
+	 * removed takes time linear in the size of this graph. <br>
+	 * Also returns true if a or b is not in this graph's index (see <br>
+	 * NodeData.getId()), or an edge has a node that is not: then it cannot tell. */
+	public synchronized boolean connected(NodeData a, NodeData b) {
+		if (a.getGraph() != this || b.getGraph() != this || a.id < 0 || b.id < 0) return true;
+		if (components == null) {
+			UnionFind c= new UnionFind(nodesById.size());
+			for (NodeData n : nodes) {
+				for (EdgeData e : n.getTrueExits()) {
+					if (!join(c, e)) return true;
+				}
+			}
+			components= c;
+		}
+		return components.connected(a.id, b.id);
+	}
+
+	/** Put the nodes of e in the same set of c, and return true. <br>
+	 * Return false if a node of e has no id. */
+	private static boolean join(UnionFind c, EdgeData e) {
+		int i= e.getFirstExit().id;
+		int j= e.getSecondExit().id;
+		if (i < 0 || j < 0) return false;
+		c.union(i, j);
+		return true;
+	}
+
 	/** Return the number of Nodes in this graph */
 	public int getNodesSize() {
 		return nodes.size();
 	}
 
-	/** Return the NodeData named name in this board if it exists, null otherwise. */
-	public NodeData getNode(String name) {
-		for (NodeData n : nodes) {
-			if (n.name.equals(name))
-				return n;
+	/** Add n to this graph's nodes and to the name index, and give it <br>
+	 * the next id. Drop the shared Adapter, which does not have n. <br>
+	 * Precondition: no node of this graph is named n.name. */
+	private void addNode(NodeData n) {
+		nodes.add(n);
+		nodesByName.put(n.name, n);
+		n.id= nodesById.size();
+		nodesById.add(n);
+		synchronized (this) {
+			adapter= null;
+			if (components != null) components.add();
 		}
+	}
 
+	/** Return the NodeData named name in this board if it exists, null otherwise. <br>
+	 * Takes constant time, except for nodes added through getNodes(). */
+	public NodeData getNode(String name) {
+		NodeData n= nodesByName.get(name);
+		if (n != null || nodesByName.size() == nodes.size()) return n;
+
+		// someone added nodes without going through addNode
+		for (NodeData m : nodes) {
+			if (m.name.equals(name))
+				return m;
+		}
 		return null;
 	}
 
+	/** Return the node with id id (see NodeData.getId()). <br>
+	 * Precondition: 0 <= id < number of nodes added by this graph. */
+	public NodeData getNode(int id) {
+		return nodesById.get(id);
+	}
+
 	/** Return the set of Edges in this board. <br>
 	 * Technically allows addition and removal of Edges to this board - BUT DON'T DO IT. */
 	public HashSet<EdgeData> getEdges() {
@@ -148,14 +449,7 @@ public final class Graph implements JSONString {
 	 * Has nothing to say about the non-GUI version of the graph. <br>
 	 * Students: not Useful for you. */
 	public boolean isIntersection() {
-		for (EdgeData r : edges) {
-			for (EdgeData r2 : edges) {
-				if (!r.equals(r2) && r.getLine().intersects(r2.getLine()))
-					return true;
-			}
-		}
-
-		return false;
+		return getAIntersection() != null;
 	}
 
 	/** Update the Minimum and Maximum lengths of all edge instances. <br>
@@ -188,62 +482,104 @@ public final class Graph implements JSONString {
 	 * Has nothing to say about the non-GUI version of the board. <br>
 	 * Students: Not useful */
 	public EdgeData[] getAIntersection() {
-		for (EdgeData r : edges) {
-			for (EdgeData r2 : edges) {
-				if (!r.equals(r2) && r.getLine().intersects(r2.getLine())) {
-					return new EdgeData[] { r, r2 };
-				}
-			}
-		}
+		List<EdgeData[]> found= EdgeIndex.of(edges).intersections(1);
+		return found.isEmpty() ? null : found.get(0);
+	}
 
-		return null;
+	/** Return every pair of edges that have lines that intersect, each pair once, <br>
+	 * in time about linear in the number of edges and intersections. <br>
+	 * Used for GUI intersection detection, like getAIntersection(). */
+	public List<EdgeData[]> getIntersections() {
+		return EdgeIndex.of(edges).intersections(Integer.MAX_VALUE);
 	}
 
 	/** Return a String representation of this board, including edges and nodes. */
 	@Override
 	public String toString() {
-		String output= "";
+		StringBuilder output= new StringBuilder();
 		Iterator<NodeData> nodesIterator= nodes.iterator();
 		while (nodesIterator.hasNext()) {
 			NodeData n= nodesIterator.next();
-			output+= n + "\t";
+			output.append(n).append('\t');
 			Iterator<EdgeData> roadsIterator= n.getTrueExits().iterator();
 			while (roadsIterator.hasNext()) {
 				EdgeData r= roadsIterator.next();
-				output+= r.getOther(n).name + "-" + r.length;
+				output.append(r.getOther(n).name).append('-').append(r.length);
 				if (roadsIterator.hasNext())
-					output+= "\t";
+					output.append('\t');
 			}
 			if (nodesIterator.hasNext())
-				output+= "\n";
+				output.append('\n');
 		}
-		return output;
+		return output.toString();
+	}
+
+	/** Write this graph to file p in the binary format of graph.MappedGraph, <br>
+	 * each node at its (x, y) location in project space. MappedGraph.open(p) <br>
+	 * then gives a read-only view of this graph without parsing anything. */
+	public void writeMapped(Path p) throws IOException {
+		MappedGraph.write(CompiledGraph.compile(adapter()), n -> n.impl().x, n -> n.impl().y, p);
 	}
 
 	private static final String SCORE_TOKEN= "scoreCoeff";
-	private static final String NODE_TOKEN= "node-";
-	private static final String EDGE_TOKEN= "edge-";
-	private static final String SEED_TOKEN= "seed";
+	static final String NODE_TOKEN= "node-";
+	static final String EDGE_TOKEN= "edge-";
+	static final String SEED_TOKEN= "seed";
 
 	/** Return a JSON-compliant version of toString(). <br>
 	 * A full serialized version of the board, including: <br>
-	 * .... > Seed > Cost constants > Nodes > Edges > Trucks > Parcels */
+	 * .... > Seed > Cost constants > Nodes > Edges > Trucks > Parcels <br>
+	 * To save a large board, use writeJSON, which needs no String this big. */
 	@Override
 	public String toJSONString() {
-		String s= "{\n" + Main.addQuotes(SEED_TOKEN) + ":" + seed + ",\n";
+		StringWriter s= new StringWriter();
+		writeJSON(s);
+		return s.toString();
+	}
+
+	/** Write the JSON serialization of this graph (see toJSONString()) to w, <br>
+	 * in time and extra space linear in the size of the graph. <br>
+	 * The score coefficients are written as an empty array, since a Graph <br>
+	 * does not keep them. w is flushed but not closed. <br>
+	 * Throw a JSONException if w throws an IOException. */
+	public void writeJSON(Writer w) {
+		JSONWriter json= new JSONWriter(w);
+		json.object();
+		json.key(SEED_TOKEN).value(seed);
+		json.key(SCORE_TOKEN).array().endArray();
 
 		int i= 0;
 		for (NodeData n : nodes) {
-			s+= "\n" + Main.addQuotes(NODE_TOKEN + i) + ":" + n.toJSONString() + ",";
+			json.key(NODE_TOKEN + i);
+			n.writeJSON(json);
 			i++ ;
 		}
 		i= 0;
 		for (EdgeData e : edges) {
-			s+= "\n" + Main.addQuotes(EDGE_TOKEN + i) + ":" + e.toJSONString() + ",";
+			json.key(EDGE_TOKEN + i);
+			e.writeJSON(json);
 			i++ ;
 		}
+		json.endObject();
 
-		return s + "\n}";
+		try {
+			w.flush();
+		} catch (IOException e) {
+			throw new JSONException(e);
+		}
+	}
+
+	/** Write the JSON serialization of this graph to file f, gzip-compressed <br>
+	 * iff gzip. readJsonGraph(f) reads either form back. */
+	public void writeJSON(File f, boolean gzip) throws IOException {
+		OutputStream out= new FileOutputStream(f);
+		if (gzip) out= new GZIPOutputStream(out, 1 << 16);
+		try (Writer w= new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+			writeJSON(w);
+		} catch (JSONException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw e;
+		}
 	}
 
 	//////////////////////////////////////////////////////////////////////////////
@@ -263,21 +599,49 @@ public final class Graph implements JSONString {
 		return new Graph(new Random(s), s);
 	}
 
+	/** Return a new random graph with numNodes nodes, seeded with s. <br>
+	 * The board grows with numNodes, so it can be much larger than the GUI; <br>
+	 * this is meant for generating big maps, e.g. of 10^5 or 10^6 nodes. <br>
+	 * The same s and numNodes always give the same graph. <br>
+	 * Throw an IllegalArgumentException if numNodes < 1. */
+	public static Graph randomBoard(long s, int numNodes) {
+		if (numNodes < 1)
+			throw new IllegalArgumentException("A board needs at least one node, not " + numNodes);
+		return new Graph(new Random(s), s, numNodes);
+	}
+
 	/** Constructor: a new random graph seeded with s and using Random parameter r */
 	private Graph(Random r, long s) {
+		this(r, s, -1);
+	}
+
+	/** Constructor: a new random graph seeded with s and using Random parameter r, <br>
+	 * with numNodes nodes (-1 for a board of the usual size). */
+	private Graph(Random r, long s, int numNodes) {
 		seed= s;
 
 		// Do board generation
-		GraphGeneration.gen(this, r);
+		if (numNodes == -1) GraphGeneration.gen(this, r);
+		else GraphGeneration.genLarge(this, r, numNodes);
 
 		// Finish setting things
 		scaleComponents();
 		updateMinMaxLength();
 	}
 
-	/** Set the GUI to g. */
+	/** Set the GUI to g. <br>
+	 * The Circles of the nodes and Lines of the edges are created only now, <br>
+	 * when there is a GUI to show them: a graph that is only used for <br>
+	 * routing never has any Swing components. */
 	public void setGUI(GUI g) {
 		gui= g;
+		if (g == null) return;
+		for (NodeData n : getNodes()) {
+			n.getCircle();
+		}
+		for (EdgeData e : getEdges()) {
+			e.getLine();
+		}
 	}
 
 	/** Library for random graph generation. <br>
@@ -310,6 +674,8 @@ public final class Graph implements JSONString {
 		 * @param b - a blank graph to put stuff on.
 		 * @param r - a randomer to use for all random decisions. */
 		private static void gen(Graph b, Random r) {
+			b.generationIndex= new EdgeIndex(0, 0, WIDTH + 2 * BUFFER, HEIGHT + 2 * BUFFER,
+				Circle.BUFFER_RADUIS * 2);
 			final int numCities= r.nextInt(MAX_NODES - MIN_NODES + 1) + MIN_NODES;
 			ArrayList<String> cities= cityNames();
 			// Create nodes and add to board
@@ -321,30 +687,164 @@ public final class Graph implements JSONString {
 					name= cities.remove(r.nextInt(cities.size()));
 				}
 				NodeData n= new NodeData(b, name, null);
-				Circle c= n.getCircle();
-				c.setX1(-Circle.DEFAULT_DIAMETER);
-				c.setY1(-Circle.DEFAULT_DIAMETER);
-				while (c.getX1() == -Circle.DEFAULT_DIAMETER ||
-					c.getY1() == -Circle.DEFAULT_DIAMETER) {
+				n.setGUILocation(-Circle.DEFAULT_DIAMETER, -Circle.DEFAULT_DIAMETER);
+				while (n.getGUIX() == -Circle.DEFAULT_DIAMETER ||
+					n.getGUIY() == -Circle.DEFAULT_DIAMETER) {
 					// Try setting to a new location
-					c.setX1(r.nextInt(WIDTH + 1) + BUFFER);
-					c.setY1(r.nextInt(HEIGHT + 1) + BUFFER);
+					int x= r.nextInt(WIDTH + 1) + BUFFER;
+					n.setGUILocation(x, r.nextInt(HEIGHT + 1) + BUFFER);
 					// Check other existing nodes. If too close, re-randomize this node's location
 					for (NodeData n2 : b.getNodes()) {
-						if (n2.getCircle().getDistance(c) < Circle.BUFFER_RADUIS) {
-							c.setX1(-Circle.DEFAULT_DIAMETER);
-							c.setY1(-Circle.DEFAULT_DIAMETER);
+						if (n2.getGUIDistance(n) < Circle.BUFFER_RADUIS) {
+							n.setGUILocation(-Circle.DEFAULT_DIAMETER, -Circle.DEFAULT_DIAMETER);
 							break;
 						}
 					}
 				}
-				n.x= n.getCircle().getX1();
-				n.y= n.getCircle().getY1();
+				n.x= n.getGUIX();
+				n.y= n.getGUIY();
 
-				b.getNodes().add(n);
+				b.addNode(n);
 			}
 
 			spiderwebEdges(b, r);
+			b.generationIndex= null;
+		}
+
+		/** Number of nodes per WIDTH x HEIGHT area on boards made by genLarge: <br>
+		 * about the density of a board made by gen. */
+		private static final int NODES_PER_AREA= (MIN_NODES + MAX_NODES) / 2;
+
+		/** Generate a board of numCities nodes for b, using r for all random decisions. <br>
+		 * Unlike gen, this takes time O(n log n) for n nodes, so it can build <br>
+		 * boards of any size: <br>
+		 * - The board area grows with numCities to keep the density of gen. <br>
+		 * - Nodes are placed at random, rejecting a place that is too close <br>
+		 * .. to another node; nodes are bucketed in a grid of cells of side <br>
+		 * .. Circle.BUFFER_RADUIS, so only the 9 cells around a place are checked. <br>
+		 * - The edges are a random subset of the Delaunay triangulation of the <br>
+		 * .. nodes: a spanning tree, to keep the graph connected, and then random <br>
+		 * .. others until there are AVERAGE_DEGREE times as many edges as nodes. <br>
+		 * .. Being part of a triangulation, the edges do not cross. <br>
+		 * Names come from the list of city names, with " 2", " 3", ... added <br>
+		 * once the list runs out. */
+		private static void genLarge(Graph b, Random r, int numCities) {
+			double scale= Math.sqrt(Math.max(1.0, numCities / (double) NODES_PER_AREA));
+			int width= (int) (WIDTH * scale);
+			int height= (int) (HEIGHT * scale);
+
+			// Place the nodes. head[cell] is the last node placed in the cell,
+			// below[i] the node placed in the cell of node i before i (-1 if none).
+			final int cell= Circle.BUFFER_RADUIS;
+			int cols= width / cell + 1;
+			int rows= height / cell + 1;
+			int[] head= new int[cols * rows];
+			Arrays.fill(head, -1);
+			int[] below= new int[numCities];
+			int[] x= new int[numCities];
+			int[] y= new int[numCities];
+			for (int i= 0; i < numCities; i++ ) {
+				do {
+					x[i]= r.nextInt(width + 1);
+					y[i]= r.nextInt(height + 1);
+				} while (hasNodeNear(x[i], y[i], x, y, head, below, cols, rows));
+				int c= y[i] / cell * cols + x[i] / cell;
+				below[i]= head[c];
+				head[c]= i;
+			}
+
+			ArrayList<String> cities= cityNames();
+			if (cities.isEmpty()) cities.add("City");
+			Collections.shuffle(cities, r);
+			HashSet<String> names= new HashSet<>();
+			NodeData[] nodes= new NodeData[numCities];
+			for (int i= 0; i < numCities; i++ ) {
+				String name;
+				if (i == 0) {
+					name= Graph.FIRST_CITY;
+				} else {
+					int round= (i - 1) / cities.size();
+					name= cities.get((i - 1) % cities.size());
+					if (round > 0) name= name + " " + (round + 1);
+				}
+				while (!names.add(name)) {
+					name= name + "'";
+				}
+				NodeData n= new NodeData(b, name, null);
+				n.x= x[i] + BUFFER;
+				n.y= y[i] + BUFFER;
+				n.setGUILocation(n.x, n.y);
+				b.addNode(n);
+				nodes[i]= n;
+			}
+
+			// Shuffle the triangulation's edges, then keep a spanning tree
+			// and as many others as needed.
+			int[] e= Delaunay.edges(x, y, r);
+			int m= e.length / 2;
+			for (int k= m - 1; k > 0; k-- ) {
+				int j= r.nextInt(k + 1);
+				int a= e[2 * k], c= e[2 * k + 1];
+				e[2 * k]= e[2 * j];
+				e[2 * k + 1]= e[2 * j + 1];
+				e[2 * j]= a;
+				e[2 * j + 1]= c;
+			}
+			int[] component= new int[numCities];
+			for (int i= 0; i < numCities; i++ ) {
+				component[i]= i;
+			}
+			boolean[] keep= new boolean[m];
+			int kept= 0;
+			for (int k= 0; k < m; k++ ) {
+				int ra= root(component, e[2 * k]);
+				int rb= root(component, e[2 * k + 1]);
+				if (ra != rb) {
+					component[ra]= rb;
+					keep[k]= true;
+					kept++ ;
+				}
+			}
+			// Delaunay.edges guarantees this (see its class comment)
+			if (kept != numCities - 1)
+				throw new IllegalStateException("The triangulation of " + numCities + " nodes is not connected");
+			for (int k= 0; k < m && kept < numCities * AVERAGE_DEGREE; k++ ) {
+				if (!keep[k]) {
+					keep[k]= true;
+					kept++ ;
+				}
+			}
+			for (int k= 0; k < m; k++ ) {
+				if (keep[k]) addEdge(b, r, nodes[e[2 * k]], nodes[e[2 * k + 1]]);
+			}
+		}
+
+		/** Return true iff a node placed by genLarge is within Circle.BUFFER_RADUIS <br>
+		 * of (px, py), looking in the cell of (px, py) and the 8 around it. */
+		private static boolean hasNodeNear(int px, int py, int[] x, int[] y,
+			int[] head, int[] below, int cols, int rows) {
+			final int cell= Circle.BUFFER_RADUIS;
+			int cx= px / cell;
+			int cy= py / cell;
+			for (int j= Math.max(0, cy - 1); j <= Math.min(rows - 1, cy + 1); j++ ) {
+				for (int i= Math.max(0, cx - 1); i <= Math.min(cols - 1, cx + 1); i++ ) {
+					for (int n= head[j * cols + i]; n != -1; n= below[n]) {
+						long dx= x[n] - px;
+						long dy= y[n] - py;
+						if (dx * dx + dy * dy < (long) cell * cell) return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/** Return the root of the tree of i in forest parent, halving the path. */
+		private static int root(int[] parent, int i) {
+			while (parent[i] != i) {
+				parent[i]= parent[parent[i]];
+				i= parent[i];
+			}
+			return i;
 		}
 
 		/** Create an edge with a random length that connects n1 and n2 <br>
@@ -355,6 +855,7 @@ public final class Graph implements JSONString {
 			b.getEdges().add(e);
 			n1.addExit(e);
 			n2.addExit(e);
+			if (b.generationIndex != null) b.generationIndex.add(e);
 			return e;
 		}
 
@@ -511,20 +1012,15 @@ public final class Graph implements JSONString {
 
 		/** Return true iff n2 is left of the line start -> n1. */
 		private static boolean isLeftOfLine(NodeData start, NodeData n1, NodeData n2) {
-			DPoint a= start.getCircle().getVectorTo(n1.getCircle());
-			DPoint b= start.getCircle().getVectorTo(n2.getCircle());
+			DPoint a= new DPoint(n1.getGUIX() - start.getGUIX(), n1.getGUIY() - start.getGUIY());
+			DPoint b= new DPoint(n2.getGUIX() - start.getGUIX(), n2.getGUIY() - start.getGUIY());
 			return DPoint.cross(a, b) <= 0;
 		}
 
 		/** Return true iff the line that would be formed by connecting <br>
 		 * n1 and n2 crosses an existing edge. */
 		private static boolean lineCrosses(Graph b, NodeData n1, NodeData n2) {
-			Line l= new Line(n1.getCircle(), n2.getCircle(), null);
-			for (EdgeData e : b.getEdges()) {
-				if (l.intersects(e.getLine()))
-					return true;
-			}
-			return false;
+			return b.generationIndex.crossing(n1, n2) != null;
 		}
 
 		/** Fix (psuedo) triangulation via the delunay method. <br>
@@ -556,8 +1052,7 @@ public final class Graph implements JSONString {
 											// Check angles to see if flip should be made
 											EdgeData e24= n2.getEdge(n4);
 											EdgeData e34= n3.getEdge(n4);
-											if (e2.getLine().radAngle(e24.getLine()) + e3.getLine()
-												.radAngle(e34.getLine()) > FLIP_CONDITION) {
+											if (radAngle(e2, e24) + radAngle(e3, e34) > FLIP_CONDITION) {
 												// Store the dividing edge as needing a flip
 												NodeData[] newExits= { n2, n3 };
 												needsFlip.put(e4, newExits);
@@ -574,6 +1069,7 @@ public final class Graph implements JSONString {
 			for (Entry<EdgeData, NodeData[]> e : needsFlip.entrySet()) {
 				// Remove old edge
 				b.getEdges().remove(e.getKey());
+				b.generationIndex.remove(e.getKey());
 
 				NodeData oldFirst= e.getKey().getFirstExit();
 				NodeData oldSecond= e.getKey().getSecondExit();
@@ -593,6 +1089,48 @@ public final class Graph implements JSONString {
 			}
 		}
 
+		/** Return the angle between the lines of edges e and f, in radians, <br>
+		 * computed exactly as Line.radAngle would for their lines (including its <br>
+		 * NaN when the second end of e is the first end of f), so that boards <br>
+		 * generated from a seed stay the same. <br>
+		 * Throw an IllegalArgumentException if they don't share an endpoint. */
+		private static double radAngle(EdgeData e, EdgeData f) {
+			NodeData c1= e.getFirstExit(), c2= e.getSecondExit();
+			NodeData l1= f.getFirstExit(), l2= f.getSecondExit();
+			NodeData common;
+			NodeData other1;
+			NodeData other2;
+			if (sameLocation(c1, l1)) {
+				common= c1;
+				other1= c2;
+				other2= l2;
+			} else if (sameLocation(c1, l2)) {
+				common= c1;
+				other1= c2;
+				other2= l1;
+			} else if (sameLocation(c2, l1)) {
+				common= c2;
+				other1= c1;
+				other2= c2;
+			} else if (sameLocation(c2, l2)) {
+				common= c2;
+				other1= c1;
+				other2= l1;
+			} else {
+				throw new IllegalArgumentException("Can't measure angle between " + e + " and " + f +
+					" because they don't share an endpoint");
+			}
+
+			DPoint v= new DPoint(other1.getGUIX() - common.getGUIX(), other1.getGUIY() - common.getGUIY());
+			DPoint v2= new DPoint(other2.getGUIX() - common.getGUIX(), other2.getGUIY() - common.getGUIY());
+			return DPoint.radAngle(v, v2);
+		}
+
+		/** Return true iff n1 and n2 are at the same place on the GUI. */
+		private static boolean sameLocation(NodeData n1, NodeData n2) {
+			return n1.getGUIX() == n2.getGUIX() && n1.getGUIY() == n2.getGUIY();
+		}
+
 		/** Allows for sorting of Collections of Nodes by their gui distance <br>
 		 * to each of the nodes in collection n. <br>
 		 * The node that is closest in the collection to the given node <br>
@@ -605,8 +1143,7 @@ public final class Graph implements JSONString {
 
 			@Override
 			public int compare(NodeData n1, NodeData n2) {
-				double d= node.getCircle().getDistance(n1.getCircle()) -
-					node.getCircle().getDistance(n2.getCircle());
+				double d= node.getGUIDistance(n1) - node.getGUIDistance(n2);
 				if (d < 0) return -1;
 				if (d > 0) return 1;
 				return 0;
@@ -626,7 +1163,7 @@ public final class Graph implements JSONString {
 		private static class XComparator implements Comparator<NodeData> {
 			@Override
 			public int compare(NodeData n1, NodeData n2) {
-				return n1.getCircle().getX1() - n2.getCircle().getX1();
+				return n1.getGUIX() - n2.getGUIX();
 			}
 		}
 
@@ -648,6 +1185,13 @@ public final class Graph implements JSONString {
 
 	/** Scale the (x,y) coordinates of circles to fit the gui */
 	private void scaleComponents() {
+		for (NodeData n : getNodes()) {
+			scaleComponent(n);
+		}
+	}
+
+	/** Scale the location of n based on the gui size. */
+	private void scaleComponent(NodeData n) {
 		int guiHeight= GUI.DRAWING_BOARD_HEIGHT;
 		// if(game != null && game.getGUI() != null)
 		if (gui != null)
@@ -662,11 +1206,7 @@ public final class Graph implements JSONString {
 		double widthRatio= (double) guiWidth /
 			(double) (GraphGeneration.WIDTH + GraphGeneration.BUFFER * 2);
 
-		for (NodeData n : getNodes()) {
-			Circle c= n.getCircle();
-			c.setX1((int) (c.getX1() * widthRatio));
-			c.setY1((int) (c.getY1() * heightRatio));
-		}
+		n.setGUILocation((int) (n.getGUIX() * widthRatio), (int) (n.getGUIY() * heightRatio));
 	}
 
 	/** Return the seed from which this game was generated from <br>
@@ -6,8 +6,6 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.Random;
 
-import org.json.JSONObject;
-
 /** Game starting methods. Also serves as a util holder */
 public class Main {
 
@@ -81,7 +79,7 @@ public class Main {
 	/** Return a graph for file named s in directory info. */
 	public static Graph getGraph(String s) {
 		try {
-			return Graph.getJsonGraph(new JSONObject(TextIO.read(new File(s))));
+			return Graph.readJsonGraph(new File(s));
 		} catch (IOException e) {
 			throw new RuntimeException("IO Exception reading in graph " + s);
 		}
@@ -0,0 +1,173 @@
+package gui;
+
+import java.util.Arrays;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/** The node and edge members of a graph serialized in JSON (as by <br>
+ * Graph.toJSONString()), found by one scan of the text that only matches <br>
+ * quotes and brackets: the values are not tokenized. Each node and edge can <br>
+ * then be tokenized on its own, so different ones on different threads. <br>
+ * <br>
+ * Members other than nodes, edges and the seed (trucks, parcels, score <br>
+ * coefficients) are skipped, as by the streaming loader. */
+final class MapSections {
+	/** The serialized graph. */
+	final String text;
+
+	/** The seed member of the text, -1 if there is none. */
+	long seed= -1;
+
+	// The value of node member k is text[nodeStart[k] .. nodeEnd[k]-1], in the
+	// order of the text, for k < nodeCount; the same for the edges.
+	private int[] nodeStart= new int[16];
+	private int[] nodeEnd= new int[16];
+	int nodeCount;
+	private int[] edgeStart= new int[16];
+	private int[] edgeEnd= new int[16];
+	int edgeCount;
+
+	/** Constructor: the sections of text, not yet found. */
+	private MapSections(String text) {
+		this.text= text;
+	}
+
+	/** Return the sections of text, a serialized graph. <br>
+	 * Throw a JSONException if text is not a JSON object. Values are only <br>
+	 * checked when node(k) or edge(k) tokenizes them. */
+	static MapSections split(String text) {
+		MapSections s= new MapSections(text);
+		int i= s.skipSpace(0);
+		if (i == text.length() || text.charAt(i) != '{') throw s.error("A graph must begin with '{'", i);
+		i= s.skipSpace(i + 1);
+		boolean more= i < text.length() && text.charAt(i) != '}';
+		// inv: the members before text[i] have been recorded
+		while (more) {
+			if (i == text.length() || text.charAt(i) != '"') throw s.error("Expected a key", i);
+			int keyEnd= s.valueEnd(i);
+			String key= s.key(i, keyEnd);
+			i= s.skipSpace(keyEnd);
+			if (i == text.length() || text.charAt(i) != ':') throw s.error("Expected a ':' after a key", i);
+			int start= s.skipSpace(i + 1);
+			int end= s.valueEnd(start);
+
+			if (key.startsWith(Graph.NODE_TOKEN)) {
+				s.addNode(start, end);
+			} else if (key.startsWith(Graph.EDGE_TOKEN)) {
+				s.addEdge(start, end);
+			} else if (key.equals(Graph.SEED_TOKEN)) {
+				Object v= new JSONTokener(text.substring(start, end)).nextValue();
+				if (!(v instanceof Number)) throw s.error("Expected a number for " + key, start);
+				s.seed= ((Number) v).longValue();
+			}
+
+			// Members are separated by ','; toJSONString() also writes one after the last
+			i= s.skipSpace(end);
+			if (i == text.length()) throw s.error("Expected a ',' or '}'", i);
+			if (text.charAt(i) == '}') {
+				more= false;
+			} else if (text.charAt(i) != ',') {
+				throw s.error("Expected a ',' or '}'", i);
+			} else {
+				i= s.skipSpace(i + 1);
+				if (i == text.length()) throw s.error("Expected a key or '}'", i);
+				more= text.charAt(i) != '}';
+			}
+		}
+		return s;
+	}
+
+	/** Return node member k, tokenized. Precondition: 0 <= k < nodeCount. */
+	JSONObject node(int k) {
+		return new JSONObject(new JSONTokener(text.substring(nodeStart[k], nodeEnd[k])));
+	}
+
+	/** Return edge member k, tokenized. Precondition: 0 <= k < edgeCount. */
+	JSONObject edge(int k) {
+		return new JSONObject(new JSONTokener(text.substring(edgeStart[k], edgeEnd[k])));
+	}
+
+	/** Record a node member whose value is text[start .. end-1]. */
+	private void addNode(int start, int end) {
+		if (nodeCount == nodeStart.length) {
+			nodeStart= Arrays.copyOf(nodeStart, 2 * nodeCount);
+			nodeEnd= Arrays.copyOf(nodeEnd, 2 * nodeCount);
+		}
+		nodeStart[nodeCount]= start;
+		nodeEnd[nodeCount]= end;
+		nodeCount++ ;
+	}
+
+	/** Record an edge member whose value is text[start .. end-1]. */
+	private void addEdge(int start, int end) {
+		if (edgeCount == edgeStart.length) {
+			edgeStart= Arrays.copyOf(edgeStart, 2 * edgeCount);
+			edgeEnd= Arrays.copyOf(edgeEnd, 2 * edgeCount);
+		}
+		edgeStart[edgeCount]= start;
+		edgeEnd[edgeCount]= end;
+		edgeCount++ ;
+	}
+
+	/** Return the key written as the string text[start .. end-1], quotes included. */
+	private String key(int start, int end) {
+		String key= text.substring(start + 1, end - 1);
+		if (key.indexOf('\\') == -1) return key;
+		return new JSONTokener(text.substring(start, end)).nextValue().toString();
+	}
+
+	/** Return the index of the first character of text at or after i that <br>
+	 * is not white space (text.length() if there is none). */
+	private int skipSpace(int i) {
+		while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+			i++ ;
+		}
+		return i;
+	}
+
+	/** Return the index just after the JSON value that begins at text[i]: <br>
+	 * a string, an object or array (matching brackets outside strings), or <br>
+	 * a number or literal, which ends at white space, ',', '}' or ']'. */
+	private int valueEnd(int i) {
+		if (i == text.length()) throw error("Expected a value", i);
+		char c= text.charAt(i);
+		if (c == '"') {
+			// Skip to the closing quote, past escaped characters
+			for (int j= i + 1; j < text.length(); j++ ) {
+				char d= text.charAt(j);
+				if (d == '\\') j++ ;
+				else if (d == '"') return j + 1;
+			}
+			throw error("Unterminated string", i);
+		}
+		if (c == '{' || c == '[') {
+			int depth= 0;
+			int j= i;
+			while (j < text.length()) {
+				char d= text.charAt(j);
+				if (d == '"') {
+					j= valueEnd(j);
+					continue;
+				}
+				if (d == '{' || d == '[') depth++ ;
+				else if ((d == '}' || d == ']') && --depth == 0) return j + 1;
+				j++ ;
+			}
+			throw error("Unterminated " + (c == '{' ? "object" : "array"), i);
+		}
+		int j= i;
+		while (j < text.length() && ",}]".indexOf(text.charAt(j)) == -1 &&
+			!Character.isWhitespace(text.charAt(j))) {
+			j++ ;
+		}
+		if (j == i) throw error("Expected a value", i);
+		return j;
+	}
+
+	/** Return a JSONException with message, at character i of text. */
+	private JSONException error(String message, int i) {
+		return new JSONException(message + " at character " + i);
+	}
+}
@@ -1,12 +1,16 @@
 package gui;
 
 import java.awt.Color;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 
+import org.json.JSONWriter;
+
 /** A Node (vertex) of the graph. Each Node maintains<br>
  * (1) a set of edges that exit it,
  *
@@ -25,14 +29,26 @@ public class NodeData implements GraphElement {
 	protected int x;	// x coordinate of this node in independent project space
 	protected int y;	// y coordinate of this node in independent project space
 
+	protected int id= -1;	// index of this node in its graph, in 0..number of nodes - 1
+
 	private List<EdgeData> exits;  // Edges leaving this Node
 	// When viewed as a directed graph, the first node of an edge is the source
 	// and the second is the sink.
 
+	// neighbors.get(n) is the first edge in exits whose other end is n (by identity).
+	// Guarded by the lock of exits; kept in sync by addExit, removeExit, addExits.
+	private final IdentityHashMap<NodeData, EdgeData> neighbors= new IdentityHashMap<>();
+
 	@SuppressWarnings("unused")
 	private Object userData;
 
-	private Circle circle;	// Circle that represents this graphically
+	// Location of this node on the GUI while it has no circle. The circle is
+	// made by getCircle() when a GUI first needs it; from then on, the circle's
+	// location is this node's, since the user can drag it.
+	private int guiX;
+	private int guiY;
+
+	private Circle circle;	// Circle that represents this graphically (null until needed)
 
 	/** Constructor: a Node named n on Board m with no edges leaving it <br>
 	 * and with drawing circle c. */
@@ -41,17 +57,19 @@ public class NodeData implements GraphElement {
 	}
 
 	/** Constructor: a Node named n on Board m with edges in exists <br>
-	 * and with drawing circle c. If c is null, a new circle at (0, 0) is created. */
+	 * and with drawing circle c. If c is null, the node is at (0, 0) and <br>
+	 * its circle is created when first needed. */
 	protected NodeData(Graph m, String n, DraggableCircle c, List<EdgeData> exits) {
 		graph= m;
 		name= n;
 
-		if (c == null)
-			circle= new DraggableCircle(this, 0, 0, Circle.DEFAULT_DIAMETER);
-		else circle= c;
+		circle= c;
 
 		if (exits != null) {
 			this.exits= Collections.synchronizedList(exits);
+			for (EdgeData e : exits) {
+				neighbors.putIfAbsent(e.getOther(this), e);
+			}
 		} else {
 			this.exits= Collections.synchronizedList(new ArrayList<EdgeData>());
 		}
@@ -63,6 +81,13 @@ public class NodeData implements GraphElement {
 		return graph;
 	}
 
+	/** Return this node's id: a number in 0..n-1, where n is the number of <br>
+	 * nodes in its graph, different for each node. -1 if the graph has not <br>
+	 * indexed this node. Useful for array-based algorithms. */
+	public int getId() {
+		return id;
+	}
+
 	/** Return the exits of this Node. */
 	protected List<EdgeData> getTrueExits() {
 		return exits;
@@ -133,22 +158,38 @@ public class NodeData implements GraphElement {
 
 	/** Add e to this Node's set of exits */
 	protected void addExit(EdgeData e) {
-		if (!exits.contains(e)) {
-			exits.add(e);
+		synchronized (exits) {
+			if (!exits.contains(e)) {
+				exits.add(e);
+				neighbors.putIfAbsent(e.getOther(this), e);
+				graph.exitAdded(e);
+			}
 		}
 	}
 
 	/** Remove e from this Node's set of exits */
 	protected void removeExit(EdgeData e) {
-		exits.remove(e);
+		synchronized (exits) {
+			if (!exits.remove(e)) return;
+			NodeData other= e.getOther(this);
+			if (neighbors.get(other) == e) {
+				// another edge to other, if any, takes e's place
+				neighbors.remove(other);
+				for (EdgeData r : exits) {
+					if (r.getOther(this) == other) {
+						neighbors.put(other, r);
+						break;
+					}
+				}
+			}
+			graph.exitRemoved(e);
+		}
 	}
 
 	/** Add edges in s to this Node's set of edges (its exits). */
 	protected void addExits(Collection<EdgeData> s) {
 		for (EdgeData e : s) {
-			if (!exits.contains(e)) {
-				exits.add(e);
-			}
+			addExit(e);
 		}
 	}
 
@@ -177,37 +218,59 @@ public class NodeData implements GraphElement {
 		if (destination.equals(this))
 			return false;
 
-		synchronized (exits) {
-			for (EdgeData r : exits) {
-				if (r.isExit(destination)) { return true; }
-			}
-		}
-
-		return false;
+		return getEdge(destination) != null;
 	}
 
 	/** Return the edge that this node shares with node other <br>
 	 * (null if not connected). */
 	public EdgeData getEdge(NodeData other) {
-		EdgeData n= null;
-
 		synchronized (exits) {
+			EdgeData n= neighbors.get(other);
+			if (n != null || other == null || other.graph == graph) return n;
+
+			// other is a node of another graph: match it by name
 			for (EdgeData r : exits) {
-				if (r.getOther(this).equals(other)) {
-					n= r;
-					break;
-				}
+				if (r.getOther(this).equals(other)) return r;
 			}
 		}
 
-		return n;
+		return null;
 	}
 
-	/** Return the Circle that represents this node graphically. */
+	/** Return the Circle that represents this node graphically, <br>
+	 * creating it at this node's location if it has none yet. */
 	public Circle getCircle() {
+		if (circle == null)
+			circle= new DraggableCircle(this, guiX, guiY, Circle.DEFAULT_DIAMETER);
 		return circle;
 	}
 
+	/** Return the x coordinate of this node on the GUI. */
+	public int getGUIX() {
+		return circle == null ? guiX : circle.getX1();
+	}
+
+	/** Return the y coordinate of this node on the GUI. */
+	public int getGUIY() {
+		return circle == null ? guiY : circle.getY1();
+	}
+
+	/** Move this node to (x, y) on the GUI, without repainting anything. */
+	protected void setGUILocation(int x, int y) {
+		if (circle == null) {
+			guiX= x;
+			guiY= y;
+		} else {
+			circle.setX1(x);
+			circle.setY1(y);
+		}
+	}
+
+	/** Return the distance between this node and n on the GUI. */
+	public double getGUIDistance(NodeData n) {
+		return Math.sqrt(Math.pow(getGUIX() - n.getGUIX(), 2) + Math.pow(getGUIY() - n.getGUIY(), 2));
+	}
+
 	/** Set the Circle for this Node to c. */
 	public void setCircle(Circle c) {
 		circle= c;
@@ -220,9 +283,8 @@ public class NodeData implements GraphElement {
 	 * @param y - the new Y location of this Truck in the GUI */
 	@Override
 	public void updateGUILocation(int x, int y) {
-		circle.setX1(x);
-		circle.setY1(y);
-		circle.repaint();
+		setGUILocation(x, y);
+		if (circle != null) circle.repaint();
 		for (EdgeData e : exits) {
 			e.updateGUILocation(x, y);
 		}
@@ -251,7 +313,7 @@ public class NodeData implements GraphElement {
 	/** Return the color of this Node. */
 	@Override
 	public Color getColor() {
-		return circle.getColor();
+		return circle == null ? Circle.DEFAULT_NODE_COLOR : circle.getColor();
 	}
 
 	/** Return false - the color of Nodes is not significant */
@@ -290,9 +352,17 @@ public class NodeData implements GraphElement {
 	 * Edges and parcels to take care of themselves. */
 	@Override
 	public String toJSONString() {
-		return "{\n" + Main.addQuotes(GraphElement.NAME_TOKEN) + ":" +
-			Main.addQuotes(name) + ",\n" +
-			Main.addQuotes(X_TOKEN) + ":" + x + ",\n" +
-			Main.addQuotes(Y_TOKEN) + ":" + y + "\n}";
+		StringWriter s= new StringWriter();
+		writeJSON(new JSONWriter(s));
+		return s.toString();
+	}
+
+	/** Write the JSON object of this node (see toJSONString()) to json. */
+	protected void writeJSON(JSONWriter json) {
+		json.object()
+			.key(GraphElement.NAME_TOKEN).value(name)
+			.key(X_TOKEN).value(x)
+			.key(Y_TOKEN).value(y)
+			.endObject();
 	}
 }
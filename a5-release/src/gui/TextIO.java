@@ -46,16 +46,16 @@ public class TextIO {
 			e.printStackTrace();
 		}
 
-		String s= "";
+		StringBuilder s= new StringBuilder();
 		String line= br.readLine();
 		// inv: all input lines preceding line have been placed in s, preceded by '\n'
 		while (line != null) {
-			s= s + "\n" + line;
+			s.append('\n').append(line);
 			line= br.readLine();
 		}
 
 		br.close();
-		return s.substring(1); // Cut off preceding newline character
+		return s.length() == 0 ? "" : s.substring(1); // Cut off preceding newline character
 	}
 
 	/** Read text file f and return it with one line in each array element.<br>